@@ -37,7 +37,7 @@ const StatusBadge = ({ status }) => {
     }
 };
 
-export default function AuditTable({ recordings, onRefresh, onSelectionChange }) {
+export default function AuditTable({ recordings, onRefresh, onSelectionChange, hasMore, loadingMore, onLoadMore }) {
     const [modalOpen, setModalOpen] = useState(false);
     const [selectedRecording, setSelectedRecording] = useState(null);
     const [selectedIds, setSelectedIds] = useState([]);
@@ -248,6 +248,17 @@ export default function AuditTable({ recordings, onRefresh, onSelectionChange })
                         ))}
                     </tbody>
                 </table>
+                {hasMore && (
+                    <div className="p-4 border-t border-slate-100 text-center">
+                        <button
+                            onClick={onLoadMore}
+                            disabled={loadingMore}
+                            className="text-sm font-medium text-blue-600 hover:text-blue-700 disabled:text-slate-400 transition"
+                        >
+                            {loadingMore ? 'Loading...' : `Load more (${recordings.length} shown)`}
+                        </button>
+                    </div>
+                )}
             </div>
 
             <ManualLinkModal
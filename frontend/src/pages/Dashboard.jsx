@@ -9,6 +9,9 @@ import Toast from '../components/Toast';
 export default function Dashboard() {
     const [stats, setStats] = useState({ totalRecordings: 0, orphanedCount: 0, healedCount: 0, estimatedRecovery: 0 });
     const [recordings, setRecordings] = useState([]);
+    // Keyset cursor of the next page (X-Next-Cursor), null on the last page
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [loading, setLoading] = useState(false);
     const [repairModalOpen, setRepairModalOpen] = useState(false);
 
@@ -30,21 +33,39 @@ export default function Dashboard() {
         }
     };
 
-    const fetchRecordings = async () => {
-        setIsLoading(true);
+    // First page on refresh; later pages are appended by loadMoreRecordings
+    const fetchRecordings = async (cursor = null) => {
+        const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+        const recRes = await fetch(`${import.meta.env.VITE_API_URL}/recordings${query}`);
+        if (!recRes.ok) return;
+        const page = await recRes.json();
+        setRecordings(previous => cursor ? [...previous, ...page] : page);
+        setNextCursor(recRes.headers.get('X-Next-Cursor'));
+    };
+
+    const refreshRecordings = async () => {
         try {
-            const recRes = await fetch(`${import.meta.env.VITE_API_URL}/recordings`);
-            if (recRes.ok) setRecordings(await recRes.json());
+            await fetchRecordings();
         } catch (e) {
             console.error("Failed to fetch recordings", e);
+        }
+    };
+
+    const loadMoreRecordings = async () => {
+        if (!nextCursor) return;
+        setLoadingMore(true);
+        try {
+            await fetchRecordings(nextCursor);
+        } catch (e) {
+            console.error("Failed to fetch more recordings", e);
         } finally {
-            setIsLoading(false);
+            setLoadingMore(false);
         }
     };
 
     const fetchData = async () => {
         await fetchStats();
-        await fetchRecordings();
+        await refreshRecordings();
     };
 
     useEffect(() => {
@@ -54,7 +75,7 @@ export default function Dashboard() {
     const [selectedIds, setSelectedIds] = useState([]);
 
     const triggerHeal = async () => {
-        setIsHealing(true);
+        setLoading(true);
         try {
             const res = await fetch(`${import.meta.env.VITE_API_URL}/heal-now`, {
                 method: 'POST',
@@ -63,18 +84,27 @@ export default function Dashboard() {
             });
 
             if (res.status === 202) {
+                const job = await res.json();
                 const msg = selectedIds.length > 0
                     ? `🚀 Healing job started for ${selectedIds.length} records!`
                     : "🚀 Full catalog healing started!";
                 showToast(msg, "success");
 
-                // Poll for updates every 2 seconds for 10 seconds
-                let attempts = 0;
+                // Refresh every 2 seconds until the job finishes
                 const interval = setInterval(async () => {
                     await fetchData();
-                    attempts++;
-                    if (attempts >= 5) clearInterval(interval);
+                    try {
+                        const jobRes = await fetch(`${import.meta.env.VITE_API_URL}/jobs/${job.id}`);
+                        const current = jobRes.ok ? await jobRes.json() : null;
+                        if (!current || ['COMPLETED', 'FAILED', 'CANCELLED'].includes(current.status)) {
+                            clearInterval(interval);
+                        }
+                    } catch (e) {
+                        clearInterval(interval);
+                    }
                 }, 2000);
+            } else if (res.status === 503) {
+                showToast("Too many jobs queued. Try again shortly.", "error");
             } else {
                 showToast("Heal trigger failed. Check server logs.", "error");
             }
@@ -108,6 +138,9 @@ export default function Dashboard() {
                 recordings={recordings}
                 onRefresh={fetchData}
                 onSelectionChange={setSelectedIds}
+                hasMore={nextCursor != null}
+                loadingMore={loadingMore}
+                onLoadMore={loadMoreRecordings}
             />
 
             <NewRepairModal
@@ -3,19 +3,31 @@ import { useState, useEffect } from 'react';
 
 export default function IntegrityLog() {
     const [recordings, setRecordings] = useState([]);
+    // Keyset cursor of the next page (X-Next-Cursor), null on the last page
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
 
-    useEffect(() => {
-        const fetchRecordings = async () => {
-            try {
-                const res = await fetch(`${import.meta.env.VITE_API_URL}/recordings`);
-                if (res.ok) {
-                    const data = await res.json();
-                    setRecordings(data);
-                }
-            } catch (err) {
-                console.error("Failed to fetch recordings", err);
+    const fetchRecordings = async (cursor = null) => {
+        try {
+            const query = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+            const res = await fetch(`${import.meta.env.VITE_API_URL}/recordings?orphaned=false${query}`);
+            if (res.ok) {
+                const data = await res.json();
+                setRecordings(previous => cursor ? [...previous, ...data] : data);
+                setNextCursor(res.headers.get('X-Next-Cursor'));
             }
-        };
+        } catch (err) {
+            console.error("Failed to fetch recordings", err);
+        }
+    };
+
+    const loadMore = async () => {
+        setLoadingMore(true);
+        await fetchRecordings(nextCursor);
+        setLoadingMore(false);
+    };
+
+    useEffect(() => {
         fetchRecordings();
     }, []);
 
@@ -59,6 +71,17 @@ export default function IntegrityLog() {
                         </div>
                     )}
                 </div>
+                {nextCursor && (
+                    <div className="p-4 border-t border-slate-100 text-center">
+                        <button
+                            onClick={loadMore}
+                            disabled={loadingMore}
+                            className="text-sm font-medium text-blue-600 hover:text-blue-700 disabled:text-slate-400 transition"
+                        >
+                            {loadingMore ? 'Loading...' : 'Load older actions'}
+                        </button>
+                    </div>
+                )}
             </div>
         </div>
     );
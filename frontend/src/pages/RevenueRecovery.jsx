@@ -2,7 +2,6 @@ import { useState, useEffect } from 'react';
 
 export default function RevenueRecovery() {
     const [stats, setStats] = useState({ totalRecordings: 0, orphanedCount: 0, healedCount: 0, estimatedRecovery: 0 });
-    const [recordings, setRecordings] = useState([]);
 
     useEffect(() => {
         const fetchData = async () => {
@@ -10,13 +9,6 @@ export default function RevenueRecovery() {
                 const statsRes = await fetch(`${import.meta.env.VITE_API_URL}/stats`);
                 const statsData = await statsRes.json();
                 setStats(statsData);
-
-                // Fetch recordings to calculate potential recovery
-                const recRes = await fetch(`${import.meta.env.VITE_API_URL}/recordings`);
-                if (recRes.ok) {
-                    const recData = await recRes.json();
-                    setRecordings(recData);
-                }
             } catch (err) {
                 console.error("Failed to fetch data", err);
             }
@@ -24,9 +16,8 @@ export default function RevenueRecovery() {
         fetchData();
     }, []);
 
-    const orphaned = recordings.filter(r => r.work == null);
     // Estimate trapped revenue: orphaned records * 1000 simulated streams * industry rate
-    const trappedRevenue = orphaned.length * 1000 * 0.004;
+    const trappedRevenue = stats.orphanedCount * 1000 * 0.004;
 
     return (
         <div className="p-8">
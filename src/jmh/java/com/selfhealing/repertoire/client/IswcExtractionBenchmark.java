@@ -0,0 +1,58 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a MusicBrainz recording search response and extracting the ISWC:
+ * building the full JsonNode tree and walking it, against the streaming
+ * reader {@link MusicBrainzClient} uses for every lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IswcExtractionBenchmark {
+
+    @Param({ "isrc-lookup.json", "search-25.json", "search-no-iswc.json" })
+    private String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/musicbrainz/" + payload)) {
+            body = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public String treeWalk() throws IOException {
+        return MusicBrainzClient.extractIswc(objectMapper.readTree(body));
+    }
+
+    @Benchmark
+    public String streaming() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            return MusicBrainzClient.readIswc(parser);
+        }
+    }
+}
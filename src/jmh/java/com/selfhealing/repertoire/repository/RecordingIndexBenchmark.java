@@ -0,0 +1,243 @@
+package com.selfhealing.repertoire.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The healer's and dashboard's database access paths on a synthetic catalogue
+ * in a live PostgreSQL, before and after the V2 index migration.
+ *
+ * {@code before} is the V1 schema with the original query shapes (OR keyset
+ * condition, {@code lower(...)} on the pattern); {@code after} adds the V2
+ * indexes and uses the rewritten queries. Each trial builds its own schema
+ * ({@code index_bench_before} / {@code index_bench_after}) and drops it
+ * afterwards. Point it at a scratch database with
+ * {@code -Dbench.db.url=jdbc:postgresql://host:5432/db}; credentials come from
+ * DB_USERNAME / DB_PASSWORD as for the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1)
+public class RecordingIndexBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    // Orphans skipped before the deep page, i.e. how far the user has scrolled
+    private static final int DEEP_PAGE_OFFSET = 50_000;
+
+    private static final String PAGE_BEFORE = """
+            SELECT id, updated_at FROM recordings
+            WHERE work_id IS NULL
+              AND (updated_at < ? OR (updated_at = ? AND id < ?) OR updated_at IS NULL)
+            ORDER BY updated_at DESC NULLS LAST, id DESC LIMIT ?
+            """;
+
+    private static final String PAGE_AFTER = """
+            SELECT id, updated_at FROM recordings
+            WHERE work_id IS NULL
+              AND (updated_at, id) < (?, ?)
+            ORDER BY updated_at DESC NULLS LAST, id DESC LIMIT ?
+            """;
+
+    private static final String STATUS_PAGE = """
+            SELECT id, updated_at FROM recordings WHERE status = ?
+            ORDER BY updated_at DESC NULLS LAST, id DESC LIMIT ?
+            """;
+
+    private static final String COUNT_ORPHANS = "SELECT count(*) FROM recordings WHERE work_id IS NULL";
+
+    private static final String CLAIM_DUE = """
+            SELECT id FROM recordings
+            WHERE next_heal_at <= LOCALTIMESTAMP AND work_id IS NULL
+              AND (claim_expires_at IS NULL OR claim_expires_at < LOCALTIMESTAMP)
+            ORDER BY next_heal_at, id LIMIT 100
+            """;
+
+    private static final String SEARCH_BEFORE = """
+            SELECT id, iswc, title FROM works
+            WHERE lower(title) LIKE lower('%' || ? || '%') OR lower(iswc) LIKE lower('%' || ? || '%')
+            """;
+
+    private static final String SEARCH_AFTER = """
+            SELECT id, iswc, title FROM works WHERE lower(title) LIKE ? OR lower(iswc) LIKE ?
+            """;
+
+    @Param({ "before", "after" })
+    private String schema;
+
+    @Param({ "1000000" })
+    private int recordings;
+
+    private Connection connection;
+    private String schemaName;
+    private Timestamp cursorUpdatedAt;
+    private Object cursorId;
+    private String searchTerm;
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        String url = System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/repertoire_db");
+        connection = DriverManager.getConnection(url, System.getenv().getOrDefault("DB_USERNAME", "postgres"),
+                System.getenv().getOrDefault("DB_PASSWORD", "password"));
+        schemaName = "index_bench_" + schema;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schemaName + " CASCADE");
+            statement.execute("CREATE SCHEMA " + schemaName);
+            // pg_trgm's operator classes live in public
+            statement.execute("SET search_path TO " + schemaName + ", public");
+            statement.execute(migration("V1__baseline_schema.sql"));
+            seed(statement);
+            if ("after".equals(schema)) {
+                statement.execute(migration("V2__healer_access_path_indexes.sql"));
+            }
+            statement.execute("ANALYZE");
+        }
+
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT updated_at, id FROM recordings WHERE work_id IS NULL "
+                        + "ORDER BY updated_at DESC NULLS LAST, id DESC OFFSET " + DEEP_PAGE_OFFSET + " LIMIT 1")) {
+            rs.next();
+            cursorUpdatedAt = rs.getTimestamp(1);
+            cursorId = rs.getObject(2);
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT substr(title, 12, 6) FROM works OFFSET 777 LIMIT 1")) {
+            rs.next();
+            searchTerm = rs.getString(1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schemaName + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int orphanPageDeep() throws SQLException {
+        boolean before = "before".equals(schema);
+        try (PreparedStatement statement = connection.prepareStatement(before ? PAGE_BEFORE : PAGE_AFTER)) {
+            int i = 1;
+            statement.setTimestamp(i++, cursorUpdatedAt);
+            if (before) {
+                statement.setTimestamp(i++, cursorUpdatedAt);
+            }
+            statement.setObject(i++, cursorId);
+            statement.setInt(i, PAGE_SIZE);
+            return count(statement);
+        }
+    }
+
+    @Benchmark
+    public int statusPage() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(STATUS_PAGE)) {
+            statement.setString(1, "ORPHANED");
+            statement.setInt(2, PAGE_SIZE);
+            return count(statement);
+        }
+    }
+
+    @Benchmark
+    public int countOrphans() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_ORPHANS);
+                ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Benchmark
+    public int claimDue() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(CLAIM_DUE)) {
+            return count(statement);
+        }
+    }
+
+    @Benchmark
+    public int workSearch() throws SQLException {
+        boolean before = "before".equals(schema);
+        try (PreparedStatement statement = connection.prepareStatement(before ? SEARCH_BEFORE : SEARCH_AFTER)) {
+            String value = before ? searchTerm : WorkRepository.containsPattern(searchTerm);
+            statement.setString(1, value);
+            statement.setString(2, value);
+            return count(statement);
+        }
+    }
+
+    /**
+     * One work per five recordings; a fifth of the recordings are orphans,
+     * half of them due for healing.
+     */
+    private void seed(Statement statement) throws SQLException {
+        int works = Math.max(1, recordings / 5);
+        statement.execute("""
+                INSERT INTO works (id, iswc, title, work_type)
+                SELECT md5('w' || i)::uuid, 'T-' || lpad(i::text, 9, '0') || '-0', 'Work title ' || md5(i::text),
+                       'Original'
+                FROM generate_series(1, %d) i
+                """.formatted(works));
+        statement.execute("""
+                INSERT INTO recordings (id, isrc, work_id, recording_title, artist_name, status, updated_at,
+                                        heal_attempts, next_heal_at)
+                SELECT md5('r' || i)::uuid,
+                       'ZZ' || lpad(i::text, 10, '0'),
+                       CASE WHEN i %% 5 = 0 THEN NULL ELSE md5('w' || (i %% %2$d + 1))::uuid END,
+                       'Recording ' || md5(i::text),
+                       'Artist ' || (i %% 5000),
+                       CASE WHEN i %% 5 <> 0 THEN 'HEALED'
+                            WHEN i %% 3 = 0 THEN 'ORPHANED'
+                            WHEN i %% 3 = 1 THEN 'PENDING'
+                            ELSE 'ERROR' END,
+                       TIMESTAMP '2026-01-01' + ((i::bigint * 7919) %% %1$d) * INTERVAL '1 second',
+                       0,
+                       LOCALTIMESTAMP + CASE WHEN i %% 2 = 0 THEN INTERVAL '-1 hour' ELSE INTERVAL '1 day' END
+                FROM generate_series(1, %1$d) i
+                """.formatted(recordings, works));
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static String migration(String name) throws IOException {
+        try (InputStream in = RecordingIndexBenchmark.class.getResourceAsStream("/db/migration/" + name)) {
+            if (in == null) {
+                throw new IOException("Migration not on the classpath: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.model.Recording;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reading every recording for the list endpoints, the way the controller did
+ * before DTO projections (findAll, eager Work per recording, field-by-field
+ * mapping) and through the projected {@code findPage} query, in a live
+ * PostgreSQL. Run with {@code -prof gc} for allocation per read; the
+ * statement and entity counts of one read are printed at setup.
+ *
+ * The trial runs in its own schema ({@code read_bench}), migrated by Flyway
+ * and dropped afterwards. Point it at a scratch database with
+ * {@code -Dbench.db.url=jdbc:postgresql://host:5432/db}; credentials come from
+ * DB_USERNAME / DB_PASSWORD as for the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1)
+public class RecordingReadBenchmark {
+
+    @Param({ "5000", "50000" })
+    private int recordings;
+
+    private ConfigurableApplicationContext context;
+    private RecordingRepository recordingRepository;
+    private Statistics statistics;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/repertoire_db");
+        // Arguments rather than default properties, so they win over application.properties
+        context = new SpringApplicationBuilder(ReadPath.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?")
+                                + "currentSchema=read_bench,public",
+                        "--spring.datasource.username=" + System.getenv().getOrDefault("DB_USERNAME", "postgres"),
+                        "--spring.datasource.password=" + System.getenv().getOrDefault("DB_PASSWORD", "password"),
+                        "--spring.flyway.schemas=read_bench",
+                        "--spring.jpa.open-in-view=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.root=WARN");
+        recordingRepository = context.getBean(RecordingRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        seed(context.getBean(JdbcTemplate.class));
+
+        report("entityMapping", this::entityMapping);
+        report("projection", this::projection);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).execute("DROP SCHEMA IF EXISTS read_bench CASCADE");
+        context.close();
+    }
+
+    @Benchmark
+    public List<RecordingDTO> entityMapping() {
+        return recordingRepository.findAll().stream().map(RecordingReadBenchmark::toDto).toList();
+    }
+
+    @Benchmark
+    public List<RecordingDTO> projection() {
+        return recordingRepository.findPage(null, null, recordings);
+    }
+
+    // The controller's mapping before the projections
+    private static RecordingDTO toDto(Recording rec) {
+        RecordingDTO dto = new RecordingDTO();
+        dto.setId(rec.getId());
+        dto.setIsrc(rec.getIsrc());
+        dto.setRecordingTitle(rec.getRecordingTitle());
+        dto.setArtistName(rec.getArtistName());
+        dto.setDiscoverySource(rec.getDiscoverySource());
+        dto.setDurationMs(rec.getDurationMs());
+        dto.setStatus(rec.getStatus());
+        dto.setUpdatedAt(rec.getUpdatedAt());
+        if (rec.getWork() != null) {
+            dto.setWork(new RecordingDTO.WorkDTO(rec.getWork().getId(), rec.getWork().getIswc(),
+                    rec.getWork().getTitle(), rec.getWork().getWorkType()));
+        }
+        return dto;
+    }
+
+    private void report(String name, Supplier<List<RecordingDTO>> read) {
+        statistics.clear();
+        int rows = read.get().size();
+        System.out.printf("%s: %d rows, %d statements, %d entities loaded%n", name, rows,
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount());
+    }
+
+    /**
+     * One work per five recordings; every other recording is linked.
+     */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        int works = Math.max(1, recordings / 5);
+        jdbcTemplate.execute("""
+                INSERT INTO works (id, iswc, title, work_type)
+                SELECT md5('w' || i)::uuid, 'T-' || lpad(i::text, 9, '0') || '-0', 'Work title ' || i, 'Original'
+                FROM generate_series(1, %d) i
+                """.formatted(works));
+        jdbcTemplate.execute("""
+                INSERT INTO recordings (id, isrc, work_id, recording_title, artist_name, status, updated_at,
+                                        heal_attempts, next_heal_at)
+                SELECT md5('r' || i)::uuid,
+                       'ZZ' || lpad(i::text, 10, '0'),
+                       CASE WHEN i %% 2 = 0 THEN md5('w' || (i %% %2$d + 1))::uuid END,
+                       'Recording ' || i,
+                       'Artist ' || (i %% 500),
+                       CASE WHEN i %% 2 = 0 THEN 'HEALED' ELSE 'ORPHANED' END,
+                       TIMESTAMP '2026-01-01' + i * INTERVAL '1 second',
+                       0,
+                       LOCALTIMESTAMP
+                FROM generate_series(1, %1$d) i
+                """.formatted(recordings, works));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * JPA and Flyway only: no web layer, schedulers or services. Not a
+     * {@code @Configuration}, so the application's component scan ignores it.
+     */
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Recording.class)
+    @EnableJpaRepositories(basePackageClasses = RecordingRepository.class)
+    static class ReadPath {
+    }
+}
@@ -0,0 +1,114 @@
+package com.selfhealing.repertoire.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second through the bulk CSV ingestion path: one
+ * {@link RecordingBatchWriter#findExistingIsrcs} query and one batched upsert
+ * per chunk, committed per chunk, against a live PostgreSQL.
+ *
+ * {@code insert} writes chunks of new ISRCs; {@code update} re-imports
+ * existing ISRCs with a changed title. The trial runs in its own schema
+ * ({@code upsert_bench}), dropped afterwards. Point it at a scratch database
+ * with {@code -Dbench.db.url=jdbc:postgresql://host:5432/db}; credentials come
+ * from DB_USERNAME / DB_PASSWORD as for the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1)
+public class RecordingUpsertBenchmark {
+
+    // batch.chunk-size
+    private static final int CHUNK_SIZE = 1000;
+
+    // ISRCs the update benchmark cycles through
+    private static final int EXISTING = 100 * CHUNK_SIZE;
+
+    @Param({ "insert", "update" })
+    private String mode;
+
+    private SingleConnectionDataSource dataSource;
+    private Connection connection;
+    private RecordingBatchWriter writer;
+    private long next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/repertoire_db");
+        dataSource = new SingleConnectionDataSource(url + (url.contains("?") ? "&" : "?")
+                + "reWriteBatchedInserts=true&currentSchema=upsert_bench,public",
+                System.getenv().getOrDefault("DB_USERNAME", "postgres"),
+                System.getenv().getOrDefault("DB_PASSWORD", "password"), true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS upsert_bench CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA upsert_bench");
+        Flyway.configure().dataSource(dataSource).schemas("upsert_bench").load().migrate();
+
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        writer = new RecordingBatchWriter(jdbcTemplate);
+        if ("update".equals(mode)) {
+            for (int i = 0; i < EXISTING; i += CHUNK_SIZE) {
+                writer.upsert(chunk(i));
+            }
+            connection.commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS upsert_bench CASCADE");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public int upsertChunk() throws SQLException {
+        long first = "update".equals(mode) ? next % EXISTING : next;
+        next += CHUNK_SIZE;
+        List<RecordingBatchWriter.RecordingRow> rows = chunk(first);
+        List<String> isrcs = new ArrayList<>(rows.size());
+        for (RecordingBatchWriter.RecordingRow row : rows) {
+            isrcs.add(row.getIsrc());
+        }
+        int existing = writer.findExistingIsrcs(isrcs).size();
+        writer.upsert(rows);
+        connection.commit();
+        return existing;
+    }
+
+    private List<RecordingBatchWriter.RecordingRow> chunk(long first) {
+        List<RecordingBatchWriter.RecordingRow> rows = new ArrayList<>(CHUNK_SIZE);
+        for (long i = first; i < first + CHUNK_SIZE; i++) {
+            // Titles change on every pass, so updates reset the healing state as a real re-import would
+            rows.add(new RecordingBatchWriter.RecordingRow("Recording " + i + " take " + next,
+                    "Artist " + (i % 5000), "ZZ" + String.format("%010d", i)));
+        }
+        return rows;
+    }
+}
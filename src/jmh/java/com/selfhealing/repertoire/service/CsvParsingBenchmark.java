@@ -0,0 +1,62 @@
+package com.selfhealing.repertoire.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of a /repair/batch upload with the chunked reader, excluding
+ * database writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    @Param({ "100000" })
+    private int rows;
+
+    @Param({ "1000" })
+    private int chunkSize;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("Title,Artist,ISRC\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append("\"Song Title ").append(i).append(", Part ").append(i % 7).append("\",")
+                    .append("Artist ").append(i % 1000).append(',')
+                    .append(String.format("GBABC%07d", i)).append('\n');
+        }
+        csv = builder.toString();
+    }
+
+    @Benchmark
+    public long parseInChunks() throws IOException {
+        long parsed = 0;
+        try (CsvChunkReader reader = new CsvChunkReader(new StringReader(csv))) {
+            List<String[]> chunk;
+            while (!(chunk = reader.readChunk(chunkSize)).isEmpty()) {
+                parsed += chunk.size();
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,101 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.repository.WorkTitleView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tier 4 local fuzzy match for one orphan title: the original full scan over
+ * every Work versus the {@link WorkCandidateIndex} shortlist, and the
+ * {@link MatchScorer} path (normalized keys, pruned scoring) the healer uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FuzzyScanBenchmark {
+
+    private static final double MATCH_THRESHOLD = 0.9;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int works;
+
+    private MetadataHealerService healer;
+    private List<WorkTitleView> catalogue;
+    private WorkCandidateIndex index;
+    private WorkCandidateIndex normalizedIndex;
+    private MatchScorer scorer;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        healer = new MetadataHealerService();
+        catalogue = SyntheticCatalogue.works(works, 1L);
+        index = new WorkCandidateIndex(SyntheticCatalogue.repositoryOf(catalogue));
+        index.rebuild();
+        TextNormalizer normalizer = new TextNormalizer();
+        normalizedIndex = new WorkCandidateIndex(SyntheticCatalogue.repositoryOf(catalogue), normalizer);
+        normalizedIndex.rebuild();
+        scorer = new MatchScorer(normalizer);
+        queries = SyntheticCatalogue.queries(catalogue, 1024, 2L);
+    }
+
+    @Benchmark
+    public UUID fullScan() {
+        String query = nextQuery();
+        UUID best = null;
+        double highestScore = 0.0;
+        for (WorkTitleView work : catalogue) {
+            double score = healer.calculateSimilarity(query, work.getTitle());
+            if (score > highestScore) {
+                highestScore = score;
+                best = work.getId();
+            }
+        }
+        return highestScore >= MATCH_THRESHOLD ? best : null;
+    }
+
+    @Benchmark
+    public UUID candidateIndex() {
+        String query = nextQuery();
+        UUID best = null;
+        double highestScore = 0.0;
+        for (WorkCandidateIndex.Candidate candidate : index.shortlist(query, MATCH_THRESHOLD)) {
+            double score = healer.calculateSimilarity(query, candidate.getTitle());
+            if (score > highestScore) {
+                highestScore = score;
+                best = candidate.getWorkId();
+            }
+        }
+        return highestScore >= MATCH_THRESHOLD ? best : null;
+    }
+
+    @Benchmark
+    public UUID scoringEngine() {
+        MatchScorer.Query query = scorer.query(nextQuery(), null, null);
+        MatchScorer.Match match = scorer.bestMatch(query,
+                normalizedIndex.shortlist(query.getTitle(), scorer.titleThreshold(query, MATCH_THRESHOLD)),
+                MATCH_THRESHOLD);
+        return match == null ? null : match.getWorkId();
+    }
+
+    private String nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+}
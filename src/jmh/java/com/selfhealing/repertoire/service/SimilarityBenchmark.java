@@ -0,0 +1,51 @@
+package com.selfhealing.repertoire.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link MetadataHealerService#calculateSimilarity} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    @Param({ "short", "long" })
+    private String pair;
+
+    private MetadataHealerService healer;
+    private String left;
+    private String right;
+
+    @Setup
+    public void setUp() {
+        healer = new MetadataHealerService();
+        if ("short".equals(pair)) {
+            left = "Bohemian Rapsody";
+            right = "Bohemian Rhapsody";
+        } else {
+            left = "Stairway to Heaven (Remastered 2012 Deluxe Edition) [feat. Some Featured Artist]";
+            right = "Stairway To Heaven - Remastered 2012 Deluxe Edition (feat. Some Featured Artist)";
+        }
+    }
+
+    @Benchmark
+    public double calculateSimilarity() {
+        return healer.calculateSimilarity(left, right);
+    }
+}
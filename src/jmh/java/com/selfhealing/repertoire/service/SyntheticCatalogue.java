@@ -0,0 +1,121 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.repository.WorkRepository;
+import com.selfhealing.repertoire.repository.WorkTitleView;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic Work titles and typo'd queries for the benchmarks.
+ */
+final class SyntheticCatalogue {
+
+    private static final String[] WORDS = { "love", "night", "heart", "fire", "dance", "dream", "rain", "blue",
+            "summer", "shape", "of", "you", "the", "bohemian", "rhapsody", "yesterday", "hotel", "california",
+            "stairway", "to", "heaven", "imagine", "river", "smells", "like", "teen", "spirit", "sweet", "child",
+            "mine", "purple", "haze", "billie", "jean", "hey", "jude", "wonderwall", "creep", "vogue", "toxic",
+            "halo", "umbrella", "royals", "hello", "closer", "believer", "thunder", "levels", "wake", "me", "up" };
+
+    private SyntheticCatalogue() {
+    }
+
+    static List<WorkTitleView> works(int count, long seed) {
+        Random random = new Random(seed);
+        List<WorkTitleView> works = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            works.add(new Row(new UUID(random.nextLong(), random.nextLong()), title(random)));
+        }
+        return works;
+    }
+
+    /**
+     * Half the queries are typo'd catalogue titles, half are random titles.
+     */
+    static String[] queries(List<WorkTitleView> works, int count, long seed) {
+        Random random = new Random(seed);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = i % 2 == 0 ? typo(works.get(random.nextInt(works.size())).getTitle(), random) : title(random);
+        }
+        return queries;
+    }
+
+    /**
+     * Repository stub that only answers {@code findAllTitles()},
+     * {@code findAllSummaries()} (with synthetic ISWCs) and no linked
+     * recordings, enough to build a {@link WorkCandidateIndex} or
+     * {@link WorkSearchIndex} without a database.
+     */
+    static WorkRepository repositoryOf(List<WorkTitleView> works) {
+        return (WorkRepository) Proxy.newProxyInstance(WorkRepository.class.getClassLoader(),
+                new Class<?>[] { WorkRepository.class }, (proxy, method, args) -> {
+                    if ("findAllTitles".equals(method.getName())) {
+                        return works;
+                    }
+                    if ("findAllSummaries".equals(method.getName())) {
+                        List<RecordingDTO.WorkDTO> summaries = new ArrayList<>(works.size());
+                        for (int i = 0; i < works.size(); i++) {
+                            WorkTitleView work = works.get(i);
+                            summaries.add(new RecordingDTO.WorkDTO(work.getId(), iswc(i), work.getTitle(), "Original"));
+                        }
+                        return summaries;
+                    }
+                    if ("findLinkedProfiles".equals(method.getName())) {
+                        return List.of();
+                    }
+                    if ("toString".equals(method.getName())) {
+                        return "SyntheticWorkRepository";
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * ISWC of the i-th synthetic Work, e.g. T-000.000.042-0.
+     */
+    static String iswc(int i) {
+        String digits = String.format("%09d", i);
+        return "T-" + digits.substring(0, 3) + "." + digits.substring(3, 6) + "." + digits.substring(6) + "-0";
+    }
+
+    private static String title(Random random) {
+        int words = 1 + random.nextInt(5);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    private static String typo(String title, Random random) {
+        StringBuilder s = new StringBuilder(title);
+        int pos = random.nextInt(s.length());
+        switch (random.nextInt(3)) {
+            case 0 -> s.deleteCharAt(pos);
+            case 1 -> s.insert(pos, (char) ('a' + random.nextInt(26)));
+            default -> s.setCharAt(pos, (char) ('a' + random.nextInt(26)));
+        }
+        return s.toString();
+    }
+
+    private record Row(UUID id, String title) implements WorkTitleView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.repository.WorkTitleView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code /works/search} query against the {@link WorkSearchIndex} (top 20)
+ * versus an unranked, uncapped case-insensitive substring scan (titles and
+ * ISWCs lower-cased up front), the in-memory equivalent of the old
+ * {@code %LIKE%} search.
+ *
+ * {@code typo} queries are typo'd catalogue titles, {@code prefix} queries the
+ * first one to four letters of a title (what the dialog sends while the user is
+ * still typing) and {@code iswc} queries the start of a catalogue ISWC. The
+ * synthetic titles share a vocabulary of about fifty words, so most words hit
+ * a large share of the catalogue: a worst case for the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WorkSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({ "100000", "1000000" })
+    private int works;
+
+    @Param({ "typo", "prefix", "iswc" })
+    private String queryKind;
+
+    private List<WorkTitleView> catalogue;
+    private String[] lowerTitles;
+    private String[] lowerIswcs;
+    private WorkSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        catalogue = SyntheticCatalogue.works(works, 1L);
+        index = new WorkSearchIndex(SyntheticCatalogue.repositoryOf(catalogue), new TextNormalizer());
+        index.rebuild();
+        lowerTitles = new String[works];
+        lowerIswcs = new String[works];
+        for (int i = 0; i < works; i++) {
+            lowerTitles[i] = catalogue.get(i).getTitle().toLowerCase(Locale.ROOT);
+            lowerIswcs[i] = SyntheticCatalogue.iswc(i).toLowerCase(Locale.ROOT);
+        }
+
+        Random random = new Random(2L);
+        queries = switch (queryKind) {
+            case "typo" -> SyntheticCatalogue.queries(catalogue, 1024, 2L);
+            case "prefix" -> {
+                String[] prefixes = new String[1024];
+                for (int i = 0; i < prefixes.length; i++) {
+                    String title = catalogue.get(random.nextInt(works)).getTitle();
+                    prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(4)));
+                }
+                yield prefixes;
+            }
+            default -> {
+                String[] iswcs = new String[1024];
+                for (int i = 0; i < iswcs.length; i++) {
+                    iswcs[i] = SyntheticCatalogue.iswc(random.nextInt(works)).substring(0, 9);
+                }
+                yield iswcs;
+            }
+        };
+    }
+
+    @Benchmark
+    public List<RecordingDTO.WorkDTO> searchIndex() {
+        return index.search(nextQuery(), LIMIT);
+    }
+
+    @Benchmark
+    public List<WorkTitleView> substringScan() {
+        String query = nextQuery().toLowerCase(Locale.ROOT);
+        List<WorkTitleView> matches = new ArrayList<>();
+        for (int i = 0; i < lowerTitles.length; i++) {
+            if (lowerTitles[i].contains(query) || lowerIswcs[i].contains(query)) {
+                matches.add(catalogue.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private String nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+}
@@ -0,0 +1,269 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache-first front for the MusicBrainz and Spotify clients. Lookups are keyed
+ * by normalized ISRC or normalized title + artist; answers (including "no
+ * match") are served from {@link LookupCache} until they expire. Concurrent
+ * misses on the same key share one upstream call via {@link SingleFlight}.
+ * Upstream failures are never cached; the single lookups throw them as
+ * {@link UpstreamLookupException} so callers can tell them from "no match".
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CachingLookupClient implements MeterBinder {
+
+    private final MusicBrainzClient musicBrainzClient;
+    private final SpotifyClient spotifyClient;
+    private final LookupCache cache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    // ISRCs per multi-ISRC search request
+    @Value("${musicbrainz.isrc-batch-size:25}")
+    private int isrcBatchSize = 25;
+
+    // Spotify searches in flight per enrichment batch
+    @Value("${spotify.isrc-batch-size:50}")
+    private int spotifyBatchSize = 50;
+
+    /**
+     * @throws UpstreamLookupException if MusicBrainz could not be reached
+     */
+    public String findIswcByIsrc(String isrc) {
+        String normalized = normalizeIsrc(isrc);
+        if (normalized == null) {
+            return null;
+        }
+        return cached("mb:isrc:" + normalized, () -> musicBrainzClient.findIswcByIsrc(normalized));
+    }
+
+    /**
+     * Resolves many ISRCs at once: cache hits are answered locally and the
+     * misses go to MusicBrainz in multi-ISRC queries of
+     * {@code musicbrainz.isrc-batch-size}, each answer cached under the same key
+     * as {@link #findIswcByIsrc(String)}. Used to warm the cache for a chunk of
+     * recordings before they are healed one by one.
+     *
+     * @return normalized ISRC to ISWC (null for "no ISWC"); ISRCs whose batch
+     *         failed upstream are left out
+     */
+    public Map<String, String> findIswcsByIsrcs(Collection<String> isrcs) {
+        return findIswcsByIsrcsAsync(isrcs).join();
+    }
+
+    public CompletableFuture<Map<String, String>> findIswcsByIsrcsAsync(Collection<String> isrcs) {
+        Map<String, String> result = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String isrc : isrcs) {
+            String normalized = normalizeIsrc(isrc);
+            if (normalized == null || result.containsKey(normalized) || misses.contains(normalized)) {
+                continue;
+            }
+            Optional<LookupCache.CachedValue> hit = cache.get("mb:isrc:" + normalized);
+            if (hit.isPresent()) {
+                result.put(normalized, hit.get().getValue());
+            } else {
+                misses.add(normalized);
+            }
+        }
+
+        // All batches go out together; the shared rate limiter paces the actual requests
+        List<String> missing = new ArrayList<>(misses);
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += isrcBatchSize) {
+            List<String> batch = missing.subList(from, Math.min(missing.size(), from + isrcBatchSize));
+            batches.add(musicBrainzClient.findIswcsByIsrcsAsync(batch)
+                    .thenAccept(found -> found.forEach((isrc, iswc) -> {
+                        cache.put("mb:isrc:" + isrc, iswc);
+                        synchronized (result) {
+                            result.put(isrc, iswc);
+                        }
+                    }))
+                    .exceptionally(error -> {
+                        // Not cached; the single lookups will try again
+                        log.warn("Upstream batch lookup failed for {} ISRCs: {}", batch.size(), error.getMessage());
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).thenApply(done -> result);
+    }
+
+    public String findIswcByTitleAndArtist(String title, String artist) {
+        if (title == null || title.trim().isEmpty()) {
+            return null;
+        }
+        String key = "mb:search:" + normalizeText(title) + "|" + normalizeText(artist);
+        return cached(key, () -> musicBrainzClient.findIswcByTitleAndArtist(title, artist));
+    }
+
+    public SpotifyClient.SpotifyMetadata getSpotifyMetadataByIsrc(String isrc) {
+        String normalized = normalizeIsrc(isrc);
+        if (normalized == null) {
+            return null;
+        }
+        String json = cached("spotify:isrc:" + normalized, () -> toJson(spotifyClient.getMetadataByIsrc(normalized)));
+        return fromJson(json);
+    }
+
+    /**
+     * Spotify metadata for many ISRCs. Spotify has no multi-ISRC lookup, so
+     * cache misses are searched concurrently, {@code spotify.isrc-batch-size}
+     * at a time, paced by the shared Spotify rate limiter. Answers are cached
+     * under the same key as {@link #getSpotifyMetadataByIsrc(String)}.
+     *
+     * @return metadata by normalized ISRC; ISRCs Spotify doesn't know and
+     *         lookups that failed upstream are left out
+     */
+    public CompletableFuture<Map<String, SpotifyClient.SpotifyMetadata>> getSpotifyMetadataByIsrcsAsync(
+            Collection<String> isrcs) {
+        Map<String, SpotifyClient.SpotifyMetadata> result = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String isrc : isrcs) {
+            String normalized = normalizeIsrc(isrc);
+            if (normalized == null || result.containsKey(normalized) || misses.contains(normalized)) {
+                continue;
+            }
+            Optional<LookupCache.CachedValue> hit = cache.get("spotify:isrc:" + normalized);
+            if (hit.isEmpty()) {
+                misses.add(normalized);
+            } else if (!hit.get().isNegative()) {
+                SpotifyClient.SpotifyMetadata metadata = fromJson(hit.get().getValue());
+                if (metadata != null) {
+                    result.put(normalized, metadata);
+                }
+            }
+        }
+        return searchSpotifyBatches(new ArrayList<>(misses), 0, result);
+    }
+
+    // One batch of concurrent searches at a time, so a large slice can't flood the limiter's queue
+    private CompletableFuture<Map<String, SpotifyClient.SpotifyMetadata>> searchSpotifyBatches(List<String> isrcs,
+            int from, Map<String, SpotifyClient.SpotifyMetadata> result) {
+        if (from >= isrcs.size()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        List<String> batch = isrcs.subList(from, Math.min(isrcs.size(), from + spotifyBatchSize));
+        List<CompletableFuture<Void>> searches = new ArrayList<>();
+        for (String isrc : batch) {
+            searches.add(spotifyClient.getMetadataByIsrcAsync(isrc)
+                    .thenAccept(metadata -> {
+                        cache.put("spotify:isrc:" + isrc, toJson(metadata));
+                        if (metadata != null) {
+                            synchronized (result) {
+                                result.put(isrc, metadata);
+                            }
+                        }
+                    })
+                    .exceptionally(error -> {
+                        // Not cached; a later run will try again
+                        log.warn("Upstream lookup failed for spotify:isrc:{}: {}", isrc, error.getMessage());
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(done -> searchSpotifyBatches(isrcs, from + batch.size(), result));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("lookup.singleflight.executions", singleFlight, flight -> flight.getStats().getExecutions())
+                .description("Upstream calls actually made for cache misses")
+                .register(registry);
+        FunctionCounter.builder("lookup.singleflight.coalesced", singleFlight, flight -> flight.getStats().getCoalesced())
+                .description("Cache misses that joined a call already in flight")
+                .register(registry);
+    }
+
+    public LookupCache.Stats getStats() {
+        return cache.getStats();
+    }
+
+    public SingleFlight.Stats getCoalescingStats() {
+        return singleFlight.getStats();
+    }
+
+    private String cached(String key, Supplier<String> loader) {
+        Optional<LookupCache.CachedValue> hit = cache.get(key);
+        if (hit.isPresent()) {
+            return hit.get().getValue();
+        }
+
+        try {
+            return singleFlight.execute(key, () -> {
+                // A flight for this key may have landed between the miss above and now
+                Optional<LookupCache.CachedValue> landed = cache.peek(key);
+                if (landed.isPresent()) {
+                    return landed.get().getValue();
+                }
+                String value = loader.get();
+                cache.put(key, value);
+                return value;
+            });
+        } catch (UpstreamLookupException e) {
+            // Upstream unavailable: not remembered, and not to be mistaken for "no match"
+            log.warn("Upstream lookup failed for {}: {}", key, e.getMessage());
+            throw e;
+        }
+    }
+
+    public static String normalizeIsrc(String isrc) {
+        if (isrc == null) {
+            return null;
+        }
+        String normalized = isrc.replace("-", "").trim().toUpperCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    static String normalizeText(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private String toJson(SpotifyClient.SpotifyMetadata metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Spotify metadata", e);
+        }
+    }
+
+    private SpotifyClient.SpotifyMetadata fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, SpotifyClient.SpotifyMetadata.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cached Spotify metadata: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pooled JDK HttpClient (HTTP/2 with HTTP/1.1 fallback, keep-alive) shared
+ * by every upstream, with a small fixed executor for response handling and a
+ * per-upstream wrapper for retries and statistics.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor upstreamHttpExecutor(@Value("${upstream.http.threads:8}") int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("upstream-http-"));
+    }
+
+    @Bean
+    public HttpClient upstreamHttpClient(@Qualifier("upstreamHttpExecutor") ThreadPoolExecutor executor,
+            @Value("${upstream.http.connect-timeout:5s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    @Bean
+    public UpstreamHttpClient musicBrainzHttp(HttpClient upstreamHttpClient,
+            @Qualifier("upstreamHttpExecutor") ThreadPoolExecutor executor, ObjectMapper objectMapper,
+            @Value("${musicbrainz.http.read-timeout:${upstream.http.read-timeout:10s}}") Duration readTimeout,
+            @Value("${upstream.http.max-attempts:3}") int maxAttempts,
+            @Value("${upstream.http.initial-backoff:2s}") Duration initialBackoff) {
+        return new UpstreamHttpClient("musicbrainz", upstreamHttpClient, executor, objectMapper, readTimeout,
+                maxAttempts, initialBackoff);
+    }
+
+    @Bean
+    public UpstreamHttpClient spotifyHttp(HttpClient upstreamHttpClient,
+            @Qualifier("upstreamHttpExecutor") ThreadPoolExecutor executor, ObjectMapper objectMapper,
+            @Value("${spotify.http.read-timeout:${upstream.http.read-timeout:10s}}") Duration readTimeout,
+            @Value("${upstream.http.max-attempts:3}") int maxAttempts,
+            @Value("${upstream.http.initial-backoff:2s}") Duration initialBackoff) {
+        return new UpstreamHttpClient("spotify", upstreamHttpClient, executor, objectMapper, readTimeout,
+                maxAttempts, initialBackoff);
+    }
+}
@@ -0,0 +1,196 @@
+package com.selfhealing.repertoire.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.selfhealing.repertoire.model.LookupCacheEntry;
+import com.selfhealing.repertoire.repository.LookupCacheRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-level cache for upstream lookup results: a bounded in-heap tier
+ * (Caffeine, W-TinyLFU eviction) backed by the upstream_lookup_cache table so
+ * results survive restarts. Positive and negative answers expire separately.
+ */
+@Component
+@Slf4j
+public class LookupCache implements MeterBinder {
+
+    private final LookupCacheRepository repository;
+    private final Duration positiveTtl;
+    private final Duration negativeTtl;
+    private final boolean persistent;
+    private final Clock clock;
+    private final Cache<String, CachedValue> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public LookupCache(LookupCacheRepository repository,
+            @Value("${lookup-cache.positive-ttl:30d}") Duration positiveTtl,
+            @Value("${lookup-cache.negative-ttl:24h}") Duration negativeTtl,
+            @Value("${lookup-cache.max-entries:100000}") long maxEntries,
+            @Value("${lookup-cache.persistent:true}") boolean persistent) {
+        this(repository, positiveTtl, negativeTtl, maxEntries, persistent, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock time source for expiry in both tiers
+     */
+    LookupCache(LookupCacheRepository repository, Duration positiveTtl, Duration negativeTtl, long maxEntries,
+            boolean persistent, Clock clock) {
+        this.repository = repository;
+        this.positiveTtl = positiveTtl;
+        this.negativeTtl = negativeTtl;
+        this.persistent = persistent;
+        this.clock = clock;
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<String, CachedValue>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedValue value, long currentTime) {
+                        return Math.max(0, Duration.between(LocalDateTime.now(clock), value.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedValue value, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedValue value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Optional<CachedValue> get(String key) {
+        CachedValue cached = memory.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        if (persistent) {
+            try {
+                Optional<LookupCacheEntry> entry = repository.findById(key);
+                if (entry.isPresent() && entry.get().getExpiresAt().isAfter(LocalDateTime.now(clock))) {
+                    CachedValue value = new CachedValue(entry.get().getValue(), entry.get().isNegative(),
+                            entry.get().getExpiresAt());
+                    memory.put(key, value);
+                    persistentHits.incrementAndGet();
+                    return Optional.of(value);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Lookup cache read failed for {}: {}", key, e.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * In-heap tier only, without touching the hit/miss counters.
+     */
+    public Optional<CachedValue> peek(String key) {
+        return Optional.ofNullable(memory.getIfPresent(key));
+    }
+
+    /**
+     * Stores an upstream answer. A null value is cached as a negative result.
+     */
+    public void put(String key, String value) {
+        boolean negative = value == null;
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expiresAt = now.plus(negative ? negativeTtl : positiveTtl);
+        memory.put(key, new CachedValue(value, negative, expiresAt));
+
+        if (persistent) {
+            try {
+                repository.save(new LookupCacheEntry(key, value, negative, now, expiresAt));
+            } catch (DataAccessException e) {
+                log.warn("Lookup cache write failed for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${lookup-cache.purge-rate:3600000}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            int purged = repository.deleteExpired(LocalDateTime.now(clock));
+            if (purged > 0) {
+                log.info("Purged {} expired lookup cache entries", purged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Lookup cache purge failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("lookup.cache.size", memory, Cache::estimatedSize)
+                .description("Entries held in the in-heap tier")
+                .register(registry);
+        counter(registry, "memory_hit", memoryHits);
+        counter(registry, "persistent_hit", persistentHits);
+        counter(registry, "miss", misses);
+    }
+
+    private static void counter(MeterRegistry registry, String result, AtomicLong count) {
+        FunctionCounter.builder("lookup.cache.requests", count, AtomicLong::get)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public Stats getStats() {
+        return new Stats(memory.estimatedSize(), memoryHits.get(), persistentHits.get(), misses.get());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedValue {
+        private String value;
+        private boolean negative;
+        private LocalDateTime expiresAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private long memoryEntries;
+        private long memoryHits;
+        private long persistentHits;
+        private long misses;
+    }
+}
@@ -1,97 +1,315 @@
 package com.selfhealing.repertoire.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Iterator;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * MusicBrainz search API over the shared non-blocking HTTP stack. Every lookup
+ * has a {@link CompletableFuture} variant that neither holds a thread while
+ * waiting for the rate limiter nor while the request is on the wire; the
+ * blocking methods simply wait on those. Transport failures and 429/503 are
+ * retried by {@link UpstreamHttpClient}; anything that still fails surfaces
+ * as {@link UpstreamLookupException}.
+ */
 @Component
 @Slf4j
 public class MusicBrainzClient {
-    private static final String API_URL = "https://musicbrainz.org/ws/2/recording";
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Largest page the search API returns
+    private static final int SEARCH_PAGE_LIMIT = 100;
+    private static final java.util.regex.Pattern ISRC_PATTERN = java.util.regex.Pattern.compile("[A-Z0-9]{12}");
+
+    @org.springframework.beans.factory.annotation.Autowired
+    @org.springframework.beans.factory.annotation.Qualifier("musicBrainzHttp")
+    private UpstreamHttpClient http;
+
+    @org.springframework.beans.factory.annotation.Value("${musicbrainz.base-url:https://musicbrainz.org/ws/2}")
+    private String baseUrl;
+
+    // Shared with every other caller in the process (1 req/s by default)
+    @org.springframework.beans.factory.annotation.Autowired
+    @org.springframework.beans.factory.annotation.Qualifier("musicBrainzRateLimiter")
+    private TokenBucketRateLimiter rateLimiter;
 
     @org.springframework.beans.factory.annotation.Value("${musicbrainz.user-agent:RepertoireAI/1.0 ( contact@example.com )}")
     private String userAgent;
 
-    @org.springframework.retry.annotation.Retryable(value = {
-            org.springframework.web.client.ResourceAccessException.class,
-            javax.net.ssl.SSLHandshakeException.class }, maxAttempts = 3, backoff = @org.springframework.retry.annotation.Backoff(delay = 2000, multiplier = 2))
     public String findIswcByIsrc(String isrc) {
-        // PROFESSIONAL TOUCH: Enforce 1-second delay to avoid getting blocked
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Thread interrupted during rate limit sleep", e);
-        }
-
-        HttpHeaders headers = new HttpHeaders();
-        // REQUIREMENT: Must identify your application to MusicBrainz
-        headers.set("User-Agent", userAgent);
-        headers.set("Accept", "application/json");
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        String url = API_URL + "?query=isrc:" + isrc + "&fmt=json";
+        return UpstreamHttpClient.await(findIswcByIsrcAsync(isrc));
+    }
 
-        try {
-            log.debug("Querying MusicBrainz for ISRC: {}", isrc);
-            ResponseEntity<JsonNode> response = restTemplate.exchange(url, HttpMethod.GET, entity, JsonNode.class);
-            return extractIswc(response.getBody());
-        } catch (Exception e) {
-            log.error("MusicBrainz lookup failed for ISRC {}: {}", isrc, e.getMessage());
-            throw e; // Rethrow to trigger retry
-        }
+    public CompletableFuture<String> findIswcByIsrcAsync(String isrc) {
+        log.debug("Querying MusicBrainz for ISRC: {}", isrc);
+        return search("isrc:" + isrc, null, MusicBrainzClient::readIswc)
+                .whenComplete((iswc, error) -> {
+                    if (error != null) {
+                        log.error("MusicBrainz lookup failed for ISRC {}: {}", isrc, error.getMessage());
+                    }
+                });
     }
 
-    @org.springframework.retry.annotation.Retryable(value = {
-            org.springframework.web.client.ResourceAccessException.class,
-            javax.net.ssl.SSLHandshakeException.class }, maxAttempts = 3, backoff = @org.springframework.retry.annotation.Backoff(delay = 2000, multiplier = 2))
     public String findIswcByTitleAndArtist(String title, String artist) {
-        // Enforce 1-second delay
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("User-Agent", userAgent);
-        headers.set("Accept", "application/json");
+        return UpstreamHttpClient.await(findIswcByTitleAndArtistAsync(title, artist));
+    }
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+    public CompletableFuture<String> findIswcByTitleAndArtistAsync(String title, String artist) {
         // RELAXED SEARCH: Removed quotes to allow fuzzy matching (e.g., "remix", "feat"
         // variations)
         String query = "recording:" + title;
         if (artist != null && !artist.trim().isEmpty()) {
             query += " AND artist:" + artist;
         }
-        String url = API_URL + "?query=" + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8)
-                + "&fmt=json";
+        log.debug("Querying MusicBrainz for Title: {} Artist: {}", title, artist);
+        return search(query, null, MusicBrainzClient::readIswc)
+                .whenComplete((iswc, error) -> {
+                    if (error != null) {
+                        log.error("MusicBrainz lookup failed for search: {}", error.getMessage());
+                    }
+                });
+    }
+
+    public java.util.Map<String, String> findIswcsByIsrcs(java.util.Collection<String> isrcs) {
+        return UpstreamHttpClient.await(findIswcsByIsrcsAsync(isrcs));
+    }
 
-        try {
-            log.debug("Querying MusicBrainz for Title: {} Artist: {}", title, artist);
-            ResponseEntity<JsonNode> response = restTemplate.exchange(url, HttpMethod.GET, entity, JsonNode.class);
-            return extractIswc(response.getBody());
-        } catch (Exception e) {
-            log.error("MusicBrainz lookup failed for search: {}", e.getMessage());
-            throw e; // Rethrow to trigger retry
+    /**
+     * Looks up many ISRCs with one search request per page, using a Lucene
+     * {@code isrc:(A OR B ...)} query, and fans the results back out by each
+     * recording's {@code isrcs}. Every requested ISRC is present in the result;
+     * the value is null when no ISWC was found. ISRCs that are not 12
+     * alphanumeric characters are answered with null without being queried.
+     */
+    public CompletableFuture<java.util.Map<String, String>> findIswcsByIsrcsAsync(java.util.Collection<String> isrcs) {
+        java.util.Map<String, String> result = new java.util.LinkedHashMap<>();
+        java.util.List<String> queried = new java.util.ArrayList<>();
+        for (String isrc : isrcs) {
+            result.put(isrc, null);
+            if (ISRC_PATTERN.matcher(isrc).matches()) {
+                queried.add(isrc);
+            }
+        }
+        if (queried.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
         }
+
+        log.debug("Querying MusicBrainz for {} ISRCs", queried.size());
+        String query = "isrc:(" + String.join(" OR ", queried) + ")";
+        return searchPages(query, 0, result)
+                .whenComplete((iswcs, error) -> {
+                    if (error != null) {
+                        log.error("MusicBrainz batch lookup failed for {} ISRCs: {}", queried.size(),
+                                error.getMessage());
+                    }
+                });
     }
 
-    @org.springframework.retry.annotation.Recover
-    public String recover(Exception e, String param) {
-        log.error("All retries exhausted for MusicBrainz lookup. Moving to fallback. Error: {}", e.getMessage());
+    // Each page is its own request against the shared budget
+    private CompletableFuture<java.util.Map<String, String>> searchPages(String query, int offset,
+            java.util.Map<String, String> result) {
+        return search(query, "&limit=" + SEARCH_PAGE_LIMIT + "&offset=" + offset,
+                parser -> readIswcsByIsrc(parser, result))
+                .thenCompose(page -> {
+                    if (page.returned == 0 || offset + page.returned >= page.count) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    return searchPages(query, offset + page.returned, result);
+                });
+    }
+
+    private <T> CompletableFuture<T> search(String query, String paging, UpstreamHttpClient.BodyReader<T> reader) {
+        URI uri = URI.create(baseUrl + "/recording?query="
+                + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8)
+                + (paging == null ? "" : paging) + "&fmt=json");
+        // PROFESSIONAL TOUCH: Respect the MusicBrainz rate limit to avoid getting blocked, retries included
+        // REQUIREMENT: Must identify your application to MusicBrainz
+        return http.getJson(uri, Map.of("User-Agent", userAgent), reader, rateLimiter);
+    }
+
+    /**
+     * Streaming form of {@link #extractIswc(JsonNode)}: reads the response
+     * only as far as the first ISWC and skips every subtree that cannot hold
+     * one (releases, artist credits, tags, ...) without materializing it.
+     */
+    static String readIswc(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"recordings".equals(field) || value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String iswc = readRecording(parser, null);
+                if (iswc != null) {
+                    return iswc;
+                }
+            }
+        }
         return null;
     }
 
-    private String extractIswc(JsonNode rootNode) {
+    /**
+     * Streaming form of {@link #extractIswcsByIsrc(JsonNode, java.util.Map)}
+     * for one page of a multi-ISRC search.
+     */
+    static SearchPage readIswcsByIsrc(JsonParser parser, java.util.Map<String, String> results) throws IOException {
+        SearchPage page = new SearchPage();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return page;
+        }
+        java.util.List<String> isrcs = new java.util.ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("count".equals(field)) {
+                page.count = parser.getValueAsInt(0);
+            } else if ("recordings".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    page.returned++;
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    isrcs.clear();
+                    String iswc = readRecording(parser, isrcs);
+                    if (iswc == null) {
+                        continue;
+                    }
+                    for (String isrc : isrcs) {
+                        String key = isrc.toUpperCase(java.util.Locale.ROOT);
+                        if (results.containsKey(key) && results.get(key) == null) {
+                            results.put(key, iswc);
+                        }
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Reads one recording object, positioned on its START_OBJECT. Collects
+     * the recording's ISRCs into {@code isrcs} when given; without them it
+     * returns as soon as a direct ISWC turns up, leaving the rest unread.
+     */
+    private static String readRecording(JsonParser parser, java.util.List<String> isrcs) throws IOException {
+        String iswc = null;
+        String relationIswc = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("iswcs".equals(field) && iswc == null) {
+                iswc = readFirst(parser);
+                if (iswc != null && isrcs == null) {
+                    return iswc;
+                }
+            } else if ("relations".equals(field) && relationIswc == null && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (relationIswc == null && parser.currentToken() == JsonToken.START_OBJECT) {
+                        relationIswc = readRelation(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("isrcs".equals(field) && isrcs != null && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    isrcs.add(scalarText(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        // Direct ISWCs take precedence over work relations, as in the tree walk
+        return iswc != null ? iswc : relationIswc;
+    }
+
+    // ISWC of a work relation, or null for any other relation
+    private static String readRelation(JsonParser parser) throws IOException {
+        boolean work = false;
+        String iswc = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("target-type".equals(field)) {
+                work = value == JsonToken.VALUE_STRING && "work".equals(parser.getText());
+            } else if ("work".equals(field) && value == JsonToken.START_OBJECT) {
+                String single = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String workField = parser.currentName();
+                    parser.nextToken();
+                    if ("iswcs".equals(workField) && iswc == null) {
+                        iswc = readFirst(parser);
+                    } else if ("iswc".equals(workField)) {
+                        single = scalarText(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (iswc == null) {
+                    iswc = single;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return work ? iswc : null;
+    }
+
+    // First element of an array value (consuming the whole array), or null if empty or not an array
+    private static String readFirst(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String first = null;
+        if (parser.nextToken() != JsonToken.END_ARRAY) {
+            first = scalarText(parser);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+            }
+        }
+        return first;
+    }
+
+    // Same text JsonNode.asText() gives for the current value
+    private static String scalarText(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Position counters of one search page.
+     */
+    static final class SearchPage {
+        private int returned;
+        private int count;
+    }
+
+    /**
+     * First ISWC found on any recording in a search response. Tree-walking
+     * reference for {@link #readIswc(JsonParser)}; the streaming readers are
+     * tested and benchmarked against it.
+     */
+    static String extractIswc(JsonNode rootNode) {
         if (rootNode == null)
             return null;
 
@@ -101,23 +319,55 @@ public class MusicBrainzClient {
         }
 
         for (JsonNode recording : recordings) {
-            JsonNode iswcs = recording.path("iswcs");
-            if (!iswcs.isMissingNode() && !iswcs.isEmpty()) {
-                return iswcs.get(0).asText();
+            String iswc = extractRecordingIswc(recording);
+            if (iswc != null) {
+                return iswc;
             }
+        }
+        return null;
+    }
 
-            JsonNode relations = recording.path("relations");
-            if (!relations.isMissingNode()) {
-                for (JsonNode relation : relations) {
-                    if ("work".equals(relation.path("target-type").asText())) {
-                        JsonNode work = relation.path("work");
-                        JsonNode workIswcs = work.path("iswcs");
-                        if (!workIswcs.isMissingNode() && !workIswcs.isEmpty()) {
-                            return workIswcs.get(0).asText();
-                        }
-                        if (work.has("iswc")) {
-                            return work.get("iswc").asText();
-                        }
+    /**
+     * Fans a multi-ISRC search response out per ISRC: each recording's ISWC is
+     * credited to every ISRC it lists that is a key of {@code results}. The
+     * first ISWC found for an ISRC wins, matching {@link #extractIswc(JsonNode)}.
+     * Reference for {@link #readIswcsByIsrc(JsonParser, java.util.Map)}.
+     */
+    static void extractIswcsByIsrc(JsonNode rootNode, java.util.Map<String, String> results) {
+        if (rootNode == null) {
+            return;
+        }
+        for (JsonNode recording : rootNode.path("recordings")) {
+            String iswc = extractRecordingIswc(recording);
+            if (iswc == null) {
+                continue;
+            }
+            for (JsonNode isrcNode : recording.path("isrcs")) {
+                String isrc = isrcNode.asText().toUpperCase(java.util.Locale.ROOT);
+                if (results.containsKey(isrc) && results.get(isrc) == null) {
+                    results.put(isrc, iswc);
+                }
+            }
+        }
+    }
+
+    private static String extractRecordingIswc(JsonNode recording) {
+        JsonNode iswcs = recording.path("iswcs");
+        if (!iswcs.isMissingNode() && !iswcs.isEmpty()) {
+            return iswcs.get(0).asText();
+        }
+
+        JsonNode relations = recording.path("relations");
+        if (!relations.isMissingNode()) {
+            for (JsonNode relation : relations) {
+                if ("work".equals(relation.path("target-type").asText())) {
+                    JsonNode work = relation.path("work");
+                    JsonNode workIswcs = work.path("iswcs");
+                    if (!workIswcs.isMissingNode() && !workIswcs.isEmpty()) {
+                        return workIswcs.get(0).asText();
+                    }
+                    if (work.has("iswc")) {
+                        return work.get("iswc").asText();
                     }
                 }
             }
@@ -0,0 +1,27 @@
+package com.selfhealing.repertoire.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One shared limiter per upstream API, so every thread in the process draws
+ * from the same budget.
+ */
+@Configuration
+public class RateLimiterConfig {
+
+    @Bean
+    public TokenBucketRateLimiter musicBrainzRateLimiter(
+            @Value("${musicbrainz.rate-limit.permits-per-second:1}") double permitsPerSecond,
+            @Value("${musicbrainz.rate-limit.burst:1}") int burst) {
+        return new TokenBucketRateLimiter("musicbrainz", permitsPerSecond, burst);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter spotifyRateLimiter(
+            @Value("${spotify.rate-limit.permits-per-second:10}") double permitsPerSecond,
+            @Value("${spotify.rate-limit.burst:20}") int burst) {
+        return new TokenBucketRateLimiter("spotify", permitsPerSecond, burst);
+    }
+}
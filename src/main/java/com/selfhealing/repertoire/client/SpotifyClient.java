@@ -1,170 +1,151 @@
 package com.selfhealing.repertoire.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.Base64;
+import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 @Slf4j
 public class SpotifyClient {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String TOKEN_URL = "https://accounts.spotify.com/api/token";
-    private final String SEARCH_URL = "https://api.spotify.com/v1/search";
+    @Value("${spotify.search-url:https://api.spotify.com/v1/search}")
+    private String searchUrl;
 
-    @Value("${spotify.client-id}")
-    private String clientId;
+    @org.springframework.beans.factory.annotation.Autowired
+    @org.springframework.beans.factory.annotation.Qualifier("spotifyHttp")
+    private UpstreamHttpClient http;
 
-    @Value("${spotify.client-secret}")
-    private String clientSecret;
+    @org.springframework.beans.factory.annotation.Autowired
+    @org.springframework.beans.factory.annotation.Qualifier("spotifyRateLimiter")
+    private TokenBucketRateLimiter rateLimiter;
 
-    private String accessToken = null;
-    private long tokenExpiry = 0;
+    @org.springframework.beans.factory.annotation.Autowired
+    private SpotifyTokenManager tokenManager;
 
     /**
-     * Get metadata for a recording by ISRC
+     * Get metadata for a recording by ISRC. Returns null when Spotify has no
+     * such track and throws {@link UpstreamLookupException} when it can't be
+     * reached.
      */
     public SpotifyMetadata getMetadataByIsrc(String isrc) {
+        return UpstreamHttpClient.await(getMetadataByIsrcAsync(isrc));
+    }
+
+    public CompletableFuture<SpotifyMetadata> getMetadataByIsrcAsync(String isrc) {
         if (isrc == null || isrc.trim().isEmpty()) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
-
-        try {
-            ensureValidToken();
-
-            String url = SEARCH_URL + "?q=isrc:" + isrc + "&type=track&limit=1";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-                Map<String, Object> tracks = (Map<String, Object>) body.get("tracks");
-
-                if (tracks != null) {
-                    java.util.List<Map<String, Object>> items = (java.util.List<Map<String, Object>>) tracks
-                            .get("items");
-                    if (items != null && !items.isEmpty()) {
-                        return extractMetadata(items.get(0));
+        return searchTrack("isrc:" + isrc)
+                .whenComplete((metadata, error) -> {
+                    if (error != null) {
+                        log.error("Spotify lookup failed for ISRC {}: {}", isrc, error.getMessage());
                     }
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("Spotify lookup failed for ISRC {}: {}", isrc, e.getMessage());
-            return null;
-        }
+                });
     }
 
     /**
      * Search for tracks by title and artist
      */
     public SpotifyMetadata searchByTitleAndArtist(String title, String artist) {
+        return UpstreamHttpClient.await(searchByTitleAndArtistAsync(title, artist));
+    }
+
+    public CompletableFuture<SpotifyMetadata> searchByTitleAndArtistAsync(String title, String artist) {
         if (title == null || title.trim().isEmpty())
-            return null;
+            return CompletableFuture.completedFuture(null);
 
-        try {
-            ensureValidToken();
+        String query = "track:" + title;
+        if (artist != null && !artist.trim().isEmpty()) {
+            query += " artist:" + artist;
+        }
+        return searchTrack(query)
+                .whenComplete((metadata, error) -> {
+                    if (error != null) {
+                        log.error("Spotify search failed for title '{}': {}", title, error.getMessage());
+                    }
+                });
+    }
 
-            String query = "track:" + title;
-            if (artist != null && !artist.trim().isEmpty()) {
-                query += " artist:" + artist;
-            }
+    private CompletableFuture<SpotifyMetadata> searchTrack(String query) {
+        URI uri = URI.create(searchUrl + "?q="
+                + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8) + "&type=track&limit=1");
+        return search(uri, true)
+                .thenApply(body -> {
+                    JsonNode items = body.path("tracks").path("items");
+                    return items.isEmpty() ? null : extractMetadata(items.get(0));
+                });
+    }
 
-            String url = SEARCH_URL + "?q=" + java.net.URLEncoder.encode(query, "UTF-8") + "&type=track&limit=1";
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-                Map<String, Object> tracks = (Map<String, Object>) body.get("tracks");
-                if (tracks != null) {
-                    java.util.List<Map<String, Object>> items = (java.util.List<Map<String, Object>>) tracks
-                            .get("items");
-                    if (items != null && !items.isEmpty()) {
-                        return extractMetadata(items.get(0));
-                    }
-                }
+    /**
+     * GET with the current token. A 401 drops the token, and if
+     * {@code retryUnauthorized} the search is sent once more with the token
+     * that replaces it, so searches in flight when a token is revoked or
+     * expires early share one refresh instead of failing.
+     */
+    private CompletableFuture<JsonNode> search(URI uri, boolean retryUnauthorized) {
+        return tokenManager.getToken()
+                .exceptionally(error -> {
+                    throw new UpstreamLookupException("Spotify authentication failed", error);
+                })
+                .thenCompose(token -> http.getJson(uri, Map.of("Authorization", "Bearer " + token), rateLimiter)
+                        .handle((body, error) -> {
+                            if (error == null) {
+                                return CompletableFuture.completedFuture(body);
+                            }
+                            if (isUnauthorized(error)) {
+                                tokenManager.invalidate(token);
+                                if (retryUnauthorized) {
+                                    return search(uri, false);
+                                }
+                            }
+                            return CompletableFuture.<JsonNode>failedFuture(
+                                    error instanceof CompletionException && error.getCause() != null
+                                            ? error.getCause()
+                                            : error);
+                        })
+                        .thenCompose(result -> result));
+    }
+
+    private static boolean isUnauthorized(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UpstreamHttpClient.StatusException status && status.getStatus() == 401) {
+                return true;
             }
-            return null;
-        } catch (Exception e) {
-            log.error("Spotify search failed for title '{}': {}", title, e.getMessage());
-            return null;
         }
+        return false;
     }
 
-    private SpotifyMetadata extractMetadata(Map<String, Object> track) {
+    private SpotifyMetadata extractMetadata(JsonNode track) {
         SpotifyMetadata metadata = new SpotifyMetadata();
-        metadata.setTitle((String) track.get("name"));
+        metadata.setTitle(textOrNull(track.path("name")));
+        metadata.setIsrc(textOrNull(track.path("external_ids").path("isrc")));
 
-        Map<String, Object> externalIds = (Map<String, Object>) track.get("external_ids");
-        if (externalIds != null) {
-            metadata.setIsrc((String) externalIds.get("isrc"));
+        if (track.hasNonNull("popularity")) {
+            metadata.setPopularity(track.get("popularity").asInt());
         }
-
-        metadata.setPopularity((Integer) track.get("popularity"));
-        metadata.setDurationMs((Integer) track.get("duration_ms"));
-
-        java.util.List<Map<String, Object>> artists = (java.util.List<Map<String, Object>>) track.get("artists");
-        if (artists != null && !artists.isEmpty()) {
-            metadata.setArtist((String) artists.get(0).get("name"));
+        if (track.hasNonNull("duration_ms")) {
+            metadata.setDurationMs(track.get("duration_ms").asInt());
         }
 
-        Map<String, Object> album = (Map<String, Object>) track.get("album");
-        if (album != null) {
-            metadata.setAlbum((String) album.get("name"));
+        JsonNode artists = track.path("artists");
+        if (!artists.isEmpty()) {
+            metadata.setArtist(textOrNull(artists.get(0).path("name")));
         }
+        metadata.setAlbum(textOrNull(track.path("album").path("name")));
 
-        log.info("✨ Spotify enrichment: Found '{}' by '{}'", metadata.getTitle(), metadata.getArtist());
+        log.debug("✨ Spotify enrichment: Found '{}' by '{}'", metadata.getTitle(), metadata.getArtist());
         return metadata;
     }
 
-    private void ensureValidToken() {
-        if (accessToken == null || System.currentTimeMillis() >= tokenExpiry) {
-            refreshToken();
-        }
-    }
-
-    private void refreshToken() {
-        try {
-            if (clientId == null || clientSecret == null || clientId.contains("your_id")) {
-                throw new RuntimeException("Missing Spotify Credentials in application.properties!");
-            }
-
-            String auth = clientId + ":" + clientSecret;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            headers.set("Authorization", "Basic " + encodedAuth);
-
-            String body = "grant_type=client_credentials";
-            HttpEntity<String> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(TOKEN_URL, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                accessToken = (String) responseBody.get("access_token");
-                Integer expiresIn = (Integer) responseBody.get("expires_in");
-                tokenExpiry = System.currentTimeMillis() + (expiresIn * 1000) - 60000;
-                log.info("Spotify access token refreshed");
-            }
-        } catch (Exception e) {
-            log.error("Failed to refresh Spotify token: {}", e.getMessage());
-            throw new RuntimeException("Spotify Authentication Failed", e);
-        }
+    private static String textOrNull(JsonNode node) {
+        return node.isTextual() ? node.asText() : null;
     }
 
     @Data
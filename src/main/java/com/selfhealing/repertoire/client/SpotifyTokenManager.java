@@ -0,0 +1,265 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Client-credentials access token for the Spotify Web API.
+ *
+ * Readers get the current token without locking. Only one refresh is ever in
+ * flight: callers that find no usable token all wait on that same refresh,
+ * and once a token is held it is replaced in the background ahead of its
+ * expiry, so readers normally never wait at all. A failed background refresh
+ * is retried while the old token is still good.
+ */
+@Component
+@Slf4j
+public class SpotifyTokenManager implements MeterBinder {
+
+    @Value("${spotify.token-url:https://accounts.spotify.com/api/token}")
+    private String tokenUrl;
+
+    @Value("${spotify.client-id}")
+    private String clientId;
+
+    @Value("${spotify.client-secret}")
+    private String clientSecret;
+
+    // Tokens are treated as expired this long before Spotify's expiry
+    @Value("${spotify.token.expiry-skew:60s}")
+    private Duration expirySkew = Duration.ofSeconds(60);
+
+    // Background refresh starts this long before the (skewed) expiry
+    @Value("${spotify.token.refresh-ahead:5m}")
+    private Duration refreshAhead = Duration.ofMinutes(5);
+
+    @Value("${spotify.token.retry-delay:30s}")
+    private Duration retryDelay = Duration.ofSeconds(30);
+
+    // Background refreshes never come sooner than this, however short-lived the token
+    @Value("${spotify.token.min-refresh-interval:10s}")
+    private Duration minRefreshInterval = Duration.ofSeconds(10);
+
+    @Autowired
+    @Qualifier("spotifyHttp")
+    private UpstreamHttpClient http;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Token current;
+    private final AtomicReference<CompletableFuture<Token>> refreshing = new AtomicReference<>();
+    private ScheduledFuture<?> nextRefresh;
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong backgroundRefreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong blockedReaders = new AtomicLong();
+    private final AtomicLong totalRefreshNanos = new AtomicLong();
+    private final AtomicLong maxRefreshNanos = new AtomicLong();
+    private volatile long lastRefreshNanos;
+
+    public SpotifyTokenManager() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("spotify-token-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * The current token, or the outcome of the refresh every reader without a
+     * usable token shares.
+     */
+    public CompletableFuture<String> getToken() {
+        Token token = current;
+        if (token != null && token.isUsable()) {
+            return CompletableFuture.completedFuture(token.value);
+        }
+        blockedReaders.incrementAndGet();
+        return refresh(false).thenApply(refreshed -> refreshed.value);
+    }
+
+    /**
+     * Drops a token Spotify rejected, so the next reader fetches a new one.
+     * Ignored if the token has already been replaced.
+     */
+    public void invalidate(String value) {
+        Token token = current;
+        if (token != null && token.value.equals(value)) {
+            log.warn("Spotify rejected the access token; refreshing");
+            current = null;
+        }
+    }
+
+    /**
+     * Whether real client credentials are configured, rather than the
+     * placeholders from application.properties.
+     */
+    public boolean isConfigured() {
+        return clientId != null && clientSecret != null && !clientId.isBlank() && !clientId.contains("your_id");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("spotify.token.refresh", this, manager -> manager.refreshes.get(),
+                        manager -> manager.totalRefreshNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Successful token refreshes")
+                .register(registry);
+        FunctionCounter.builder("spotify.token.failures", failures, AtomicLong::get).register(registry);
+        FunctionCounter.builder("spotify.token.blocked-readers", blockedReaders, AtomicLong::get)
+                .description("Readers that had to wait for a refresh")
+                .register(registry);
+    }
+
+    public Stats getStats() {
+        long count = refreshes.get();
+        Token token = current;
+        return new Stats(count, backgroundRefreshes.get(), failures.get(), blockedReaders.get(),
+                count == 0 ? 0 : toMillis(totalRefreshNanos.get()) / count, toMillis(maxRefreshNanos.get()),
+                toMillis(lastRefreshNanos), token != null && token.isUsable(),
+                token == null ? 0 : Math.max(0, token.usableUntilMillis - System.currentTimeMillis()) / 1000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private CompletableFuture<Token> refresh(boolean background) {
+        CompletableFuture<Token> pending = new CompletableFuture<>();
+        CompletableFuture<Token> existing = refreshing.compareAndExchange(null, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        long start = System.nanoTime();
+        requestToken().whenComplete((token, error) -> {
+            long nanos = System.nanoTime() - start;
+            if (error == null) {
+                refreshes.incrementAndGet();
+                if (background) {
+                    backgroundRefreshes.incrementAndGet();
+                }
+                lastRefreshNanos = nanos;
+                totalRefreshNanos.addAndGet(nanos);
+                maxRefreshNanos.accumulateAndGet(nanos, Math::max);
+                current = token;
+                log.info("Spotify access token refreshed in {} ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+                scheduleRefresh(token);
+            } else {
+                failures.incrementAndGet();
+                log.error("Failed to refresh Spotify token: {}", error.getMessage());
+                Token held = current;
+                if (background && held != null && held.isUsable()) {
+                    schedule(retryDelay.toMillis());
+                }
+            }
+            refreshing.set(null);
+            if (error == null) {
+                pending.complete(token);
+            } else {
+                pending.completeExceptionally(error);
+            }
+        });
+        return pending;
+    }
+
+    private CompletableFuture<Token> requestToken() {
+        if (!isConfigured()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Missing Spotify Credentials in application.properties!"));
+        }
+        String auth = clientId + ":" + clientSecret;
+        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+        return http.postFormJson(URI.create(tokenUrl), "grant_type=client_credentials",
+                Map.of("Authorization", "Basic " + encodedAuth))
+                .thenApply(this::toToken);
+    }
+
+    private Token toToken(JsonNode body) {
+        String value = body.path("access_token").asText(null);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException("Spotify token response has no access_token");
+        }
+        long expiresInMillis = TimeUnit.SECONDS.toMillis(body.path("expires_in").asLong(0));
+        return new Token(value, System.currentTimeMillis() + expiresInMillis - expirySkew.toMillis());
+    }
+
+    private void scheduleRefresh(Token token) {
+        long remaining = token.usableUntilMillis - System.currentTimeMillis();
+        // Short-lived tokens are renewed halfway through rather than right away. A token that is
+        // already expired (no expires_in, or one within the skew) must not refresh in a tight loop
+        long delay = Math.max(remaining / 2, remaining - refreshAhead.toMillis());
+        schedule(Math.max(minRefreshInterval.toMillis(), delay));
+    }
+
+    // Replaces any pending refresh, so a token fetched on demand doesn't start a second chain
+    private synchronized void schedule(long delayMillis) {
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        if (!scheduler.isShutdown()) {
+            nextRefresh = scheduler.schedule(() -> {
+                refresh(true);
+            }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Token {
+        private final String value;
+        private final long usableUntilMillis;
+
+        private Token(String value, long usableUntilMillis) {
+            this.value = value;
+            this.usableUntilMillis = usableUntilMillis;
+        }
+
+        private boolean isUsable() {
+            return System.currentTimeMillis() < usableUntilMillis;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private long refreshes;
+        private long backgroundRefreshes;
+        private long failures;
+        // Lookups that had to wait for a refresh because no usable token was held
+        private long blockedReaders;
+        private double averageRefreshMs;
+        private double maxRefreshMs;
+        private double lastRefreshMs;
+        private boolean tokenValid;
+        private long tokenExpiresInSeconds;
+    }
+}
@@ -0,0 +1,183 @@
+package com.selfhealing.repertoire.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Process-wide token bucket shared by every caller of an upstream API.
+ *
+ * Permits are handed out by reservation: a caller that finds the bucket empty
+ * is given the next free slot and told how long to wait, rather than sleeping
+ * for a fixed interval. Idle time refills the bucket up to {@code burst}
+ * permits, so the first requests after a quiet period go out immediately.
+ *
+ * Every reservation's wait is recorded in the {@code ratelimiter.wait} timer
+ * once bound to a meter registry.
+ */
+public class TokenBucketRateLimiter implements MeterBinder {
+
+    private final String name;
+    private final double maxPermits;
+    private final long nanosPerPermit;
+
+    private double storedPermits;
+    private long nextFreeNanos;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile Timer waitTimer;
+
+    public TokenBucketRateLimiter(String name, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.name = name;
+        this.maxPermits = Math.max(1, burst);
+        this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.storedPermits = this.maxPermits;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a permit only if one is available right now.
+     */
+    public boolean tryAcquire() {
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            if (nextFreeNanos > now || storedPermits < 1) {
+                return false;
+            }
+            storedPermits -= 1;
+        }
+        record(0);
+        return true;
+    }
+
+    /**
+     * Blocks the calling thread until its reserved slot comes up.
+     *
+     * @throws InterruptedException if interrupted while waiting; the caller
+     *         must not send its request, and the reserved slot is not given back
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        long deadline = System.nanoTime() + waitNanos;
+        while (waitNanos > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted waiting for a " + name + " permit");
+            }
+            waitNanos = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Reserves a slot and completes once it comes up, without holding a thread
+     * while waiting.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        waitTimer = Timer.builder("ratelimiter.wait")
+                .description("Time callers wait for a permit")
+                .tag("limiter", name)
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.delayed", delayed, AtomicLong::get)
+                .description("Permits that could not be handed out immediately")
+                .tag("limiter", name)
+                .register(registry);
+    }
+
+    public Stats getStats() {
+        long count = acquired.get();
+        long waits = delayed.get();
+        long total = totalWaitNanos.get();
+        return new Stats(name, count, waits, toMillis(total), count == 0 ? 0 : toMillis(total) / count,
+                toMillis(maxWaitNanos.get()));
+    }
+
+    /**
+     * @return nanoseconds the caller has to wait before using its permit
+     */
+    private long reserve() {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            if (nextFreeNanos <= now && storedPermits >= 1) {
+                storedPermits -= 1;
+                waitNanos = 0;
+            } else {
+                // Slot at which the missing fraction of a permit has accrued
+                nextFreeNanos += (long) ((1 - storedPermits) * nanosPerPermit);
+                storedPermits = 0;
+                waitNanos = nextFreeNanos - now;
+            }
+        }
+        record(waitNanos);
+        return waitNanos;
+    }
+
+    // Caller must hold the monitor
+    private void refill(long now) {
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(maxPermits, storedPermits + (double) (now - nextFreeNanos) / nanosPerPermit);
+            nextFreeNanos = now;
+        }
+    }
+
+    private void record(long waitNanos) {
+        acquired.incrementAndGet();
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+        }
+        if (waitNanos > 0) {
+            delayed.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private String name;
+        private long acquired;
+        private long delayed;
+        private double totalWaitMs;
+        private double averageWaitMs;
+        private double maxWaitMs;
+    }
+}
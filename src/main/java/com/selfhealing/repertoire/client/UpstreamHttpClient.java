@@ -0,0 +1,317 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking JSON-over-HTTP access to one upstream API, on top of the
+ * shared pooled JDK {@link HttpClient}. Requests are retried on transport
+ * failures and on 429/503 with exponential backoff, each attempt taking its
+ * own rate-limiter permit when one is given; anything else that is not a 2xx
+ * fails with {@link UpstreamLookupException}, and a 2xx whose body can't be
+ * parsed fails at once with {@link UpstreamResponseException}. Keeps per-upstream
+ * request, failure and latency statistics, and publishes request latency as
+ * the {@code upstream.http.requests} histogram (tagged by HTTP status) once
+ * bound to a meter registry.
+ */
+@Slf4j
+public class UpstreamHttpClient implements MeterBinder {
+
+    // Upper bounds (ms) of the latency histogram buckets; the last bucket is open-ended
+    private static final long[] LATENCY_BUCKETS_MS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final ThreadPoolExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public UpstreamHttpClient(String name, HttpClient httpClient, ThreadPoolExecutor executor,
+            ObjectMapper objectMapper, Duration readTimeout, int maxAttempts, Duration initialBackoff) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.readTimeout = readTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+    }
+
+    public CompletableFuture<JsonNode> getJson(URI uri, Map<String, String> headers) {
+        return getJson(uri, headers, objectMapper::readTree);
+    }
+
+    public CompletableFuture<JsonNode> getJson(URI uri, Map<String, String> headers, TokenBucketRateLimiter permits) {
+        return getJson(uri, headers, objectMapper::readTree, permits);
+    }
+
+    /**
+     * GET with the response body handed to {@code reader} as a token stream,
+     * so callers can pick out what they need without building a tree.
+     */
+    public <T> CompletableFuture<T> getJson(URI uri, Map<String, String> headers, BodyReader<T> reader) {
+        return withRetries(() -> send(request(uri, headers).GET().build(), reader), 1);
+    }
+
+    /**
+     * As {@link #getJson(URI, Map, BodyReader)}, taking a permit from
+     * {@code permits} before every attempt, retries included.
+     */
+    public <T> CompletableFuture<T> getJson(URI uri, Map<String, String> headers, BodyReader<T> reader,
+            TokenBucketRateLimiter permits) {
+        HttpRequest request = request(uri, headers).GET().build();
+        return withRetries(() -> permits.acquireAsync().thenCompose(ignored -> send(request, reader)), 1);
+    }
+
+    public CompletableFuture<JsonNode> postFormJson(URI uri, String form, Map<String, String> headers) {
+        return withRetries(() -> send(request(uri, headers)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), objectMapper::readTree), 1);
+    }
+
+    /**
+     * Waits for a lookup started with one of the async methods, rethrowing
+     * its failure unwrapped.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamLookupException("Interrupted while waiting for upstream", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UpstreamLookupException("Upstream lookup failed", cause);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("upstream.http.in-flight", inFlight, AtomicLong::get)
+                .description("Requests waiting for a response")
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.http.retries", retries, AtomicLong::get)
+                .tag("upstream", name)
+                .register(registry);
+        FunctionCounter.builder("upstream.http.failures", failures, AtomicLong::get)
+                .description("Requests that failed after all retries")
+                .tag("upstream", name)
+                .register(registry);
+    }
+
+    public Stats getStats() {
+        long count = requests.get();
+        return new Stats(name, count, failures.get(), retries.get(), inFlight.get(), http2Responses.get(),
+                count == 0 ? 0 : toMillis(totalLatencyNanos.get()) / count, toMillis(maxLatencyNanos.get()),
+                percentileMs(0.50), percentileMs(0.95), percentileMs(0.99),
+                executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size());
+    }
+
+    private HttpRequest.Builder request(URI uri, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(readTimeout)
+                .header("Accept", "application/json");
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, BodyReader<T> reader) {
+        long start = System.nanoTime();
+        requests.incrementAndGet();
+        inFlight.incrementAndGet();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    long nanos = System.nanoTime() - start;
+                    recordLatency(nanos);
+                    recordTimer(response == null ? "IO_ERROR" : String.valueOf(response.statusCode()), nanos);
+                    if (response != null && response.version() == HttpClient.Version.HTTP_2) {
+                        http2Responses.incrementAndGet();
+                    }
+                })
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    if (status < 200 || status >= 300) {
+                        throw new StatusException(status, request.uri());
+                    }
+                    try (JsonParser parser = objectMapper.getFactory().createParser(response.body())) {
+                        return reader.read(parser);
+                    } catch (IOException e) {
+                        // Not an IOException past this point: a bad payload is not a transport failure
+                        throw new UpstreamResponseException(name + " returned an unreadable response from "
+                                + request.uri().getHost() + ": " + e.getMessage(), e);
+                    }
+                });
+    }
+
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> attempt, int attemptNumber) {
+        return attempt.get()
+                .handle((value, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (isTransient(cause) && attemptNumber < maxAttempts) {
+                        retries.incrementAndGet();
+                        long delayMs = initialBackoff.toMillis() << (attemptNumber - 1);
+                        log.warn("{} request failed ({}), retry {} in {} ms", name, cause.getMessage(),
+                                attemptNumber, delayMs);
+                        return CompletableFuture.supplyAsync(() -> null,
+                                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                                .thenCompose(ignored -> withRetries(attempt, attemptNumber + 1));
+                    }
+                    failures.incrementAndGet();
+                    CompletableFuture<T> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(cause instanceof UpstreamLookupException ? cause
+                            : new UpstreamLookupException(name + " request failed: " + cause.getMessage(), cause));
+                    return failed;
+                })
+                .thenCompose(future -> future);
+    }
+
+    // IOExceptions only come from sendAsync; body parse failures are UpstreamResponseExceptions
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof IOException) {
+            return true;
+        }
+        return error instanceof StatusException status && (status.status == 429 || status.status == 503);
+    }
+
+    private void recordLatency(long nanos) {
+        totalLatencyNanos.addAndGet(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && millis > LATENCY_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+    }
+
+    private void recordTimer(String status, long nanos) {
+        MeterRegistry bound = registry;
+        if (bound == null) {
+            return;
+        }
+        latencyTimers.computeIfAbsent(status, key -> Timer.builder("upstream.http.requests")
+                .description("Upstream request latency, including failed attempts")
+                .tag("upstream", name)
+                .tag("status", key)
+                .publishPercentileHistogram()
+                .register(bound))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Upper bound of the bucket holding the given quantile; -1 if above the last bound
+    private double percentileMs(double quantile) {
+        long total = 0;
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            total += latencyBuckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            seen += latencyBuckets.get(i);
+            if (seen >= rank) {
+                return LATENCY_BUCKETS_MS[i];
+            }
+        }
+        return -1;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Non-2xx response.
+     */
+    static final class StatusException extends RuntimeException {
+        private final int status;
+
+        StatusException(int status, URI uri) {
+            super("HTTP " + status + " from " + uri.getHost());
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private String name;
+        private long requests;
+        private long failures;
+        private long retries;
+        private long inFlight;
+        private long http2Responses;
+        private double averageLatencyMs;
+        private double maxLatencyMs;
+        // Histogram bucket bounds, -1 meaning above the largest bucket
+        private double p50LatencyMs;
+        private double p95LatencyMs;
+        private double p99LatencyMs;
+        private int executorPoolSize;
+        private int executorActiveThreads;
+        private int executorQueued;
+    }
+}
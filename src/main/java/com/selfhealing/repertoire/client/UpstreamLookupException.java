@@ -0,0 +1,13 @@
+package com.selfhealing.repertoire.client;
+
+/**
+ * Raised when an upstream lookup could not be completed (transport failure,
+ * retries exhausted). Distinguishes "the service was unreachable" from "the
+ * service had no answer", which must never be cached as a negative result.
+ */
+public class UpstreamLookupException extends RuntimeException {
+
+    public UpstreamLookupException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.selfhealing.repertoire.client;
+
+/**
+ * Raised when an upstream answered 2xx with a body that could not be read.
+ * Asking again would fetch the same payload, so it is not retried, and
+ * unlike an outage it counts against the recording being healed.
+ */
+public class UpstreamResponseException extends UpstreamLookupException {
+
+    public UpstreamResponseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
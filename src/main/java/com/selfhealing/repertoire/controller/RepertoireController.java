@@ -11,33 +11,102 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
-@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" })
+@CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, exposedHeaders = RepertoireController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/repertoire")
+@lombok.extern.slf4j.Slf4j
 public class RepertoireController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 5000;
+
     private final MetadataHealerService healerService;
     private final com.selfhealing.repertoire.repository.RecordingRepository recordingRepository;
     private final com.selfhealing.repertoire.repository.WorkRepository workRepository;
     private final com.selfhealing.repertoire.service.BatchProcessingService batchProcessingService;
+    private final java.util.List<com.selfhealing.repertoire.client.TokenBucketRateLimiter> rateLimiters;
+    private final com.selfhealing.repertoire.client.LookupCache lookupCache;
+    private final com.selfhealing.repertoire.client.CachingLookupClient lookupClient;
+    private final com.selfhealing.repertoire.service.RecordingExportService recordingExportService;
+    private final com.selfhealing.repertoire.service.RecordingStatsService recordingStatsService;
+    private final com.selfhealing.repertoire.service.JobService jobService;
+    private final java.util.List<com.selfhealing.repertoire.client.UpstreamHttpClient> upstreamHttpClients;
+    private final com.selfhealing.repertoire.client.SpotifyTokenManager spotifyTokenManager;
+    private final com.selfhealing.repertoire.service.WorkSearchIndex workSearchIndex;
+    private final com.selfhealing.repertoire.service.WorkCatalogueImportService workCatalogueImportService;
 
     @Autowired
     public RepertoireController(MetadataHealerService healerService,
             com.selfhealing.repertoire.repository.RecordingRepository recordingRepository,
             com.selfhealing.repertoire.repository.WorkRepository workRepository,
-            com.selfhealing.repertoire.service.BatchProcessingService batchProcessingService) {
+            com.selfhealing.repertoire.service.BatchProcessingService batchProcessingService,
+            java.util.List<com.selfhealing.repertoire.client.TokenBucketRateLimiter> rateLimiters,
+            com.selfhealing.repertoire.client.LookupCache lookupCache,
+            com.selfhealing.repertoire.client.CachingLookupClient lookupClient,
+            com.selfhealing.repertoire.service.RecordingExportService recordingExportService,
+            com.selfhealing.repertoire.service.RecordingStatsService recordingStatsService,
+            com.selfhealing.repertoire.service.JobService jobService,
+            java.util.List<com.selfhealing.repertoire.client.UpstreamHttpClient> upstreamHttpClients,
+            com.selfhealing.repertoire.client.SpotifyTokenManager spotifyTokenManager,
+            com.selfhealing.repertoire.service.WorkSearchIndex workSearchIndex,
+            com.selfhealing.repertoire.service.WorkCatalogueImportService workCatalogueImportService) {
         this.healerService = healerService;
         this.recordingRepository = recordingRepository;
         this.workRepository = workRepository;
         this.batchProcessingService = batchProcessingService;
+        this.rateLimiters = rateLimiters;
+        this.lookupCache = lookupCache;
+        this.lookupClient = lookupClient;
+        this.recordingExportService = recordingExportService;
+        this.recordingStatsService = recordingStatsService;
+        this.jobService = jobService;
+        this.upstreamHttpClients = upstreamHttpClients;
+        this.spotifyTokenManager = spotifyTokenManager;
+        this.workSearchIndex = workSearchIndex;
+        this.workCatalogueImportService = workCatalogueImportService;
     }
 
     @PostMapping("/heal-now")
-    public ResponseEntity<String> manualHeal(
+    public ResponseEntity<com.selfhealing.repertoire.service.Job> manualHeal(
             @org.springframework.web.bind.annotation.RequestBody(required = false) java.util.List<java.util.UUID> selectedIds) {
-        // Trigger healing in a separate thread to avoid blocking the UI
-        new Thread(() -> healerService.performHealing(selectedIds)).start();
-        return ResponseEntity.accepted().body("Healing job started in background.");
+        try {
+            // Runs on the job pool; an identical run already in progress is returned instead
+            return accepted(healerService.startHealing(selectedIds));
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    @PostMapping("/heal/continuous")
+    public ResponseEntity<com.selfhealing.repertoire.service.Job> startContinuousHealing() {
+        try {
+            // Returns the running job, or starts a new one after a cancel or failure
+            return accepted(healerService.restartContinuousHealing());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<java.util.List<com.selfhealing.repertoire.service.Job>> getJobs() {
+        return ResponseEntity.ok(jobService.getJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<com.selfhealing.repertoire.service.Job> getJob(
+            @org.springframework.web.bind.annotation.PathVariable java.util.UUID jobId) {
+        return jobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<com.selfhealing.repertoire.service.Job> cancelJob(
+            @org.springframework.web.bind.annotation.PathVariable java.util.UUID jobId) {
+        return jobService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/recordings")
@@ -49,48 +118,87 @@ public class RepertoireController {
 
     @GetMapping("/stats")
     public ResponseEntity<com.selfhealing.repertoire.dto.DashboardStats> getStats() {
-        long total = recordingRepository.count();
-        long orphaned = recordingRepository.countByWorkIsNull();
-        long healed = total - orphaned;
-        double revenue = healed * 0.05;
+        return ResponseEntity.ok(recordingStatsService.getStats());
+    }
+
+    @GetMapping("/upstream/rate-limits")
+    public ResponseEntity<java.util.List<com.selfhealing.repertoire.client.TokenBucketRateLimiter.Stats>> getRateLimits() {
+        return ResponseEntity.ok(rateLimiters.stream()
+                .map(com.selfhealing.repertoire.client.TokenBucketRateLimiter::getStats)
+                .collect(java.util.stream.Collectors.toList()));
+    }
+
+    @GetMapping("/upstream/http")
+    public ResponseEntity<java.util.List<com.selfhealing.repertoire.client.UpstreamHttpClient.Stats>> getUpstreamHttpStats() {
+        return ResponseEntity.ok(upstreamHttpClients.stream()
+                .map(com.selfhealing.repertoire.client.UpstreamHttpClient::getStats)
+                .collect(java.util.stream.Collectors.toList()));
+    }
+
+    @GetMapping("/upstream/spotify-token")
+    public ResponseEntity<com.selfhealing.repertoire.client.SpotifyTokenManager.Stats> getSpotifyTokenStats() {
+        return ResponseEntity.ok(spotifyTokenManager.getStats());
+    }
+
+    @GetMapping("/upstream/cache")
+    public ResponseEntity<com.selfhealing.repertoire.client.LookupCache.Stats> getLookupCacheStats() {
+        return ResponseEntity.ok(lookupCache.getStats());
+    }
 
-        com.selfhealing.repertoire.dto.DashboardStats stats = new com.selfhealing.repertoire.dto.DashboardStats(
-                total, orphaned, healed, revenue);
-        return ResponseEntity.ok(stats);
+    @GetMapping("/upstream/coalescing")
+    public ResponseEntity<com.selfhealing.repertoire.client.SingleFlight.Stats> getCoalescingStats() {
+        return ResponseEntity.ok(lookupClient.getCoalescingStats());
     }
 
     @GetMapping("/recordings")
-    public ResponseEntity<java.util.List<com.selfhealing.repertoire.dto.RecordingDTO>> getAllRecordings() {
-        java.util.List<com.selfhealing.repertoire.model.Recording> recordings = recordingRepository.findAll();
-        java.util.List<com.selfhealing.repertoire.dto.RecordingDTO> dtos = recordings.stream()
-                .map(rec -> {
-                    com.selfhealing.repertoire.dto.RecordingDTO dto = new com.selfhealing.repertoire.dto.RecordingDTO();
-                    dto.setId(rec.getId());
-                    dto.setIsrc(rec.getIsrc());
-                    dto.setRecordingTitle(rec.getRecordingTitle());
-                    dto.setArtistName(rec.getArtistName());
-                    dto.setDurationMs(rec.getDurationMs());
-                    dto.setStatus(rec.getStatus());
-                    dto.setUpdatedAt(rec.getUpdatedAt());
-                    if (rec.getWork() != null) {
-                        com.selfhealing.repertoire.dto.RecordingDTO.WorkDTO workDTO = new com.selfhealing.repertoire.dto.RecordingDTO.WorkDTO();
-                        workDTO.setId(rec.getWork().getId());
-                        workDTO.setIswc(rec.getWork().getIswc());
-                        workDTO.setTitle(rec.getWork().getTitle());
-                        workDTO.setWorkType(rec.getWork().getWorkType());
-                        dto.setWork(workDTO);
-                    }
-                    return dto;
-                })
-                .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<java.util.List<com.selfhealing.repertoire.dto.RecordingDTO>> getRecordings(
+            @org.springframework.web.bind.annotation.RequestParam(required = false) String cursor,
+            @org.springframework.web.bind.annotation.RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) String status,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Boolean orphaned) {
+        com.selfhealing.repertoire.dto.RecordingCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null
+                    : com.selfhealing.repertoire.dto.RecordingCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // One extra row tells us whether another page exists
+        java.util.List<com.selfhealing.repertoire.dto.RecordingDTO> dtos = recordingRepository.findPage(
+                new com.selfhealing.repertoire.dto.RecordingFilter(status, orphaned), after, pageSize + 1);
+        boolean hasMore = dtos.size() > pageSize;
+        if (hasMore) {
+            dtos = dtos.subList(0, pageSize);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            com.selfhealing.repertoire.dto.RecordingDTO last = dtos.get(dtos.size() - 1);
+            response.header(NEXT_CURSOR_HEADER,
+                    new com.selfhealing.repertoire.dto.RecordingCursor(last.getUpdatedAt(), last.getId()).encode());
+        }
+        return response.body(dtos);
+    }
+
+    @GetMapping(value = "/recordings/export", produces = "application/x-ndjson")
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportRecordings(
+            @org.springframework.web.bind.annotation.RequestParam(required = false) String status,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Boolean orphaned) {
+        com.selfhealing.repertoire.dto.RecordingFilter filter = new com.selfhealing.repertoire.dto.RecordingFilter(
+                status, orphaned);
+        return ResponseEntity.ok()
+                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"recordings.ndjson\"")
+                .body(out -> recordingExportService.exportNdjson(filter, out));
     }
 
     @GetMapping("/works/search")
-    public ResponseEntity<java.util.List<com.selfhealing.repertoire.model.Work>> searchWorks(
-            @org.springframework.web.bind.annotation.RequestParam String query) {
-        return ResponseEntity
-                .ok(workRepository.findByTitleContainingIgnoreCaseOrIswcContainingIgnoreCase(query, query));
+    public ResponseEntity<java.util.List<com.selfhealing.repertoire.dto.RecordingDTO.WorkDTO>> searchWorks(
+            @org.springframework.web.bind.annotation.RequestParam String query,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(workSearchIndex.search(query, limit));
     }
 
     @org.springframework.web.bind.annotation.PutMapping("/recordings/{recId}/link/{workId}")
@@ -101,8 +209,14 @@ public class RepertoireController {
                 .orElseThrow(() -> new RuntimeException("Recording not found"));
         com.selfhealing.repertoire.model.Work work = workRepository.findById(workId)
                 .orElseThrow(() -> new RuntimeException("Work not found"));
+        java.util.UUID previousWorkId = rec.getWork() == null ? null : rec.getWork().getId();
         rec.setWork(work);
         recordingRepository.save(rec);
+        if (!workId.equals(previousWorkId)) {
+            workSearchIndex.recordLink(workId);
+            // A re-link moves the count off the Work the recording left
+            workSearchIndex.recordUnlink(previousWorkId);
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -123,7 +237,7 @@ public class RepertoireController {
                         .findByIsrc(request.getIsrc().trim());
                 if (!existing.isEmpty()) {
                     rec = existing.get(0);
-                    System.out.println("Updating existing recording: " + rec.getIsrc());
+                    log.debug("Updating existing recording: {}", rec.getIsrc());
                 }
             }
 
@@ -144,74 +258,109 @@ public class RepertoireController {
             // enabled)
             if (heal) {
                 String healResult = healerService.healSpecificRecording(rec);
-                System.out.println("Heal result: " + healResult);
+                log.info("Repair of {}: {}", rec.getIsrc(), healResult);
             } else {
-                System.out.println("Healing skipped - import only mode");
+                log.debug("Healing skipped - import only mode");
             }
 
-            // Fetch the updated recording with eager loading
-            rec = recordingRepository.findById(rec.getId()).orElse(rec);
-
-            // Convert to DTO
-            com.selfhealing.repertoire.dto.RecordingDTO dto = new com.selfhealing.repertoire.dto.RecordingDTO();
-            dto.setId(rec.getId());
-            dto.setIsrc(rec.getIsrc());
-            dto.setRecordingTitle(rec.getRecordingTitle());
-            dto.setArtistName(rec.getArtistName());
-            dto.setDurationMs(rec.getDurationMs());
-
-            if (rec.getWork() != null) {
-                com.selfhealing.repertoire.dto.RecordingDTO.WorkDTO workDTO = new com.selfhealing.repertoire.dto.RecordingDTO.WorkDTO();
-                workDTO.setId(rec.getWork().getId());
-                workDTO.setIswc(rec.getWork().getIswc());
-                workDTO.setTitle(rec.getWork().getTitle());
-                workDTO.setWorkType(rec.getWork().getWorkType());
-                dto.setWork(workDTO);
-            }
+            // Re-read the healed state as a projection
+            java.util.UUID recId = rec.getId();
+            com.selfhealing.repertoire.dto.RecordingDTO dto = recordingRepository.findDtoById(recId)
+                    .orElseThrow(() -> new RuntimeException("Recording not found: " + recId));
 
             return ResponseEntity.ok(dto);
         } catch (Exception e) {
-            System.err.println("Error in repair/single: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in repair/single: {}", e.getMessage(), e);
             return ResponseEntity.status(500).build();
         }
     }
 
     @PostMapping("/repair/batch")
-    public ResponseEntity<String> repairBatch(
+    public ResponseEntity<?> repairBatch(
             @org.springframework.web.bind.annotation.RequestParam("file") org.springframework.web.multipart.MultipartFile file,
             @org.springframework.web.bind.annotation.RequestParam(defaultValue = "true") boolean heal) {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body("Please upload a valid CSV file.");
         }
 
+        java.nio.file.Path spooled = null;
         try {
-            java.util.List<String[]> records = new java.util.ArrayList<>();
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(file.getInputStream()));
-                    com.opencsv.CSVReader csvReader = new com.opencsv.CSVReader(reader)) {
-
-                csvReader.readNext(); // Skip header
-                String[] nextLine;
-                while ((nextLine = csvReader.readNext()) != null) {
-                    records.add(nextLine);
+            // Spool to disk so the async job never holds the upload in memory
+            spooled = java.nio.file.Files.createTempFile("repertoire-batch-", ".csv");
+            file.transferTo(spooled);
+
+            try (com.selfhealing.repertoire.service.CsvChunkReader reader = com.selfhealing.repertoire.service.CsvChunkReader
+                    .open(spooled)) {
+                if (reader.readChunk(1).isEmpty()) {
+                    java.nio.file.Files.deleteIfExists(spooled);
+                    return ResponseEntity.status(400).body("The CSV file is empty or only contains the header row.");
                 }
             }
 
-            if (records.isEmpty()) {
-                return ResponseEntity.status(400).body("The CSV file is empty or only contains the header row.");
-            }
+            // From here on the job owns the spool file
+            com.selfhealing.repertoire.service.Job job = batchProcessingService.submitFile(spooled,
+                    file.getOriginalFilename(), heal);
+            spooled = null;
+            log.info("Spooled {} bytes from {} for batch job {}", file.getSize(), file.getOriginalFilename(),
+                    job.getId());
+            return accepted(job);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            deleteQuietly(spooled);
+            return ResponseEntity.status(503).body(e.getMessage());
+        } catch (Exception e) {
+            deleteQuietly(spooled);
+            return ResponseEntity.status(500).body("Failed to process file: " + e.getMessage());
+        }
+    }
 
-            System.out.println("Parsed " + records.size() + " records from " + file.getOriginalFilename());
-            batchProcessingService.processRecords(records, heal);
+    @PostMapping("/works/import")
+    public ResponseEntity<?> importWorks(
+            @org.springframework.web.bind.annotation.RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please upload a CSV, TSV or MusicBrainz JSON lines file.");
+        }
+
+        java.nio.file.Path spooled = null;
+        try {
+            spooled = java.nio.file.Files.createTempFile("repertoire-works-", ".upload");
+            file.transferTo(spooled);
 
-            String message = heal
-                    ? "Batch repair started for: " + file.getOriginalFilename()
-                            + ". Processing and healing in background."
-                    : "Batch import started for: " + file.getOriginalFilename() + ". Importing without healing.";
-            return ResponseEntity.ok(message + " Refresh the dashboard to see progress.");
+            // From here on the job owns the spool file; the format follows the original name
+            com.selfhealing.repertoire.service.Job job = workCatalogueImportService.submitFile(spooled,
+                    file.getOriginalFilename());
+            spooled = null;
+            log.info("Spooled {} bytes from {} for work import job {}", file.getSize(), file.getOriginalFilename(),
+                    job.getId());
+            return accepted(job);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            deleteQuietly(spooled);
+            return ResponseEntity.status(503).body(e.getMessage());
         } catch (Exception e) {
+            deleteQuietly(spooled);
             return ResponseEntity.status(500).body("Failed to process file: " + e.getMessage());
         }
     }
+
+    @GetMapping("/repair/batch/{jobId}")
+    public ResponseEntity<com.selfhealing.repertoire.service.Job> getBatchProgress(
+            @org.springframework.web.bind.annotation.PathVariable java.util.UUID jobId) {
+        return getJob(jobId);
+    }
+
+    private ResponseEntity<com.selfhealing.repertoire.service.Job> accepted(
+            com.selfhealing.repertoire.service.Job job) {
+        return ResponseEntity.accepted()
+                .location(java.net.URI.create("/api/repertoire/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    private static void deleteQuietly(java.nio.file.Path path) {
+        if (path != null) {
+            try {
+                java.nio.file.Files.deleteIfExists(path);
+            } catch (java.io.IOException ignored) {
+                // Best effort cleanup
+            }
+        }
+    }
 }
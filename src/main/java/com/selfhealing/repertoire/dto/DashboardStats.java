@@ -13,4 +13,6 @@ public class DashboardStats {
     private long healedCount;
     // Estimated Revenue Recovery ($0.05 per healed record for this demo)
     private double estimatedRecovery;
+    // Recordings per status value (PENDING, HEALING, HEALED, ORPHANED, ERROR, ...)
+    private java.util.Map<String, Long> statusCounts;
 }
@@ -0,0 +1,42 @@
+package com.selfhealing.repertoire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the recordings list, ordered by updated_at DESC (nulls
+ * last), id DESC. Travels to the client as an opaque token.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingCursor {
+    private LocalDateTime updatedAt;
+    private UUID id;
+
+    public String encode() {
+        String raw = (updatedAt == null ? "-" : updatedAt.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static RecordingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String timestamp = raw.substring(0, separator);
+            return new RecordingCursor("-".equals(timestamp) ? null : LocalDateTime.parse(timestamp),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
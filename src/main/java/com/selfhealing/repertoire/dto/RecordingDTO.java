@@ -20,6 +20,17 @@ public class RecordingDTO {
     private java.time.LocalDateTime updatedAt;
     private WorkDTO work;
 
+    /**
+     * Flat constructor used by JPQL projections; the work columns come from a
+     * left join and are all null for orphans.
+     */
+    public RecordingDTO(UUID id, String isrc, String recordingTitle, String artistName, String discoverySource,
+            Integer durationMs, String status, java.time.LocalDateTime updatedAt,
+            UUID workId, String workIswc, String workTitle, String workType) {
+        this(id, isrc, recordingTitle, artistName, discoverySource, durationMs, status, updatedAt,
+                workId == null ? null : new WorkDTO(workId, workIswc, workTitle, workType));
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
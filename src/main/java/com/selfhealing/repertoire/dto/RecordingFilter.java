@@ -0,0 +1,17 @@
+package com.selfhealing.repertoire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional filters for listing recordings; null fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingFilter {
+    private String status;
+    // true = no Work linked yet, false = healed/linked
+    private Boolean orphaned;
+}
@@ -0,0 +1,31 @@
+package com.selfhealing.repertoire.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A recording that became due for healing, written in the same transaction
+ * as the recording itself. Drained by continuous healing; entries are
+ * removed once the recording has been claimed.
+ */
+@Entity
+@Table(name = "healing_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealingOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recording_id", nullable = false)
+    private UUID recordingId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.selfhealing.repertoire.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent tier of the upstream lookup cache. A null value with
+ * {@code negative = true} records that the upstream had no answer.
+ */
+@Entity
+@Table(name = "upstream_lookup_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupCacheEntry {
+    @Id
+    @Column(name = "cache_key", length = 1024)
+    private String cacheKey;
+
+    @Column(name = "cache_value", columnDefinition = "TEXT")
+    private String value;
+
+    @Column(name = "negative", nullable = false)
+    private boolean negative;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
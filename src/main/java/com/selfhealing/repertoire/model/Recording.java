@@ -12,6 +12,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "recordings")
+@EntityListeners({ com.selfhealing.repertoire.service.RecordingStatsListener.class,
+        com.selfhealing.repertoire.service.HealingOutboxListener.class })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,7 +47,77 @@ public class Recording {
     @Column(name = "status")
     private String status = "PENDING";
 
-    @Column(name = "updated_at")
+    @Column(name = "updated_at", nullable = false)
     @org.hibernate.annotations.UpdateTimestamp
     private java.time.LocalDateTime updatedAt;
+
+    // Healing lease, written only by RecordingClaimRepository so JPA saves never clobber it
+    @Column(name = "claimed_by", length = 64, insertable = false, updatable = false)
+    private String claimedBy;
+
+    @Column(name = "claim_expires_at", insertable = false, updatable = false)
+    private java.time.LocalDateTime claimExpiresAt;
+
+    // Incremental healing state. Orphans are only claimed once next_heal_at has
+    // passed; unresolved ones are pushed back with exponential backoff, and an
+    // edit to title, artist or ISRC makes them eligible again straight away.
+    @Column(name = "heal_attempts")
+    private Integer healAttempts = 0;
+
+    @Column(name = "last_heal_attempt_at")
+    private java.time.LocalDateTime lastHealAttemptAt;
+
+    // MD5 of the healing inputs as of the last attempt
+    @Column(name = "heal_input_hash", length = 32)
+    private String healInputHash;
+
+    @Column(name = "next_heal_at")
+    private java.time.LocalDateTime nextHealAt;
+
+    // Status and link state as last read from or written to the database, so
+    // updates can be turned into dashboard counter deltas
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String persistedStatus;
+
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean persistedOrphaned;
+
+    // Set when a save made the recording due because it is new or its inputs changed
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean healInputsChanged;
+
+    @PrePersist
+    @PreUpdate
+    void refreshHealEligibility() {
+        if (nextHealAt == null) {
+            nextHealAt = java.time.LocalDateTime.now();
+            healInputsChanged = true;
+        } else if (healInputHash != null && !healInputHash.equals(currentHealInputHash())) {
+            // Inputs edited since the last attempt: the backoff no longer applies
+            healAttempts = 0;
+            nextHealAt = java.time.LocalDateTime.now();
+            healInputsChanged = true;
+        }
+    }
+
+    /**
+     * Fingerprint of the fields healing works from.
+     */
+    public String currentHealInputHash() {
+        String inputs = String.join("\u001f", java.util.Objects.toString(recordingTitle, ""),
+                java.util.Objects.toString(artistName, ""), java.util.Objects.toString(isrc, ""));
+        try {
+            byte[] digest = java.security.MessageDigest.getInstance("MD5")
+                    .digest(inputs.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return java.util.HexFormat.of().formatHex(digest);
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
 }
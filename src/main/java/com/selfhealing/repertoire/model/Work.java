@@ -13,6 +13,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "works")
+@EntityListeners(com.selfhealing.repertoire.service.WorkSearchListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,65 @@
+package com.selfhealing.repertoire.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the healing_outbox table. Appends join the caller's
+ * transaction, so an entry exists exactly when the recording change that
+ * produced it was committed. {@link #take} removes entries with
+ * {@code FOR UPDATE SKIP LOCKED}, so several nodes can drain it side by side.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HealingOutboxRepository {
+
+    private static final String APPEND_SQL = """
+            INSERT INTO healing_outbox (recording_id, created_at) VALUES (?, LOCALTIMESTAMP)
+            """;
+
+    // Bulk upserts stamp every new or changed row with the same next_heal_at
+    private static final String APPEND_WRITTEN_AT_SQL = """
+            INSERT INTO healing_outbox (recording_id, created_at)
+            SELECT id, LOCALTIMESTAMP FROM recordings WHERE next_heal_at = ? AND work_id IS NULL
+            """;
+
+    private static final String TAKE_SQL = """
+            DELETE FROM healing_outbox
+            WHERE id IN (SELECT id FROM healing_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING recording_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(UUID recordingId) {
+        jdbcTemplate.update(APPEND_SQL, recordingId);
+    }
+
+    /**
+     * Appends every orphan made due by a bulk write stamped {@code writtenAt}.
+     *
+     * @return entries appended
+     */
+    public int appendWrittenAt(LocalDateTime writtenAt) {
+        return jdbcTemplate.update(APPEND_WRITTEN_AT_SQL, Timestamp.valueOf(writtenAt));
+    }
+
+    /**
+     * Removes and returns up to {@code limit} of the oldest entries. Recording
+     * ids may repeat when a recording changed more than once.
+     */
+    public List<UUID> take(int limit) {
+        return jdbcTemplate.queryForList(TAKE_SQL, UUID.class, limit);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM healing_outbox", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,19 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.model.LookupCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LookupCacheRepository extends JpaRepository<LookupCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("delete from LookupCacheEntry e where e.expiresAt < :cutoff")
+    int deleteExpired(LocalDateTime cutoff);
+}
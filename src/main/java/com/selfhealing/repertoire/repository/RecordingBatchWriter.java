@@ -0,0 +1,96 @@
+package com.selfhealing.repertoire.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based JDBC access to the recordings table for bulk ingestion. Bypasses
+ * the persistence context entirely, so callers control transaction boundaries.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecordingBatchWriter {
+
+    // Re-imported rows with a new title or artist are due for healing again
+    private static final String INPUTS_CHANGED = """
+            (recordings.recording_title IS DISTINCT FROM EXCLUDED.recording_title
+                 OR recordings.artist_name IS DISTINCT FROM COALESCE(EXCLUDED.artist_name, recordings.artist_name))""";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO recordings (id, isrc, recording_title, artist_name, status, updated_at, heal_attempts,
+                                    next_heal_at)
+            VALUES (?, ?, ?, ?, 'PENDING', ?, 0, ?)
+            ON CONFLICT (isrc) DO UPDATE SET
+                recording_title = EXCLUDED.recording_title,
+                artist_name = COALESCE(EXCLUDED.artist_name, recordings.artist_name),
+                updated_at = EXCLUDED.updated_at,
+                heal_attempts = CASE WHEN %1$s THEN 0 ELSE recordings.heal_attempts END,
+                next_heal_at = CASE WHEN %1$s THEN EXCLUDED.next_heal_at ELSE recordings.next_heal_at END
+            """.formatted(INPUTS_CHANGED);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Resolves which of the given ISRCs already exist, in a single query.
+     */
+    public Set<String> findExistingIsrcs(Collection<String> isrcs) {
+        Set<String> existing = new HashSet<>();
+        if (isrcs.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT isrc FROM recordings WHERE isrc = ANY (?)");
+            Array array = connection.createArrayOf("varchar", isrcs.toArray());
+            statement.setArray(1, array);
+            return statement;
+        }, rs -> {
+            existing.add(rs.getString(1));
+        });
+        return existing;
+    }
+
+    /**
+     * Inserts new recordings and updates existing ones (matched on ISRC) in one
+     * JDBC batch. New rows and rows whose title or artist changed become due
+     * for healing. Rows must not repeat an ISRC within the same call.
+     *
+     * @return write time, which those rows carry as their next_heal_at
+     */
+    public LocalDateTime upsert(List<RecordingRow> rows) {
+        // Microseconds, as stored, so the value can be matched on
+        LocalDateTime writtenAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Timestamp now = Timestamp.valueOf(writtenAt);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, row.getIsrc());
+            statement.setString(3, row.getTitle());
+            statement.setString(4, row.getArtist());
+            statement.setTimestamp(5, now);
+            statement.setTimestamp(6, now);
+        });
+        return writtenAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordingRow {
+        private String title;
+        private String artist;
+        private String isrc;
+    }
+}
@@ -0,0 +1,211 @@
+package com.selfhealing.repertoire.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases on recordings so several engine instances can heal the same
+ * database without working on the same rows. A lease is a (claimed_by,
+ * claim_expires_at) pair; rows whose lease has lapsed, e.g. because the
+ * owning node crashed, can be claimed again. Claims use
+ * {@code FOR UPDATE SKIP LOCKED}, so concurrent claimers never block on or
+ * double-claim each other's rows.
+ *
+ * Full runs only claim orphans that are due: new or edited rows, and rows
+ * whose healing backoff ({@code next_heal_at}) has passed. They are read in
+ * {@code (next_heal_at, id)} order off the partial idx_recordings_orphans_due
+ * index, so a run touches the due rows rather than every orphan. Every
+ * orphan query repeats {@code work_id IS NULL} so the planner can match it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecordingClaimRepository {
+
+    private static final String CLAIM_DUE_SQL = """
+            UPDATE recordings SET claimed_by = ?, claim_expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 second'
+            WHERE id IN (
+                SELECT id FROM recordings
+                WHERE next_heal_at <= LOCALTIMESTAMP
+                  AND work_id IS NULL
+                  AND (claim_expires_at IS NULL OR claim_expires_at < LOCALTIMESTAMP)
+                ORDER BY next_heal_at, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private static final String CLAIM_DUE_AMONG_SQL = """
+            UPDATE recordings SET claimed_by = ?, claim_expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 second'
+            WHERE id IN (
+                SELECT id FROM recordings
+                WHERE id = ANY (?)
+                  AND next_heal_at <= LOCALTIMESTAMP
+                  AND work_id IS NULL
+                  AND (claim_expires_at IS NULL OR claim_expires_at < LOCALTIMESTAMP)
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private static final String COUNT_DUE_SQL = """
+            SELECT count(*) FROM recordings WHERE next_heal_at <= LOCALTIMESTAMP AND work_id IS NULL
+            """;
+
+    // Rows written before healing state existed are due straight away
+    private static final String BACKFILL_SQL = """
+            UPDATE recordings SET next_heal_at = COALESCE(updated_at, LOCALTIMESTAMP),
+                heal_attempts = COALESCE(heal_attempts, 0)
+            WHERE next_heal_at IS NULL AND work_id IS NULL
+            """;
+
+    private static final String CLAIM_SELECTED_SQL = """
+            UPDATE recordings SET claimed_by = ?, claim_expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 second'
+            WHERE id IN (
+                SELECT id FROM recordings
+                WHERE id = ANY (?)
+                  AND (claim_expires_at IS NULL OR claim_expires_at < LOCALTIMESTAMP OR claimed_by = ?)
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE recordings SET claimed_by = NULL, claim_expires_at = NULL
+            WHERE id = ? AND claimed_by = ?
+            """;
+
+    // Only orphans still waiting out a backoff; leased rows are being attempted already
+    private static final String RESCHEDULE_ORPHANS_SQL = """
+            UPDATE recordings SET next_heal_at = ?
+            WHERE work_id IS NULL
+              AND status = 'ORPHANED'
+              AND next_heal_at > ?
+              AND (claim_expires_at IS NULL OR claim_expires_at < LOCALTIMESTAMP)
+            """;
+
+    private static final String RELEASE_ALL_SQL = """
+            UPDATE recordings SET claimed_by = NULL, claim_expires_at = NULL
+            WHERE id = ANY (?) AND claimed_by = ?
+            """;
+
+    private static final String POSTPONE_SQL = """
+            UPDATE recordings SET next_heal_at = ?, claimed_by = NULL, claim_expires_at = NULL
+            WHERE id = ? AND claimed_by = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Leases up to {@code limit} unleased orphans that are due for healing,
+     * longest-waiting first. Claimed rows stay leased until attempted; by the
+     * time {@link #release} drops the lease they have moved out of the due
+     * set, so callers simply claim again until this comes back empty.
+     *
+     * @return claimed ids, ascending
+     */
+    public List<UUID> claimDue(String nodeId, int limit, Duration lease) {
+        List<UUID> ids = jdbcTemplate.queryForList(CLAIM_DUE_SQL, UUID.class, nodeId, lease.toSeconds(), limit);
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Leases those of the given recordings that are still due orphans and not
+     * held by anyone, this node included.
+     */
+    public List<UUID> claimDueAmong(String nodeId, Collection<UUID> ids, Duration lease) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(CLAIM_DUE_AMONG_SQL);
+            statement.setString(1, nodeId);
+            statement.setLong(2, lease.toSeconds());
+            statement.setArray(3, connection.createArrayOf("uuid", ids.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    public long countDue() {
+        Long count = jdbcTemplate.queryForObject(COUNT_DUE_SQL, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Gives rows without healing state a due time.
+     *
+     * @return rows updated
+     */
+    public int backfillHealState() {
+        return jdbcTemplate.update(BACKFILL_SQL);
+    }
+
+    /**
+     * Makes every unleased ORPHANED recording whose backoff has not passed
+     * yet due at {@code dueAt}, e.g. once new Works were imported. Attempt
+     * counts are kept, so a row that still finds no match backs off as before.
+     *
+     * @return rows rescheduled
+     */
+    public int rescheduleOrphans(LocalDateTime dueAt) {
+        Timestamp timestamp = Timestamp.valueOf(dueAt);
+        return jdbcTemplate.update(RESCHEDULE_ORPHANS_SQL, timestamp, timestamp);
+    }
+
+    /**
+     * Leases the given recordings, skipping those another node currently holds.
+     */
+    public List<UUID> claimSelected(String nodeId, Collection<UUID> ids, Duration lease) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(CLAIM_SELECTED_SQL);
+            Array array = connection.createArrayOf("uuid", ids.toArray());
+            statement.setString(1, nodeId);
+            statement.setLong(2, lease.toSeconds());
+            statement.setArray(3, array);
+            statement.setString(4, nodeId);
+            return statement;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+
+    /**
+     * Drops this node's lease on a recording once its attempt has been saved.
+     * A lease that lapsed and was taken over by another node is left alone.
+     */
+    public void release(String nodeId, UUID id) {
+        jdbcTemplate.update(RELEASE_SQL, id, nodeId);
+    }
+
+    /**
+     * Drops this node's leases on recordings it claimed but will not attempt,
+     * e.g. because the run was cancelled.
+     */
+    public void release(String nodeId, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(RELEASE_ALL_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+            statement.setString(2, nodeId);
+            return statement;
+        });
+    }
+
+    /**
+     * Makes a leased recording due at {@code dueAt} and drops this node's
+     * lease, for attempts whose outcome could not be saved.
+     */
+    public void postpone(String nodeId, UUID id, LocalDateTime dueAt) {
+        jdbcTemplate.update(POSTPONE_SQL, Timestamp.valueOf(dueAt), id, nodeId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.dto.RecordingCursor;
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.dto.RecordingFilter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Read-only recording queries that project straight into {@link RecordingDTO}
+ * (one left join on works, no entity hydration). Lists are keyset-paginated
+ * or streamed, newest first.
+ */
+public interface RecordingQueryRepository {
+
+    /**
+     * @param after cursor of the last row of the previous page, or null for the first page
+     */
+    List<RecordingDTO> findPage(RecordingFilter filter, RecordingCursor after, int limit);
+
+    /**
+     * Streams every matching recording from a database cursor. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    Stream<RecordingDTO> streamAll(RecordingFilter filter);
+
+    Optional<RecordingDTO> findDtoById(UUID id);
+}
@@ -0,0 +1,81 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.dto.RecordingCursor;
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.dto.RecordingFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class RecordingQueryRepositoryImpl implements RecordingQueryRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SELECT_DTO = "select new com.selfhealing.repertoire.dto.RecordingDTO("
+            + "r.id, r.isrc, r.recordingTitle, r.artistName, r.discoverySource, r.durationMs, r.status, r.updatedAt, "
+            + "w.id, w.iswc, w.title, w.workType) from Recording r left join r.work w";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RecordingDTO> findPage(RecordingFilter filter, RecordingCursor after, int limit) {
+        return buildQuery(filter, after).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<RecordingDTO> streamAll(RecordingFilter filter) {
+        return buildQuery(filter, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    public Optional<RecordingDTO> findDtoById(UUID id) {
+        // A list, not getResultStream(): outside a transaction the stream's ResultSet is closed with the query
+        return entityManager.createQuery(SELECT_DTO + " where r.id = :id", RecordingDTO.class)
+                .setParameter("id", id)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    private TypedQuery<RecordingDTO> buildQuery(RecordingFilter filter, RecordingCursor after) {
+        StringBuilder jpql = new StringBuilder(SELECT_DTO).append(" where 1 = 1");
+        if (filter != null && filter.getStatus() != null) {
+            jpql.append(" and r.status = :status");
+        }
+        if (filter != null && filter.getOrphaned() != null) {
+            jpql.append(filter.getOrphaned() ? " and r.work is null" : " and r.work is not null");
+        }
+        if (after != null) {
+            // Rows strictly after the cursor in (updatedAt desc, id desc) order. updated_at is NOT NULL,
+            // so the row comparison is the whole condition and starts the index scan at the cursor
+            if (after.getUpdatedAt() == null) {
+                jpql.append(" and r.updatedAt is null and r.id < :afterId");
+            } else {
+                jpql.append(" and (r.updatedAt, r.id) < (:afterUpdatedAt, :afterId)");
+            }
+        }
+        // Matches the idx_recordings_* listing indexes column for column
+        jpql.append(" order by r.updatedAt desc nulls last, r.id desc");
+
+        TypedQuery<RecordingDTO> query = entityManager.createQuery(jpql.toString(), RecordingDTO.class);
+        if (filter != null && filter.getStatus() != null) {
+            query.setParameter("status", filter.getStatus());
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (after.getUpdatedAt() != null) {
+                query.setParameter("afterUpdatedAt", after.getUpdatedAt());
+            }
+        }
+        return query;
+    }
+}
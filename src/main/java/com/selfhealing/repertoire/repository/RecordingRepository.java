@@ -2,16 +2,21 @@ package com.selfhealing.repertoire.repository;
 
 import com.selfhealing.repertoire.model.Recording;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface RecordingRepository extends JpaRepository<Recording, UUID> {
+public interface RecordingRepository extends JpaRepository<Recording, UUID>, RecordingQueryRepository {
     List<Recording> findByWorkIsNull();
 
     List<Recording> findByIsrc(String isrc);
 
     long countByWorkIsNull();
+
+    // One grouped scan for all dashboard counters
+    @Query("select r.status as status, count(r) as total, count(r.work) as linked from Recording r group by r.status")
+    List<StatusCountView> countByStatus();
 }
@@ -0,0 +1,13 @@
+package com.selfhealing.repertoire.repository;
+
+/**
+ * Recording counts for one status value, used to reconcile dashboard counters.
+ */
+public interface StatusCountView {
+    String getStatus();
+
+    long getTotal();
+
+    // Recordings in this status that are linked to a Work
+    long getLinked();
+}
@@ -0,0 +1,115 @@
+package com.selfhealing.repertoire.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based JDBC access to the works table for catalogue imports. Like
+ * {@link RecordingBatchWriter} it bypasses the persistence context, so the
+ * in-memory work indexes have to be rebuilt once an import is done.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WorkBatchWriter {
+
+    // Works with an ISWC are matched on it; unchanged rows are not rewritten
+    private static final String UPSERT_SQL = """
+            INSERT INTO works (id, iswc, title, work_type)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (iswc) DO UPDATE SET
+                title = EXCLUDED.title,
+                work_type = COALESCE(EXCLUDED.work_type, works.work_type)
+            WHERE works.title IS DISTINCT FROM EXCLUDED.title
+               OR works.work_type IS DISTINCT FROM COALESCE(EXCLUDED.work_type, works.work_type)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads the stored works for the given ISWCs, in a single query.
+     *
+     * @return works by ISWC; ISWCs without a work are absent
+     */
+    public Map<String, WorkRow> findByIswcs(Collection<String> iswcs) {
+        Map<String, WorkRow> works = new HashMap<>();
+        if (iswcs.isEmpty()) {
+            return works;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT title, iswc, work_type FROM works WHERE iswc = ANY (?)");
+            statement.setArray(1, connection.createArrayOf("varchar", iswcs.toArray()));
+            return statement;
+        }, rs -> {
+            works.put(rs.getString(2), new WorkRow(rs.getString(1), rs.getString(2), rs.getString(3)));
+        });
+        return works;
+    }
+
+    /**
+     * Resolves which of the given lower-cased titles already belong to a Work,
+     * in a single query.
+     */
+    public Set<String> findExistingTitles(Collection<String> lowerCaseTitles) {
+        return findExisting("SELECT DISTINCT lower(title) FROM works WHERE lower(title) = ANY (?)", lowerCaseTitles);
+    }
+
+    /**
+     * Inserts new works and updates existing ones (matched on ISWC) in one
+     * JDBC batch. Works without an ISWC are always inserted. Rows must not
+     * repeat an ISWC within the same call.
+     */
+    public void upsert(List<WorkRow> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, row.getIswc());
+            statement.setString(3, row.getTitle());
+            statement.setString(4, row.getWorkType());
+        });
+    }
+
+    private Set<String> findExisting(String sql, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        if (values.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            Array array = connection.createArrayOf("varchar", values.toArray());
+            statement.setArray(1, array);
+            return statement;
+        }, rs -> {
+            existing.add(rs.getString(1));
+        });
+        return existing;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WorkRow {
+        private String title;
+        private String iswc;
+        private String workType;
+
+        /**
+         * Whether upserting this row would leave {@code stored} as it is: the
+         * same title, and a work type that is either the same or not given.
+         */
+        public boolean matches(WorkRow stored) {
+            return title.equals(stored.title) && (workType == null || workType.equals(stored.workType));
+        }
+    }
+}
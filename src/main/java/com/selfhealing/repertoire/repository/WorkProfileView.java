@@ -0,0 +1,18 @@
+package com.selfhealing.repertoire.repository;
+
+import java.util.UUID;
+
+/**
+ * Artist and typical duration of a Work, taken from the recordings already
+ * linked to it. Used to score orphan recordings beyond their title.
+ */
+public interface WorkProfileView {
+    UUID getId();
+
+    String getArtist();
+
+    Double getDurationMs();
+
+    // Number of linked recordings
+    Long getLinks();
+}
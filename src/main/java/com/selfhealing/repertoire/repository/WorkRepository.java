@@ -1,7 +1,10 @@
 package com.selfhealing.repertoire.repository;
 
+import com.selfhealing.repertoire.dto.RecordingDTO;
 import com.selfhealing.repertoire.model.Work;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,6 +17,41 @@ public interface WorkRepository extends JpaRepository<Work, UUID> {
     // Needed for fuzzy matching later
     Optional<Work> findByTitleAndWorkType(String title, String workType);
 
-    // Search for works by title or ISWC
-    java.util.List<Work> findByTitleContainingIgnoreCaseOrIswcContainingIgnoreCase(String title, String iswc);
+    // Search for works by title or ISWC, projected without touching the recordings collection.
+    // Unranked; the work search index falls back to it while it is being built
+    default java.util.List<RecordingDTO.WorkDTO> searchByTitleOrIswc(String query, int limit) {
+        return searchByLowerPattern(containsPattern(query), org.springframework.data.domain.PageRequest.of(0, limit));
+    }
+
+    // Both sides are lower(column) LIKE pattern, the shape the trigram indexes on works serve
+    @Query("select new com.selfhealing.repertoire.dto.RecordingDTO$WorkDTO(w.id, w.iswc, w.title, w.workType) "
+            + "from Work w where lower(w.title) like :pattern or lower(w.iswc) like :pattern")
+    java.util.List<RecordingDTO.WorkDTO> searchByLowerPattern(@Param("pattern") String pattern,
+            org.springframework.data.domain.Pageable page);
+
+    /**
+     * Lower-cased {@code %query%} with LIKE wildcards in the query escaped
+     * (PostgreSQL's default escape character is a backslash).
+     */
+    static String containsPattern(String query) {
+        String escaped = query.toLowerCase(java.util.Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    // Id/title pairs only, used to build the local fuzzy match index
+    @Query("select w.id as id, w.title as title from Work w")
+    java.util.List<WorkTitleView> findAllTitles();
+
+    // Every Work as the DTO the search returns, used to build the work search index
+    @Query("select new com.selfhealing.repertoire.dto.RecordingDTO$WorkDTO(w.id, w.iswc, w.title, w.workType) "
+            + "from Work w")
+    java.util.List<RecordingDTO.WorkDTO> findAllSummaries();
+
+    // One row per Work that has linked recordings
+    @Query("select r.work.id as id, min(r.artistName) as artist, avg(r.durationMs) as durationMs, count(r) as links "
+            + "from Recording r where r.work is not null group by r.work.id")
+    java.util.List<WorkProfileView> findLinkedProfiles();
 }
@@ -0,0 +1,13 @@
+package com.selfhealing.repertoire.repository;
+
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a Work used to build in-memory matching structures
+ * without hydrating full entities.
+ */
+public interface WorkTitleView {
+    UUID getId();
+
+    String getTitle();
+}
@@ -0,0 +1,87 @@
+package com.selfhealing.repertoire.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row counters of a batch import, readable while the job is still running.
+ * Exposed as the details of the import's {@link Job}.
+ */
+public class BatchJobProgress {
+
+    private final String fileName;
+    private final boolean heal;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsSkipped = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+    private volatile UUID healJobId;
+
+    public BatchJobProgress(String fileName, boolean heal) {
+        this.fileName = fileName;
+        this.heal = heal;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isHeal() {
+        return heal;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsPersisted() {
+        return rowsInserted.get() + rowsUpdated.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped.get();
+    }
+
+    // Valid rows that matched what is already stored, so nothing was written
+    public long getRowsUnchanged() {
+        return rowsUnchanged.get();
+    }
+
+    // Healing run started after the import, if any
+    public UUID getHealJobId() {
+        return healJobId;
+    }
+
+    void addRowsRead(long rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    void addRowsInserted(long rows) {
+        rowsInserted.addAndGet(rows);
+    }
+
+    void addRowsUpdated(long rows) {
+        rowsUpdated.addAndGet(rows);
+    }
+
+    void addRowsSkipped(long rows) {
+        rowsSkipped.addAndGet(rows);
+    }
+
+    void addRowsUnchanged(long rows) {
+        rowsUnchanged.addAndGet(rows);
+    }
+
+    void setHealJobId(UUID healJobId) {
+        this.healJobId = healJobId;
+    }
+}
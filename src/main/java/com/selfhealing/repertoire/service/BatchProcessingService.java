@@ -1,80 +1,288 @@
 package com.selfhealing.repertoire.service;
 
-import com.opencsv.CSVReader;
 import com.selfhealing.repertoire.model.Recording;
+import com.selfhealing.repertoire.repository.RecordingBatchWriter;
 import com.selfhealing.repertoire.repository.RecordingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Chunked CSV ingestion. Rows are counted in the {@code ingest.rows} counter
+ * (tagged inserted, updated or skipped) and each chunk's transaction is timed
+ * in {@code ingest.chunk}; the log gets a progress line every
+ * {@code batch.progress-log-chunks} chunks rather than a line per row.
+ */
 @Service
+@Slf4j
 public class BatchProcessingService {
 
+    // Width of the recordings.isrc column
+    private static final int MAX_ISRC_LENGTH = 12;
+
     @Autowired
     private RecordingRepository recordingRepository;
 
     @Autowired
     private MetadataHealerService healerService;
 
-    @Async
-    @org.springframework.transaction.annotation.Transactional
-    public void processRecords(java.util.List<String[]> records, boolean heal) {
-        try {
-            int count = 0;
-            System.out.println("🚀 Background Task: Processing " + records.size() + " records...");
-            for (String[] line : records) {
-                if (line.length >= 1 && line[0] != null && !line[0].trim().isEmpty()) {
-                    String isrc = (line.length >= 3 && line[2] != null) ? line[2].trim() : null;
-
-                    Recording rec = null;
-                    if (isrc != null && !isrc.isEmpty()) {
-                        java.util.List<Recording> existing = recordingRepository.findByIsrc(isrc);
-                        if (!existing.isEmpty()) {
-                            rec = existing.get(0);
-                        }
-                    }
+    @Autowired
+    private RecordingBatchWriter batchWriter;
 
-                    if (rec == null) {
-                        rec = new Recording();
-                    }
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-                    rec.setRecordingTitle(line[0].trim()); // Column 1: Title
+    @Autowired
+    private RecordingStatsService statsService;
 
-                    // Column 2: Artist (Populating the new field)
-                    if (line.length >= 2 && line[1] != null && !line[1].trim().isEmpty()) {
-                        rec.setArtistName(line[1].trim());
-                    }
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HealingQueue healingQueue;
+
+    @Value("${batch.chunk-size:1000}")
+    private int chunkSize;
+
+    // JDBC batch upsert per chunk; false falls back to per-row JPA saves
+    @Value("${batch.bulk-upsert:true}")
+    private boolean bulkUpsert;
+
+    @Value("${batch.progress-log-chunks:100}")
+    private int progressLogChunks;
+
+    private Counter insertedRows;
+    private Counter updatedRows;
+    private Counter skippedRows;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        insertedRows = rowCounter("inserted");
+        updatedRows = rowCounter("updated");
+        skippedRows = rowCounter("skipped");
+        chunkTimer = Timer.builder("ingest.chunk")
+                .description("Read-to-commit time of one import chunk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rowCounter(String outcome) {
+        return Counter.builder("ingest.rows")
+                .description("CSV rows ingested by batch imports")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a spooled CSV upload as a batch import job. The spool file is
+     * deleted when the job finishes or is cancelled.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the job queue is full
+     */
+    public Job submitFile(Path csvFile, String fileName, boolean heal) {
+        BatchJobProgress progress = new BatchJobProgress(fileName, heal);
+        Job job = jobService.submit(Job.Type.BATCH_IMPORT, null, "Import " + fileName, progress,
+                running -> processFile(csvFile, progress, running));
+        job.getCompletion().whenComplete((finished, error) -> {
+            try {
+                Files.deleteIfExists(csvFile);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}: {}", csvFile, e.getMessage());
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Streams a spooled CSV upload through the database one chunk at a time,
+     * committing after each chunk. Stops between chunks if the job is cancelled.
+     */
+    private void processFile(Path csvFile, BatchJobProgress progress, Job job) throws IOException {
+        long started = System.nanoTime();
+        try (CsvChunkReader reader = CsvChunkReader.open(csvFile)) {
+            log.info("Importing {} in chunks of {} (bulkUpsert={})", progress.getFileName(), chunkSize, bulkUpsert);
+            List<String[]> chunk;
+            int chunks = 0;
+            while (!job.isCancelRequested() && !(chunk = reader.readChunk(chunkSize)).isEmpty()) {
+                long chunkStart = System.nanoTime();
+                progress.addRowsRead(chunk.size());
+                List<String[]> rows = chunk;
+                ChunkResult result = transactionTemplate
+                        .execute(status -> bulkUpsert ? upsertChunk(rows) : persistChunk(rows));
+                long chunkNanos = System.nanoTime() - chunkStart;
+                chunkTimer.record(chunkNanos, TimeUnit.NANOSECONDS);
+                insertedRows.increment(result.inserted);
+                updatedRows.increment(result.updated);
+                skippedRows.increment(result.skipped);
+                progress.addRowsInserted(result.inserted);
+                progress.addRowsUpdated(result.updated);
+                progress.addRowsSkipped(result.skipped);
+                job.addProcessed(chunk.size());
+                chunks++;
+
+                if (result.skipped > 0) {
+                    // One example per chunk; the rest only show up in the counts
+                    log.warn("Skipped {} of {} rows in chunk {} of {}, e.g. {}", result.skipped, chunk.size(), chunks,
+                            progress.getFileName(), result.firstSkipReason);
+                }
+                log.debug("Imported chunk {} of {}: rows={} inserted={} updated={} skipped={} ms={}", chunks,
+                        progress.getFileName(), chunk.size(), result.inserted, result.updated, result.skipped,
+                        TimeUnit.NANOSECONDS.toMillis(chunkNanos));
+                if (progressLogChunks > 0 && chunks % progressLogChunks == 0) {
+                    log.info("Import progress for {}: rows={} rowsPerSec={}", progress.getFileName(),
+                            progress.getRowsRead(), rowsPerSecond(progress.getRowsRead(), started));
+                }
+            }
+        }
+        if (job.isCancelRequested()) {
+            log.info("Import of {} cancelled after {} rows", progress.getFileName(), progress.getRowsRead());
+            return;
+        }
 
-                    // Column 3: ISRC (optional)
-                    if (line.length >= 3 && line[2] != null && !line[2].trim().isEmpty()) {
-                        rec.setIsrc(line[2].trim());
+        log.info("Import of {} completed: rows={} inserted={} updated={} skipped={} rowsPerSec={}",
+                progress.getFileName(), progress.getRowsRead(), progress.getRowsInserted(), progress.getRowsUpdated(),
+                progress.getRowsSkipped(), rowsPerSecond(progress.getRowsRead(), started));
+
+        // Trigger healing for all new orphan records (if enabled)
+        if (progress.isHeal()) {
+            log.info("Starting healing process...");
+            progress.setHealJobId(healerService.startHealing(null).getId());
+        } else {
+            log.info("Healing skipped - import only mode");
+        }
+    }
+
+    /**
+     * Bulk path: resolves existing ISRCs with one query and writes the whole
+     * chunk as a single JDBC batch of upserts. Rows repeating an ISRC of the
+     * same chunk are folded into the last one and counted as skipped.
+     */
+    ChunkResult upsertChunk(List<String[]> records) {
+        ChunkResult result = new ChunkResult();
+        Map<String, RecordingBatchWriter.RecordingRow> byIsrc = new LinkedHashMap<>();
+        List<RecordingBatchWriter.RecordingRow> rows = new ArrayList<>();
+
+        for (String[] line : records) {
+            if (line.length < 1 || line[0] == null || line[0].trim().isEmpty()) {
+                result.skip("empty title");
+                continue;
+            }
+            String title = line[0].trim();
+            String artist = (line.length >= 2 && line[1] != null && !line[1].trim().isEmpty()) ? line[1].trim() : null;
+            String isrc = (line.length >= 3 && line[2] != null && !line[2].trim().isEmpty()) ? line[2].trim() : null;
+            if (isrc != null && isrc.length() > MAX_ISRC_LENGTH) {
+                result.skip("invalid ISRC '" + isrc + "'");
+                continue;
+            }
+
+            RecordingBatchWriter.RecordingRow row = new RecordingBatchWriter.RecordingRow(title, artist, isrc);
+            if (isrc == null) {
+                rows.add(row);
+                continue;
+            }
+            // Repeated ISRC within the chunk: later rows win, as with sequential saves
+            RecordingBatchWriter.RecordingRow previous = byIsrc.remove(isrc);
+            if (previous != null) {
+                if (artist == null) {
+                    row.setArtist(previous.getArtist());
+                }
+                result.skip("duplicate ISRC " + isrc + " in chunk");
+            }
+            byIsrc.put(isrc, row);
+        }
+
+        Set<String> existing = batchWriter.findExistingIsrcs(byIsrc.keySet());
+        rows.addAll(byIsrc.values());
+        if (!rows.isEmpty()) {
+            healingQueue.publishWrittenAt(batchWriter.upsert(rows));
+        }
+
+        result.inserted = rows.size() - existing.size();
+        result.updated = existing.size();
+        // The upsert inserts new rows as PENDING orphans and never changes status or link on update
+        statsService.recordInserted(result.inserted, "PENDING", true);
+        return result;
+    }
+
+    /**
+     * Per-row JPA path; invalid rows are skipped.
+     */
+    private ChunkResult persistChunk(List<String[]> records) {
+        ChunkResult result = new ChunkResult();
+        for (String[] line : records) {
+            if (line.length >= 1 && line[0] != null && !line[0].trim().isEmpty()) {
+                String isrc = (line.length >= 3 && line[2] != null) ? line[2].trim() : null;
+
+                Recording rec = null;
+                if (isrc != null && !isrc.isEmpty()) {
+                    List<Recording> existing = recordingRepository.findByIsrc(isrc);
+                    if (!existing.isEmpty()) {
+                        rec = existing.get(0);
                     }
+                }
 
-                    recordingRepository.save(rec);
-                    System.out.println(" ✅ Saved record: " + rec.getRecordingTitle());
-                    count++;
+                if (rec == null) {
+                    rec = new Recording();
+                    result.inserted++;
                 } else {
-                    System.out.println(" ⚠️ Skipping invalid or empty row in CSV: " + java.util.Arrays.toString(line));
+                    result.updated++;
                 }
-            }
 
-            System.out.println("Batch processing completed. " + count + " records added.");
+                rec.setRecordingTitle(line[0].trim()); // Column 1: Title
+
+                // Column 2: Artist (Populating the new field)
+                if (line.length >= 2 && line[1] != null && !line[1].trim().isEmpty()) {
+                    rec.setArtistName(line[1].trim());
+                }
 
-            // Trigger healing for all new orphan records (if enabled)
-            if (heal) {
-                System.out.println("Starting healing process...");
-                healerService.performHealing();
+                // Column 3: ISRC (optional)
+                if (line.length >= 3 && line[2] != null && !line[2].trim().isEmpty()) {
+                    rec.setIsrc(line[2].trim());
+                }
+
+                recordingRepository.save(rec);
             } else {
-                System.out.println("Healing skipped - import only mode");
+                result.skip("invalid or empty row " + java.util.Arrays.toString(line));
             }
+        }
+        return result;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error processing batch records: " + e.getMessage());
-            e.printStackTrace();
+    private static long rowsPerSecond(long rows, long startedNanos) {
+        long elapsed = Math.max(1, System.nanoTime() - startedNanos);
+        return rows * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    static class ChunkResult {
+        int inserted;
+        int updated;
+        int skipped;
+        String firstSkipReason;
+
+        private void skip(String reason) {
+            if (skipped++ == 0) {
+                firstSkipReason = reason;
+            }
         }
     }
 }
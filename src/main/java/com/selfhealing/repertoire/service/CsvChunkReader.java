@@ -0,0 +1,96 @@
+package com.selfhealing.repertoire.service;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a CSV source in fixed-size chunks so only one chunk of rows is ever
+ * held in memory. The header row is skipped, but kept for callers that map
+ * columns by name.
+ */
+public class CsvChunkReader implements Closeable {
+
+    private final CSVReader csvReader;
+    private String[] header;
+    private boolean exhausted = false;
+
+    public CsvChunkReader(Reader reader) throws IOException {
+        this(reader, ',');
+    }
+
+    /**
+     * Reader for another delimiter. With a tab the source is read as plain
+     * TSV: fields are neither quoted nor escaped, so {@code "} and {@code \}
+     * are taken literally.
+     */
+    public CsvChunkReader(Reader reader, char separator) throws IOException {
+        CSVParserBuilder parser = new CSVParserBuilder().withSeparator(separator);
+        if (separator == '\t') {
+            parser.withQuoteChar(CSVParser.NULL_CHARACTER).withEscapeChar(CSVParser.NULL_CHARACTER);
+        }
+        this.csvReader = new CSVReaderBuilder(reader instanceof BufferedReader ? reader : new BufferedReader(reader))
+                .withCSVParser(parser.build())
+                .build();
+        try {
+            header = csvReader.readNext(); // Skip header
+            if (header == null) {
+                exhausted = true;
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV header: " + e.getMessage(), e);
+        }
+    }
+
+    public static CsvChunkReader open(Path file) throws IOException {
+        return new CsvChunkReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return up to {@code size} rows, or an empty list once the source is exhausted
+     */
+    public List<String[]> readChunk(int size) throws IOException {
+        List<String[]> chunk = new ArrayList<>(size);
+        if (exhausted) {
+            return chunk;
+        }
+        try {
+            String[] line;
+            while (chunk.size() < size && (line = csvReader.readNext()) != null) {
+                chunk.add(line);
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV row " + csvReader.getLinesRead() + ": " + e.getMessage(), e);
+        }
+        if (chunk.size() < size) {
+            exhausted = true;
+        }
+        return chunk;
+    }
+
+    // Null for an empty source
+    public String[] getHeader() {
+        return header;
+    }
+
+    public long getLinesRead() {
+        return csvReader.getLinesRead();
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvReader.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.selfhealing.repertoire.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the healing pipeline: a {@code healer.tier} timer per lookup tier
+ * tagged with its outcome (hit, miss or error), a {@code healer.recordings}
+ * counter per final result, and the depth of the worker queues of every
+ * running healing run.
+ */
+@Component
+public class HealingMetrics {
+
+    public static final String TIER_MUSICBRAINZ_ISRC = "musicbrainz_isrc";
+    public static final String TIER_SPOTIFY_ENRICHMENT = "spotify_enrichment";
+    public static final String TIER_DEEP_SEARCH_ENRICHED = "deep_search_enriched";
+    public static final String TIER_DEEP_SEARCH_ORIGINAL = "deep_search_original";
+    public static final String TIER_LOCAL_FUZZY = "local_fuzzy";
+
+    private final MeterRegistry registry;
+    private final Set<ThreadPoolExecutor> workerPools = ConcurrentHashMap.newKeySet();
+    private final Timer enrichmentTimer;
+
+    public HealingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("healer.queue.depth", workerPools,
+                        pools -> pools.stream().mapToInt(pool -> pool.getQueue().size()).sum())
+                .description("Recordings queued for a healing worker")
+                .register(registry);
+        Gauge.builder("healer.workers.active", workerPools,
+                        pools -> pools.stream().mapToInt(ThreadPoolExecutor::getActiveCount).sum())
+                .register(registry);
+        this.enrichmentTimer = Timer.builder("healer.enrichment")
+                .description("Batched MusicBrainz and Spotify lookups ahead of each slice")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Times one tier's lookup. A null result counts as a miss.
+     */
+    public <T> T time(String tier, Supplier<T> lookup) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = lookup.get();
+            outcome = result == null ? "miss" : "hit";
+            return result;
+        } finally {
+            Timer.builder("healer.tier")
+                    .tag("tier", tier)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T timeEnrichment(Supplier<T> stage) {
+        return enrichmentTimer.record(stage);
+    }
+
+    public void recordResult(String result) {
+        Counter.builder("healer.recordings")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    public void track(ThreadPoolExecutor workers) {
+        workerPools.add(workers);
+    }
+
+    public void untrack(ThreadPoolExecutor workers) {
+        workerPools.remove(workers);
+    }
+}
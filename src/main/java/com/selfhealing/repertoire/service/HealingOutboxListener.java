@@ -0,0 +1,34 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.model.Recording;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes recordings that a JPA save turned into new or edited orphans to
+ * the {@link HealingQueue}. Runs during the flush, so the outbox entry is
+ * written in the same transaction as the recording.
+ */
+@Component
+public class HealingOutboxListener {
+
+    private final ObjectProvider<HealingQueue> healingQueue;
+
+    public HealingOutboxListener(ObjectProvider<HealingQueue> healingQueue) {
+        this.healingQueue = healingQueue;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Recording recording) {
+        if (!recording.isHealInputsChanged()) {
+            return;
+        }
+        recording.setHealInputsChanged(false);
+        if (recording.getWork() == null) {
+            healingQueue.ifAvailable(queue -> queue.publish(recording.getId()));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.repository.HealingOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change feed for continuous healing ({@code healer.mode=continuous}).
+ *
+ * New and edited orphans are appended to the healing_outbox table inside the
+ * transaction that wrote them, and the continuous healer is woken once that
+ * transaction commits. The outbox is the record of pending work, so nothing
+ * published is lost on a restart; the in-process wakeup only cuts the
+ * latency. In scheduled mode publishing is a no-op.
+ */
+@Service
+@Slf4j
+public class HealingQueue implements MeterBinder {
+
+    public static final String MODE_CONTINUOUS = "continuous";
+
+    @Autowired
+    private HealingOutboxRepository outboxRepository;
+
+    @Value("${healer.mode:scheduled}")
+    private String mode;
+
+    // Holds at most one pending wakeup; the consumer drains everything each time it wakes
+    private final BlockingQueue<Boolean> wakeups = new ArrayBlockingQueue<>(1);
+    private final AtomicLong published = new AtomicLong();
+
+    public boolean isContinuous() {
+        return MODE_CONTINUOUS.equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Publishes a recording saved as a new or edited orphan.
+     */
+    public void publish(UUID recordingId) {
+        if (!isContinuous() || recordingId == null) {
+            return;
+        }
+        outboxRepository.append(recordingId);
+        published.incrementAndGet();
+        wakeAfterCommit();
+    }
+
+    /**
+     * Publishes the orphans made due by a bulk write stamped {@code writtenAt}.
+     */
+    public void publishWrittenAt(LocalDateTime writtenAt) {
+        if (!isContinuous()) {
+            return;
+        }
+        int appended = outboxRepository.appendWrittenAt(writtenAt);
+        if (appended > 0) {
+            published.addAndGet(appended);
+            wakeAfterCommit();
+        }
+    }
+
+    /**
+     * Waits until something was published or the timeout passes.
+     *
+     * @return true if woken by a publish
+     */
+    boolean awaitWork(Duration timeout) throws InterruptedException {
+        return wakeups.poll(timeout.toMillis(), TimeUnit.MILLISECONDS) != null;
+    }
+
+    void wake() {
+        wakeups.offer(Boolean.TRUE);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("healer.outbox.depth", outboxRepository, HealingOutboxRepository::count)
+                .description("Published recordings not yet claimed by a continuous healer")
+                .register(registry);
+        FunctionCounter.builder("healer.outbox.published", published, AtomicLong::get).register(registry);
+    }
+
+    private void wakeAfterCommit() {
+        // Woken before the commit, the healer would not see the outbox entry yet
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+}
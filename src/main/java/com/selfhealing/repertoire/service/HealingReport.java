@@ -1,20 +1,77 @@
 package com.selfhealing.repertoire.service;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import java.util.HashMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.ToString;
+
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@Data
-@NoArgsConstructor
+/**
+ * Outcome of a healing run. Updated concurrently by the healing workers.
+ */
+@ToString
 public class HealingReport {
-    private int totalOrphans;
-    private int healedByDirectMatch;
-    private int healedByFuzzyMatch;
-    private int remainingOrphans;
-    private Map<String, String> details = new HashMap<>();
+    private final AtomicInteger totalOrphans = new AtomicInteger();
+    private final AtomicInteger healedByDirectMatch = new AtomicInteger();
+    private final AtomicInteger healedByFuzzyMatch = new AtomicInteger();
+    private final AtomicInteger remainingOrphans = new AtomicInteger();
+    @ToString.Exclude
+    private final Map<String, String> details = new ConcurrentHashMap<>();
+    private final boolean keepDetails;
+
+    public HealingReport() {
+        this(true);
+    }
+
+    /**
+     * @param keepDetails false for open-ended runs (continuous healing), whose details would grow without bound
+     */
+    public HealingReport(boolean keepDetails) {
+        this.keepDetails = keepDetails;
+    }
+
+    public int getTotalOrphans() {
+        return totalOrphans.get();
+    }
+
+    public void incrementTotalOrphans() {
+        totalOrphans.incrementAndGet();
+    }
+
+    public int getHealedByDirectMatch() {
+        return healedByDirectMatch.get();
+    }
+
+    public void incrementHealedByDirectMatch() {
+        healedByDirectMatch.incrementAndGet();
+    }
+
+    public int getHealedByFuzzyMatch() {
+        return healedByFuzzyMatch.get();
+    }
+
+    public void incrementHealedByFuzzyMatch() {
+        healedByFuzzyMatch.incrementAndGet();
+    }
+
+    public int getRemainingOrphans() {
+        return remainingOrphans.get();
+    }
+
+    public void setRemainingOrphans(int remaining) {
+        remainingOrphans.set(remaining);
+    }
+
+    // Per-recording outcomes; kept out of job polling responses, which would grow with the run
+    @JsonIgnore
+    public Map<String, String> getDetails() {
+        return details;
+    }
 
     public void addDetail(String recording, String result) {
-        details.put(recording, result);
+        if (keepDetails && recording != null && result != null) {
+            details.put(recording, result);
+        }
     }
 }
@@ -0,0 +1,145 @@
+package com.selfhealing.repertoire.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle for a background job run by {@link JobService}. Serialized as the
+ * response of the job endpoints, so clients can poll status and progress.
+ */
+public class Job {
+
+    public enum Type {
+        HEAL, BATCH_IMPORT, WORK_IMPORT
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final Type type;
+    private final String description;
+    private final Object details;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final CompletableFuture<Job> completion = new CompletableFuture<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile Long total;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    Job(Type type, String description, Object details) {
+        this.type = type;
+        this.description = description;
+        this.details = details;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Job-specific progress, e.g. {@link BatchJobProgress} or {@link HealingReport}.
+     */
+    public Object getDetails() {
+        return details;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    // Expected number of items, or null when unknown up front
+    public Long getTotal() {
+        return total;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Items processed per second since the job started.
+     */
+    public double getThroughputPerSecond() {
+        LocalDateTime start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Duration.between(start, end).toMillis();
+        return millis <= 0 ? 0 : processed.get() * 1000.0 / millis;
+    }
+
+    /**
+     * Completes with this job once it has finished, whatever the outcome.
+     */
+    @JsonIgnore
+    public CompletableFuture<Job> getCompletion() {
+        return completion;
+    }
+
+    public void addProcessed(long items) {
+        processed.addAndGet(items);
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    void start() {
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+
+    void finish(Status status, String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = status;
+        completion.complete(this);
+    }
+}
@@ -0,0 +1,215 @@
+package com.selfhealing.repertoire.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs long-lived work (healing runs, batch imports) on a bounded pool and
+ * keeps a pollable {@link Job} handle for each submission. Jobs sharing a
+ * de-duplication key are not run twice: while one is queued or running, a
+ * new submission with the same key gets the existing handle back.
+ * Cancellation is cooperative; running tasks poll {@link Job#isCancelRequested()}.
+ * Jobs meant to run for the life of the application get a thread of their
+ * own ({@link #startDedicated}) rather than a slot of the pool.
+ */
+@Service
+@Slf4j
+public class JobService implements MeterBinder {
+
+    // Finished jobs stay queryable for this long
+    private static final long JOB_RETENTION_HOURS = 24;
+
+    private final ThreadPoolExecutor executor;
+    private final CustomizableThreadFactory dedicatedThreads = new CustomizableThreadFactory("job-dedicated-");
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> activeByKey = new HashMap<>();
+    private final Map<UUID, Runnable> queued = new ConcurrentHashMap<>();
+
+    public JobService(@Value("${jobs.workers:2}") int workers,
+            @Value("${jobs.queue-capacity:20}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Dedicated jobs stop at their next cancellation check; they must not hold up the JVM
+        dedicatedThreads.setDaemon(true);
+    }
+
+    @FunctionalInterface
+    public interface JobTask {
+        void run(Job job) throws Exception;
+    }
+
+    /**
+     * Queues a job, or returns the active job holding the same key.
+     *
+     * @param dedupeKey key identifying overlapping work, or null to always run
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public synchronized Job submit(Job.Type type, String dedupeKey, String description, Object details,
+            JobTask task) {
+        if (dedupeKey != null) {
+            Job active = activeByKey.get(dedupeKey);
+            if (active != null) {
+                log.info("Job {} already covers '{}', not starting another", active.getId(), description);
+                return active;
+            }
+        }
+        purgeFinished();
+
+        Job job = new Job(type, description, details);
+        Runnable runnable = () -> run(job, task, dedupeKey);
+        jobs.put(job.getId(), job);
+        queued.put(job.getId(), runnable);
+        if (dedupeKey != null) {
+            activeByKey.put(dedupeKey, job);
+        }
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            queued.remove(job.getId());
+            if (dedupeKey != null) {
+                activeByKey.remove(dedupeKey);
+            }
+            throw new RejectedExecutionException("Job queue is full, try again later", e);
+        }
+        log.info("Queued {} job {}: {}", type, job.getId(), description);
+        return job;
+    }
+
+    /**
+     * Starts a long-running job on a thread of its own, so it never takes one
+     * of the {@code jobs.workers} from imports and healing runs. Returns the
+     * active job holding the same key instead, if any; once that job has been
+     * cancelled or has stopped, calling this again starts a new one.
+     */
+    public synchronized Job startDedicated(Job.Type type, String dedupeKey, String description, Object details,
+            JobTask task) {
+        Job active = activeByKey.get(dedupeKey);
+        if (active != null) {
+            log.info("Job {} already covers '{}', not starting another", active.getId(), description);
+            return active;
+        }
+        purgeFinished();
+
+        Job job = new Job(type, description, details);
+        jobs.put(job.getId(), job);
+        activeByKey.put(dedupeKey, job);
+        dedicatedThreads.newThread(() -> run(job, task, dedupeKey)).start();
+        log.info("Started {} job {} on a dedicated thread: {}", type, job.getId(), description);
+        return job;
+    }
+
+    public Optional<Job> getJob(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<Job> getJobs() {
+        List<Job> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(Job::getCreatedAt).reversed());
+        return result;
+    }
+
+    /**
+     * Cancels a queued job straight away; a running job stops at its next
+     * cancellation check.
+     *
+     * @return the job, or empty if unknown
+     */
+    public Optional<Job> cancel(UUID id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.requestCancel();
+        // A new submission must not be folded into a job that is stopping
+        release(job);
+        Runnable runnable = queued.remove(id);
+        if (runnable != null && executor.remove(runnable)) {
+            job.finish(Job.Status.CANCELLED, null);
+            log.info("Cancelled queued job {}", id);
+        } else if (!job.getStatus().isFinished()) {
+            log.info("Cancellation requested for running job {}", id);
+        }
+        return Optional.of(job);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jobs.queue.depth", this, JobService::getQueueDepth)
+                .description("Jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("jobs.active", this, JobService::getActiveCount).register(registry);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::requestCancel);
+        executor.shutdown();
+    }
+
+    private void run(Job job, JobTask task, String dedupeKey) {
+        queued.remove(job.getId());
+        if (job.isCancelRequested()) {
+            release(job);
+            job.finish(Job.Status.CANCELLED, null);
+            return;
+        }
+        job.start();
+        Job.Status outcome = Job.Status.COMPLETED;
+        String error = null;
+        try {
+            task.run(job);
+            if (job.isCancelRequested()) {
+                outcome = Job.Status.CANCELLED;
+            }
+        } catch (Exception e) {
+            log.error("Job {} failed: {}", job.getId(), e.getMessage(), e);
+            outcome = Job.Status.FAILED;
+            error = e.getMessage();
+        } finally {
+            release(job);
+            job.finish(outcome, error);
+            log.info("Job {} finished: {} ({} items, {}/s)", job.getId(), outcome, job.getProcessed(),
+                    String.format("%.1f", job.getThroughputPerSecond()));
+        }
+    }
+
+    private synchronized void release(Job job) {
+        activeByKey.values().remove(job);
+    }
+
+    // Caller must hold the monitor
+    private void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,185 @@
+package com.selfhealing.repertoire.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tier 4 scoring of an orphan recording against shortlisted Works.
+ *
+ * The score is a weighted mean of Jaro-Winkler title similarity, artist
+ * similarity and duration proximity, all on normalized values. Signals one
+ * side doesn't have are left out and the remaining weights rescaled, so a
+ * Work without linked recordings is judged on its title alone.
+ *
+ * Cheap signals are scored first. A candidate is dropped before its title is
+ * compared once an upper bound on its score can no longer beat the best so
+ * far or reach the threshold, and the scan stops at a perfect score.
+ */
+@Component
+public class MatchScorer {
+
+    private final JaroWinklerSimilarity jaroWinkler = new JaroWinklerSimilarity();
+
+    @Autowired
+    private TextNormalizer normalizer;
+
+    @Value("${matching.weight.title:0.7}")
+    private double titleWeight = 0.7;
+
+    @Value("${matching.weight.artist:0.2}")
+    private double artistWeight = 0.2;
+
+    @Value("${matching.weight.duration:0.1}")
+    private double durationWeight = 0.1;
+
+    // Durations this close count as equal; proximity falls to 0 over the following tolerance
+    @Value("${matching.duration-slack-ms:2000}")
+    private int durationSlackMs = 2000;
+
+    @Value("${matching.duration-tolerance-ms:15000}")
+    private int durationToleranceMs = 15000;
+
+    public MatchScorer() {
+    }
+
+    MatchScorer(TextNormalizer normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * A dominant title weight keeps the minimum title score derived in
+     * {@link #titleThreshold} high enough for the candidate index to prune.
+     */
+    @PostConstruct
+    void validateWeights() {
+        if (titleWeight < 0.6 || artistWeight < 0 || durationWeight < 0) {
+            throw new IllegalStateException("matching.weight.title must be at least 0.6 and the others non-negative");
+        }
+    }
+
+    /**
+     * Normalizes the recording's fields once for scoring many candidates.
+     */
+    public Query query(String title, String artist, Integer durationMs) {
+        return new Query(normalizer.title(title), normalizer.artist(artist),
+                durationMs == null || durationMs <= 0 ? null : durationMs);
+    }
+
+    /**
+     * Lowest title similarity with which any candidate could still reach
+     * {@code threshold} for this query: every other signal the query has at
+     * its maximum.
+     */
+    public double titleThreshold(Query query, double threshold) {
+        double others = (query.artist != null ? artistWeight : 0) + (query.durationMs != null ? durationWeight : 0);
+        return Math.max(0, (threshold * (titleWeight + others) - others) / titleWeight);
+    }
+
+    /**
+     * Best candidate scoring at least {@code threshold}; on equal scores the
+     * earlier candidate wins. Null if none qualifies.
+     */
+    public Match bestMatch(Query query, List<WorkCandidateIndex.Candidate> candidates, double threshold) {
+        if (query.title == null) {
+            return null;
+        }
+        Match best = null;
+        for (WorkCandidateIndex.Candidate candidate : candidates) {
+            double weights = titleWeight;
+            double partial = 0;
+            if (query.artist != null && candidate.getArtist() != null) {
+                weights += artistWeight;
+                partial += artistWeight * jaroWinkler.apply(query.artist, candidate.getArtist());
+            }
+            if (query.durationMs != null && candidate.getDurationMs() != null) {
+                weights += durationWeight;
+                partial += durationWeight * durationProximity(query.durationMs, candidate.getDurationMs());
+            }
+
+            // Abandon the candidate while its title could still only tie or miss
+            double needed = best == null ? threshold : Math.max(threshold, best.score);
+            double bound = (partial + titleWeight * titleUpperBound(query.title, candidate.getTitle())) / weights
+                    + 1e-12;
+            if (bound < needed || (best != null && bound <= best.score)) {
+                continue;
+            }
+
+            double score = Math.min(1.0,
+                    (partial + titleWeight * jaroWinkler.apply(query.title, candidate.getTitle())) / weights);
+            if (score >= threshold && (best == null || score > best.score)) {
+                best = new Match(candidate.getWorkId(), score);
+                if (score >= 1.0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Full score of one pair, without any pruning.
+     */
+    public double score(Query query, WorkCandidateIndex.Candidate candidate) {
+        if (query.title == null) {
+            return 0;
+        }
+        double weights = titleWeight;
+        double partial = 0;
+        if (query.artist != null && candidate.getArtist() != null) {
+            weights += artistWeight;
+            partial += artistWeight * jaroWinkler.apply(query.artist, candidate.getArtist());
+        }
+        if (query.durationMs != null && candidate.getDurationMs() != null) {
+            weights += durationWeight;
+            partial += durationWeight * durationProximity(query.durationMs, candidate.getDurationMs());
+        }
+        // Rescaled weights can round a perfect score to just above 1
+        return Math.min(1.0, (partial + titleWeight * jaroWinkler.apply(query.title, candidate.getTitle())) / weights);
+    }
+
+    double durationProximity(int a, int b) {
+        int excess = Math.abs(a - b) - durationSlackMs;
+        if (excess <= 0) {
+            return 1.0;
+        }
+        return Math.max(0, 1.0 - (double) excess / durationToleranceMs);
+    }
+
+    /**
+     * Jaro-Winkler from lengths alone: at most min(a, b) characters can match,
+     * and the Winkler boost adds at most 0.4 * (1 - jaro).
+     */
+    static double titleUpperBound(String a, String b) {
+        int shorter = Math.min(a.length(), b.length());
+        if (shorter == 0) {
+            return a.length() == b.length() ? 1.0 : 0.0;
+        }
+        double jaro = ((double) shorter / a.length() + (double) shorter / b.length() + 1) / 3;
+        return jaro < 0.7 ? jaro : jaro + 0.4 * (1 - jaro);
+    }
+
+    @lombok.Value
+    public static class Query {
+        // Normalized; null fields are left out of the score
+        String title;
+        String artist;
+        Integer durationMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Match {
+        private UUID workId;
+        private double score;
+    }
+}
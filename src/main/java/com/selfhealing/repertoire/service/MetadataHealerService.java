@@ -1,20 +1,42 @@
 package com.selfhealing.repertoire.service;
 
-import com.selfhealing.repertoire.client.MusicBrainzClient;
+import com.selfhealing.repertoire.client.CachingLookupClient;
+import com.selfhealing.repertoire.client.SpotifyClient;
+import com.selfhealing.repertoire.client.UpstreamLookupException;
+import com.selfhealing.repertoire.client.UpstreamResponseException;
 import com.selfhealing.repertoire.model.Recording;
 import com.selfhealing.repertoire.model.Work;
+import com.selfhealing.repertoire.repository.HealingOutboxRepository;
+import com.selfhealing.repertoire.repository.RecordingClaimRepository;
 import com.selfhealing.repertoire.repository.RecordingRepository;
 import com.selfhealing.repertoire.repository.WorkRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.text.similarity.JaroWinklerSimilarity;
 import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -27,10 +49,45 @@ public class MetadataHealerService {
     private WorkRepository workRepository;
 
     @Autowired
-    private MusicBrainzClient musicBrainzClient;
+    private CachingLookupClient lookupClient;
 
     @Autowired
-    private com.selfhealing.repertoire.client.SpotifyClient spotifyClient;
+    private SpotifyEnrichmentStage enrichmentStage;
+
+    @Autowired
+    private WorkCandidateIndex workCandidateIndex;
+
+    @Autowired
+    private WorkSearchIndex workSearchIndex;
+
+    @Autowired
+    private MatchScorer matchScorer;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private RecordingStatsService statsService;
+
+    @Autowired
+    private RecordingClaimRepository claimRepository;
+
+    @Autowired
+    private HealingMetrics metrics;
+
+    @Autowired
+    private HealingQueue healingQueue;
+
+    @Autowired
+    private HealingOutboxRepository outboxRepository;
+
+    // De-duplication key shared by every full-catalogue run
+    private static final String FULL_RUN_KEY = "heal:all";
+
+    private static final String CONTINUOUS_KEY = "heal:continuous";
+
+    // Recordings currently being healed by any run
+    private final Set<java.util.UUID> inFlight = ConcurrentHashMap.newKeySet();
 
     private final JaroWinklerSimilarity jaroWinkler = new JaroWinklerSimilarity();
     private final LevenshteinDistance levenshtein = new LevenshteinDistance();
@@ -38,136 +95,433 @@ public class MetadataHealerService {
     // Threshold for fuzzy matching (0.0 to 1.0)
     private static final double MATCH_THRESHOLD = 0.9;
 
+    @Value("${healer.workers:4}")
+    private int workerCount;
+
+    @Value("${healer.queue-capacity:200}")
+    private int queueCapacity;
+
+    // Orphans leased per claim; the lease must outlast healing one chunk
+    @Value("${healer.claim-size:100}")
+    private int claimSize;
+
+    @Value("${healer.claim-lease:30m}")
+    private Duration claimLease;
+
+    // An orphan that found no match is retried after this delay, doubling per attempt up to the max
+    @Value("${healer.backoff.initial:1h}")
+    private Duration initialBackoff;
+
+    @Value("${healer.backoff.max:30d}")
+    private Duration maxBackoff;
+
+    // Continuous mode: how long an idle healer sleeps before checking for due orphans again
+    @Value("${healer.continuous.poll-interval:10s}")
+    private Duration pollInterval;
+
+    // Identifies this instance in recording leases; defaults to pid@host
+    @Value("${healer.node-id:}")
+    private String nodeId;
+
+    @PostConstruct
+    void resolveNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        if (nodeId.length() > 64) {
+            nodeId = nodeId.substring(0, 64);
+        }
+        log.info("Healing node id: {}", nodeId);
+    }
+
     /**
-     * Run this process based on configuration, defaults to 1 hour.
+     * Run this process based on configuration, defaults to 1 hour. In
+     * continuous mode the continuous healer covers it.
      */
     @Scheduled(fixedRateString = "${healer.rate:3600000}")
-    public HealingReport performHealing() {
-        return performHealing(null);
+    public void scheduledHealing() {
+        if (healingQueue.isContinuous()) {
+            return;
+        }
+        try {
+            startHealing(null);
+        } catch (RejectedExecutionException e) {
+            log.warn("Skipping scheduled healing run: {}", e.getMessage());
+        }
     }
 
-    public HealingReport performHealing(List<java.util.UUID> selectedIds) {
-        log.info("Starting metadata healing process...");
-        List<Recording> recordingsToHeal;
+    /**
+     * Queues a healing run over all orphans (null or empty ids) or over the
+     * selected recordings. An identical run that is still queued or running
+     * is returned instead of starting a second one.
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public Job startHealing(List<java.util.UUID> selectedIds) {
+        List<java.util.UUID> ids = selectedIds == null ? List.of()
+                : selectedIds.stream().distinct().sorted().collect(Collectors.toList());
+        String dedupeKey = ids.isEmpty() ? FULL_RUN_KEY
+                : "heal:" + ids.stream().map(java.util.UUID::toString).collect(Collectors.joining(","));
+        String description = ids.isEmpty() ? "Heal all orphans" : "Heal " + ids.size() + " selected recordings";
+        HealingReport report = new HealingReport();
+        return jobService.submit(Job.Type.HEAL, dedupeKey, description, report,
+                job -> performHealing(ids, report, job));
+    }
 
-        if (selectedIds != null && !selectedIds.isEmpty()) {
-            recordingsToHeal = recordingRepository.findAllById(selectedIds);
-            log.info("Healing {} selected recordings.", recordingsToHeal.size());
-        } else {
-            recordingsToHeal = recordingRepository.findByWorkIsNull();
-            log.info("Healing {} orphaned recordings.", recordingsToHeal.size());
+    /**
+     * In continuous mode, starts the long-running healing job that drains the
+     * healing outbox.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startContinuousHealing() {
+        if (healingQueue.isContinuous()) {
+            restartContinuousHealing();
         }
+    }
 
-        log.info("Found {} recordings to heal.", recordingsToHeal.size());
+    /**
+     * Starts the continuous healing job on its own thread, e.g. again after it
+     * was cancelled or failed. The running job is returned if there is one.
+     *
+     * @throws IllegalStateException if healer.mode is not continuous
+     */
+    public Job restartContinuousHealing() {
+        if (!healingQueue.isContinuous()) {
+            throw new IllegalStateException("Continuous healing needs healer.mode=continuous");
+        }
+        HealingReport report = new HealingReport(false);
+        Job job = jobService.startDedicated(Job.Type.HEAL, CONTINUOUS_KEY, "Continuous healing", report,
+                running -> healContinuously(report, running));
+        log.info("Continuous healing running as job {}", job.getId());
+        return job;
+    }
 
-        HealingReport report = new HealingReport();
-        report.setTotalOrphans(recordingsToHeal.size());
+    /**
+     * Heals recordings as they are published, until the job is cancelled.
+     * Published changes go first; in between, orphans whose backoff has run
+     * out are claimed the same way a full run would, off the next_heal_at
+     * index. With nothing to do the loop sleeps until the next publish or
+     * {@code healer.continuous.poll-interval}.
+     */
+    void healContinuously(HealingReport report, Job job) throws InterruptedException {
+        ThreadPoolExecutor workers = newWorkerPool();
+        metrics.track(workers);
+        try {
+            while (!job.isCancelRequested()) {
+                List<java.util.UUID> published = outboxRepository.take(claimSize);
+                // Published recordings may have been healed or re-published since; only due ones are claimed
+                List<java.util.UUID> claimed = published.isEmpty()
+                        ? claimRepository.claimDue(nodeId, claimSize, claimLease)
+                        : claimRepository.claimDueAmong(nodeId, new LinkedHashSet<>(published), claimLease);
+                if (!claimed.isEmpty()) {
+                    submitAll(workers, recordingRepository.findAllById(claimed), report, job);
+                } else if (published.isEmpty()) {
+                    healingQueue.awaitWork(pollInterval);
+                }
+            }
+        } finally {
+            workers.shutdown();
+            awaitWorkers(workers);
+            metrics.untrack(workers);
+        }
+        log.info("Continuous healing stopped. Stats: {}", report);
+    }
 
-        for (Recording recording : recordingsToHeal) {
-            String result = healRecording(recording, report);
-            report.addDetail(recording.getRecordingTitle(), result);
+    HealingReport performHealing(List<java.util.UUID> selectedIds, HealingReport report, Job job) {
+        log.info("Starting metadata healing process...");
+        ThreadPoolExecutor workers = newWorkerPool();
+        metrics.track(workers);
+
+        try {
+            if (!selectedIds.isEmpty()) {
+                // Recordings leased by another node are being healed there
+                List<java.util.UUID> claimed = claimRepository.claimSelected(nodeId, selectedIds, claimLease);
+                List<Recording> selected = recordingRepository.findAllById(claimed);
+                log.info("Healing {} selected recordings ({} held by other nodes).", selected.size(),
+                        selectedIds.size() - claimed.size());
+                job.setTotal((long) selected.size());
+                submitAll(workers, selected, report, job);
+            } else {
+                int backfilled = claimRepository.backfillHealState();
+                if (backfilled > 0) {
+                    log.info("Scheduled {} recordings without healing state", backfilled);
+                }
+                long due = claimRepository.countDue();
+                log.info("Healing {} new, edited or due orphans of {}", due, statsService.getStats().getOrphanedCount());
+                // Other nodes claim chunks of the same due set, so the total grows with this node's claims
+                long total = 0;
+                job.setTotal(total);
+                // Lease due orphans a chunk at a time; other nodes claim the chunks in between.
+                // Attempted rows leave the due set (linked, or pushed back by their backoff) and
+                // the rest stay leased, so claiming repeats until nothing is left.
+                List<java.util.UUID> claimed;
+                Set<java.util.UUID> previous = Set.of();
+                while (!job.isCancelRequested()
+                        && !(claimed = claimRepository.claimDue(nodeId, claimSize, claimLease)).isEmpty()) {
+                    if (previous.containsAll(claimed)) {
+                        // Nothing left but rows whose outcome could not be saved; don't spin on them
+                        log.warn("Stopping healing run: {} claimed orphans are still due after being attempted",
+                                claimed.size());
+                        claimRepository.release(nodeId, claimed);
+                        break;
+                    }
+                    previous = new java.util.HashSet<>(claimed);
+                    total += claimed.size();
+                    job.setTotal(total);
+                    submitAll(workers, recordingRepository.findAllById(claimed), report, job);
+                }
+            }
+        } finally {
+            workers.shutdown();
+            awaitWorkers(workers);
+            metrics.untrack(workers);
         }
 
         report.setRemainingOrphans(
                 report.getTotalOrphans() - (report.getHealedByDirectMatch() + report.getHealedByFuzzyMatch()));
-        log.info("Metadata healing process completed. Stats: {}", report);
+        log.info("Metadata healing process {}. Stats: {}", job.isCancelRequested() ? "cancelled" : "completed",
+                report);
         return report;
     }
 
+    private void submitAll(ThreadPoolExecutor workers, List<Recording> recordings, HealingReport report, Job job) {
+        for (int from = 0; from < recordings.size(); from += claimSize) {
+            List<Recording> slice = recordings.subList(from, Math.min(recordings.size(), from + claimSize));
+            if (job.isCancelRequested()) {
+                releaseAll(recordings.subList(from, recordings.size()));
+                return;
+            }
+            // Resolve the slice's ISRCs with multi-ISRC queries so Tier 1 is answered from the cache,
+            // and enrich the unresolved ones from Spotify. Workers keep draining the previous slice
+            // from the queue meanwhile.
+            Map<String, SpotifyClient.SpotifyMetadata> enrichment = metrics.timeEnrichment(
+                    () -> enrichmentStage.prepare(slice).join());
+            submitSlice(workers, slice, report, job, enrichment);
+        }
+    }
+
+    private void submitSlice(ThreadPoolExecutor workers, List<Recording> recordings, HealingReport report, Job job,
+            Map<String, SpotifyClient.SpotifyMetadata> enrichment) {
+        for (int i = 0; i < recordings.size(); i++) {
+            if (job.isCancelRequested()) {
+                releaseAll(recordings.subList(i, recordings.size()));
+                return;
+            }
+            Recording recording = recordings.get(i);
+            report.incrementTotalOrphans();
+            workers.execute(() -> healClaimed(recording, report, job,
+                    enrichment.get(CachingLookupClient.normalizeIsrc(recording.getIsrc()))));
+        }
+    }
+
+    /**
+     * Worker task for one leased recording. The lease is dropped once the
+     * outcome is saved, or straight away if the run was cancelled before the
+     * task started.
+     */
+    private void healClaimed(Recording recording, HealingReport report, Job job,
+            SpotifyClient.SpotifyMetadata enriched) {
+        // Queued tasks of a cancelled run drain without doing work
+        if (job.isCancelRequested()) {
+            claimRepository.release(nodeId, recording.getId());
+            return;
+        }
+        // Overlapping runs (e.g. a selection inside a full run) skip rows another worker holds. Both runs hold
+        // the same lease (same node, same row), and that worker drops it once it is done.
+        if (!inFlight.add(recording.getId())) {
+            report.addDetail(recording.getRecordingTitle(), "Skipped: already being healed");
+            job.addProcessed(1);
+            return;
+        }
+        boolean saved = false;
+        try {
+            String result = healRecording(recording, report, enriched);
+            report.addDetail(recording.getRecordingTitle(), result);
+            saved = true;
+        } catch (RuntimeException e) {
+            // healRecording saves failures itself, so this one could not even save that (e.g. database trouble)
+            log.error("Could not save the healing outcome of recording {}: {}", recording.getIsrc(), e.getMessage());
+            report.addDetail(recording.getRecordingTitle(), "Error: " + e.getMessage());
+        } finally {
+            inFlight.remove(recording.getId());
+            job.addProcessed(1);
+            if (saved) {
+                // The outcome is saved, so the row is linked or out of the due set
+                claimRepository.release(nodeId, recording.getId());
+            } else {
+                postpone(recording);
+            }
+        }
+    }
+
+    /**
+     * Pushes back a recording whose outcome could not be saved and drops the
+     * lease. If that fails too, the lease is kept: the row then stays out of
+     * every node's claims until the lease lapses.
+     */
+    private void postpone(Recording recording) {
+        try {
+            claimRepository.postpone(nodeId, recording.getId(), java.time.LocalDateTime.now().plus(initialBackoff));
+        } catch (RuntimeException e) {
+            log.warn("Keeping the lease on recording {} until it lapses: {}", recording.getIsrc(), e.getMessage());
+        }
+    }
+
+    // Claimed recordings the run will not attempt after all, e.g. after a cancel
+    private void releaseAll(List<Recording> recordings) {
+        if (!recordings.isEmpty()) {
+            claimRepository.release(nodeId, recordings.stream().map(Recording::getId).toList());
+        }
+    }
+
+    /**
+     * Fixed pool of healing workers behind a bounded queue. When the queue is
+     * full the producer blocks instead of loading more recordings.
+     */
+    private ThreadPoolExecutor newWorkerPool() {
+        return new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("healer-worker-"),
+                (task, executor) -> {
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while queueing healing task", e);
+                    }
+                });
+    }
+
+    private void awaitWorkers(ThreadPoolExecutor workers) {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Healing in progress: {} queued, {} active, {} completed",
+                        workers.getQueue().size(), workers.getActiveCount(), workers.getCompletedTaskCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
     /**
      * Heal a specific recording immediately (for single repair requests)
      */
     @Transactional
     public String healSpecificRecording(Recording recording) {
         HealingReport report = new HealingReport();
-        return healRecording(recording, report);
+        return healRecording(recording, report, null);
     }
 
+    /**
+     * @param enriched Spotify metadata prepared by {@link SpotifyEnrichmentStage}
+     *                 for batch runs; null to look it up here if needed
+     */
     @Transactional
-    protected String healRecording(Recording recording, HealingReport report) {
+    protected String healRecording(Recording recording, HealingReport report,
+            SpotifyClient.SpotifyMetadata enriched) {
+        int previousAttempts = recording.getHealAttempts() == null ? 0 : recording.getHealAttempts();
         try {
             // Update status to indicate processing
             recording.setStatus("HEALING");
             recordingRepository.saveAndFlush(recording); // Commit immediately so UI sees it
 
             // Step 1: MusicBrainz (Primary - High Confidence ISRC to ISWC)
-            String iswc = musicBrainzClient.findIswcByIsrc(recording.getIsrc());
+            String iswc = metrics.time(HealingMetrics.TIER_MUSICBRAINZ_ISRC,
+                    () -> lookupClient.findIswcByIsrc(recording.getIsrc()));
 
             if (iswc != null) {
+                recordAttempt(recording, previousAttempts, Duration.ZERO);
                 return linkOrCreateWork(recording, iswc, "MusicBrainz ID Match", report);
             }
 
-            // Step 2: Fallback to Spotify to enrich metadata for a better fuzzy match
-            /*
-             * USER REQUEST: Hold on Spotify fetching for now.
-             * log.
-             * info("MusicBrainz ISRC lookup failed for {}. Falling back to Spotify enrichment."
-             * , recording.getIsrc());
-             * com.selfhealing.repertoire.client.SpotifyClient.SpotifyMetadata enrichedData
-             * = spotifyClient
-             * .getMetadataByIsrc(recording.getIsrc());
-             * 
-             * if (enrichedData != null) {
-             * updateRecordingMetadata(recording, enrichedData);
-             * 
-             * // Step 3: Use enriched metadata for a high-accuracy Title Search on
-             * MusicBrainz
-             * // (Deep Search)
-             * log.
-             * info("Performing Deep Search on MusicBrainz using enriched metadata: {} by {}"
-             * ,
-             * enrichedData.getTitle(), enrichedData.getArtist());
-             * iswc = musicBrainzClient.findIswcByTitleAndArtist(enrichedData.getTitle(),
-             * enrichedData.getArtist());
-             * 
-             * if (iswc != null) {
-             * return linkOrCreateWork(recording, iswc,
-             * "MusicBrainz Deep Search (via Spotify Enrichment)", report);
-             * }
-             * }
-             */
-
-            // Step 3 (Modified): Deep Search on MusicBrainz using ORIGINAL metadata (since
-            // Spotify is skipped)
-            if (recording.getRecordingTitle() != null && !recording.getRecordingTitle().isEmpty()) {
-                log.info("Performing Deep Search on MusicBrainz using ORIGINAL metadata: {} by {}",
+            // Step 2: Spotify metadata for a better deep search, fetched ahead by the enrichment stage
+            if (enriched == null) {
+                enriched = metrics.time(HealingMetrics.TIER_SPOTIFY_ENRICHMENT, () -> enrichmentStage.lookup(recording));
+            }
+            if (enriched != null && enriched.getTitle() != null) {
+                updateRecordingMetadata(recording, enriched);
+
+                // Step 3: Use enriched metadata for a high-accuracy Title Search on MusicBrainz (Deep Search)
+                log.debug("Performing Deep Search on MusicBrainz using enriched metadata: {} by {}",
+                        enriched.getTitle(), enriched.getArtist());
+                SpotifyClient.SpotifyMetadata metadata = enriched;
+                iswc = metrics.time(HealingMetrics.TIER_DEEP_SEARCH_ENRICHED,
+                        () -> lookupClient.findIswcByTitleAndArtist(metadata.getTitle(), metadata.getArtist()));
+
+                if (iswc != null) {
+                    recordAttempt(recording, previousAttempts, Duration.ZERO);
+                    return linkOrCreateWork(recording, iswc, "MusicBrainz Deep Search (via Spotify Enrichment)",
+                            report);
+                }
+            }
+
+            // Step 3b: Deep Search on MusicBrainz using the ORIGINAL metadata, unless that's what was just tried
+            if (recording.getRecordingTitle() != null && !recording.getRecordingTitle().isEmpty()
+                    && !sameSearch(recording, enriched)) {
+                log.debug("Performing Deep Search on MusicBrainz using ORIGINAL metadata: {} by {}",
                         recording.getRecordingTitle(), recording.getArtistName());
-                iswc = musicBrainzClient.findIswcByTitleAndArtist(recording.getRecordingTitle(),
-                        recording.getArtistName());
+                iswc = metrics.time(HealingMetrics.TIER_DEEP_SEARCH_ORIGINAL,
+                        () -> lookupClient.findIswcByTitleAndArtist(recording.getRecordingTitle(),
+                                recording.getArtistName()));
 
                 if (iswc != null) {
+                    recordAttempt(recording, previousAttempts, Duration.ZERO);
                     return linkOrCreateWork(recording, iswc, "MusicBrainz Deep Search (Original Metadata)", report);
                 }
             }
 
             // Tier 4: Local Fuzzy Metadata Match (Last Resort)
-            List<Work> allWorks = workRepository.findAll();
-            Work bestMatch = null;
-            double highestScore = 0.0;
+            // Title, artist and duration are scored on normalized values; only Works whose
+            // title can still reach the threshold are shortlisted
+            MatchScorer.Query query = matchScorer.query(recording.getRecordingTitle(), recording.getArtistName(),
+                    recording.getDurationMs());
+            MatchScorer.Match match = query.getTitle() == null ? null
+                    : metrics.time(HealingMetrics.TIER_LOCAL_FUZZY,
+                            () -> matchScorer.bestMatch(query, workCandidateIndex.shortlist(query.getTitle(),
+                                    matchScorer.titleThreshold(query, MATCH_THRESHOLD)), MATCH_THRESHOLD));
 
-            for (Work work : allWorks) {
-                double score = calculateSimilarity(recording.getRecordingTitle(), work.getTitle());
-                if (score > highestScore) {
-                    highestScore = score;
-                    bestMatch = work;
-                }
+            Work bestMatch = null;
+            double highestScore = match == null ? 0.0 : match.getScore();
+            if (match != null) {
+                bestMatch = workRepository.findById(match.getWorkId()).orElse(null);
             }
 
-            if (bestMatch != null && highestScore >= MATCH_THRESHOLD) {
+            if (bestMatch != null) {
+                recordAttempt(recording, previousAttempts, Duration.ZERO);
                 linkToWork(recording, bestMatch, "Local Fuzzy Match (Score: " + highestScore + ")");
-                report.setHealedByFuzzyMatch(report.getHealedByFuzzyMatch() + 1);
+                report.incrementHealedByFuzzyMatch();
+                metrics.recordResult("healed_fuzzy");
                 recording.setStatus("HEALED");
                 recordingRepository.save(recording);
                 return "Healed via Local Fuzzy Match (" + String.format("%.2f", highestScore) + ")";
             } else {
-                log.warn("Deep search failed for ISRC: {}", recording.getIsrc());
+                // Counted in healer.recordings; one line per orphan would flood large runs
+                log.debug("Deep search failed for ISRC: {}", recording.getIsrc());
+                metrics.recordResult("orphaned");
+                recordAttempt(recording, previousAttempts, backoff(previousAttempts + 1));
                 recording.setStatus("ORPHANED");
                 recordingRepository.save(recording);
                 return "No match found";
             }
 
+        } catch (UpstreamLookupException e) {
+            log.error("Upstream lookup failed healing recording {}: {}", recording.getIsrc(), e.getMessage());
+            metrics.recordResult("error");
+            if (e instanceof UpstreamResponseException) {
+                // The upstream answered, just not readably; asking again soon would get the same answer
+                recordAttempt(recording, previousAttempts, backoff(previousAttempts + 1));
+            } else {
+                // Upstream trouble says nothing about the recording; retry after the initial delay
+                recordInterruptedAttempt(recording, previousAttempts);
+            }
+            recording.setStatus("ERROR");
+            recording.setDiscoverySource("Connection Interrupted");
+            recordingRepository.save(recording);
+            return "Connection Interrupted";
         } catch (Exception e) {
             log.error("Error healing recording {}: {}", recording.getIsrc(), e.getMessage());
+            metrics.recordResult("error");
+            recordAttempt(recording, previousAttempts, initialBackoff);
             recording.setStatus("ERROR");
             recording.setDiscoverySource("Connection Interrupted");
             recordingRepository.save(recording);
@@ -176,11 +530,17 @@ public class MetadataHealerService {
     }
 
     private String linkOrCreateWork(Recording recording, String iswc, String method, HealingReport report) {
+        String result = linkOrCreateWorkByIswc(recording, iswc, method, report);
+        metrics.recordResult("healed_direct");
+        return result;
+    }
+
+    private String linkOrCreateWorkByIswc(Recording recording, String iswc, String method, HealingReport report) {
         Optional<Work> workOpt = workRepository.findByIswc(iswc);
 
         if (workOpt.isPresent()) {
             linkToWork(recording, workOpt.get(), method);
-            report.setHealedByDirectMatch(report.getHealedByDirectMatch() + 1);
+            report.incrementHealedByDirectMatch();
             recording.setStatus("HEALED");
             recordingRepository.save(recording);
             return "Healed via " + method;
@@ -190,10 +550,24 @@ public class MetadataHealerService {
             newWork.setIswc(iswc);
             newWork.setTitle(recording.getRecordingTitle());
             newWork.setWorkType("Original");
-            newWork = workRepository.save(newWork);
+            try {
+                newWork = workRepository.save(newWork);
+                workCandidateIndex.add(newWork);
+            } catch (DataIntegrityViolationException e) {
+                // Another worker discovered the same ISWC first
+                Optional<Work> existing = workRepository.findByIswc(iswc);
+                if (existing.isEmpty()) {
+                    throw e;
+                }
+                linkToWork(recording, existing.get(), method);
+                report.incrementHealedByDirectMatch();
+                recording.setStatus("HEALED");
+                recordingRepository.save(recording);
+                return "Healed via " + method;
+            }
 
             linkToWork(recording, newWork, "Discovered via " + method);
-            report.setHealedByDirectMatch(report.getHealedByDirectMatch() + 1);
+            report.incrementHealedByDirectMatch();
             log.info("✨ DISCOVERY: Created new Work '{}' with ISWC {} from {}",
                     newWork.getTitle(), iswc, method);
 
@@ -205,8 +579,8 @@ public class MetadataHealerService {
     }
 
     private void updateRecordingMetadata(Recording recording,
-            com.selfhealing.repertoire.client.SpotifyClient.SpotifyMetadata enrichedData) {
-        log.info("Updating local metadata for {} using Spotify enrichment", recording.getIsrc());
+            SpotifyClient.SpotifyMetadata enrichedData) {
+        log.debug("Updating local metadata for {} using Spotify enrichment", recording.getIsrc());
         boolean changed = false;
         if (recording.getRecordingTitle() == null || recording.getRecordingTitle().isEmpty()) {
             recording.setRecordingTitle(enrichedData.getTitle());
@@ -222,19 +596,70 @@ public class MetadataHealerService {
         }
         if (changed) {
             recording.setDiscoverySource("Spotify Metadata Enrichment");
+            // Filled in by healing itself, so not an edit that resets the backoff
+            recording.setHealInputHash(recording.currentHealInputHash());
             recordingRepository.save(recording);
         }
     }
 
+    /**
+     * Stamps this attempt on the recording; saved with the outcome.
+     *
+     * @param retryAfter delay before the recording is due again if it stays an orphan
+     */
+    private void recordAttempt(Recording recording, int previousAttempts, Duration retryAfter) {
+        stampAttempt(recording, previousAttempts + 1, retryAfter);
+    }
+
+    /**
+     * Like {@link #recordAttempt}, for an attempt an upstream failure cut
+     * short: it is not counted, so outages don't grow the backoff.
+     */
+    private void recordInterruptedAttempt(Recording recording, int previousAttempts) {
+        stampAttempt(recording, previousAttempts, initialBackoff);
+    }
+
+    private void stampAttempt(Recording recording, int attempts, Duration retryAfter) {
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        recording.setHealAttempts(attempts);
+        recording.setLastHealAttemptAt(now);
+        recording.setHealInputHash(recording.currentHealInputHash());
+        recording.setNextHealAt(now.plus(retryAfter));
+    }
+
+    /**
+     * Delay after the given (1-based) unsuccessful attempt.
+     */
+    Duration backoff(int attempt) {
+        int doublings = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static boolean sameSearch(Recording recording, SpotifyClient.SpotifyMetadata enriched) {
+        return enriched != null && enriched.getTitle() != null
+                && enriched.getTitle().equalsIgnoreCase(recording.getRecordingTitle())
+                && java.util.Objects.equals(enriched.getArtist(), recording.getArtistName());
+    }
+
     private void linkToWork(Recording recording, Work work, String method) {
+        workCandidateIndex.recordLink(work.getId(), recording.getArtistName(), recording.getDurationMs());
+        Work previous = recording.getWork();
+        if (previous == null || !work.getId().equals(previous.getId())) {
+            // Re-healing a linked recording moves its link count along with it
+            workSearchIndex.recordLink(work.getId());
+            if (previous != null) {
+                workSearchIndex.recordUnlink(previous.getId());
+            }
+        }
         recording.setWork(work);
         recording.setDiscoverySource(method);
         recordingRepository.save(recording);
-        log.info("Healed: Linked Recording '{}' to Work '{}' via {}",
+        log.debug("Healed: Linked Recording '{}' to Work '{}' via {}",
                 recording.getRecordingTitle(), work.getTitle(), method);
     }
 
-    private double calculateSimilarity(String s1, String s2) {
+    double calculateSimilarity(String s1, String s2) {
         if (s1 == null || s2 == null)
             return 0.0;
 
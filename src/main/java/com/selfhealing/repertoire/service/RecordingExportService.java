@@ -0,0 +1,55 @@
+package com.selfhealing.repertoire.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.dto.RecordingFilter;
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class RecordingExportService {
+
+    // Rows between flushes of the response
+    private static final int FLUSH_INTERVAL = 500;
+
+    @Autowired
+    private RecordingRepository recordingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Writes every matching recording as newline-delimited JSON, reading from a
+     * database cursor so memory stays flat regardless of catalogue size.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(RecordingFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long written = 0;
+        try (Stream<RecordingDTO> recordings = recordingRepository.streamAll(filter)) {
+            Iterator<RecordingDTO> it = recordings.iterator();
+            while (it.hasNext()) {
+                writer.write(objectMapper.writeValueAsString(it.next()));
+                writer.write('\n');
+                if (++written % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+}
@@ -0,0 +1,55 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.model.Recording;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds every JPA insert, update and delete of a recording into
+ * {@link RecordingStatsService}. The service is looked up lazily because
+ * Hibernate creates this listener while the repositories it depends on are
+ * still being built.
+ */
+@Component
+public class RecordingStatsListener {
+
+    private final ObjectProvider<RecordingStatsService> statsService;
+
+    public RecordingStatsListener(ObjectProvider<RecordingStatsService> statsService) {
+        this.statsService = statsService;
+    }
+
+    @PostLoad
+    public void onLoad(Recording recording) {
+        remember(recording);
+    }
+
+    @PostPersist
+    public void onPersist(Recording recording) {
+        statsService.ifAvailable(stats -> stats.recordChange(null, false, false,
+                recording.getStatus(), recording.getWork() == null, true));
+        remember(recording);
+    }
+
+    @PostUpdate
+    public void onUpdate(Recording recording) {
+        statsService.ifAvailable(stats -> stats.recordChange(recording.getPersistedStatus(),
+                recording.isPersistedOrphaned(), true, recording.getStatus(), recording.getWork() == null, true));
+        remember(recording);
+    }
+
+    @PostRemove
+    public void onRemove(Recording recording) {
+        statsService.ifAvailable(stats -> stats.recordChange(recording.getPersistedStatus(),
+                recording.isPersistedOrphaned(), true, null, false, false));
+    }
+
+    private void remember(Recording recording) {
+        recording.setPersistedStatus(recording.getStatus());
+        recording.setPersistedOrphaned(recording.getWork() == null);
+    }
+}
@@ -0,0 +1,167 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.DashboardStats;
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import com.selfhealing.repertoire.repository.StatusCountView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard counters kept in memory and adjusted as recordings are written,
+ * so GET /stats never scans the recordings table. Deltas are applied after
+ * the writing transaction commits; a periodic reconcile against the database
+ * corrects any drift (bulk SQL outside JPA, rollbacks racing a reconcile,
+ * other instances writing to the same database).
+ */
+@Service
+@Slf4j
+public class RecordingStatsService {
+
+    // Bucket for rows written before status existed
+    static final String UNKNOWN_STATUS = "UNKNOWN";
+    // Estimated Revenue Recovery ($0.05 per healed record for this demo)
+    private static final double RECOVERY_PER_HEALED = 0.05;
+
+    @Autowired
+    private RecordingRepository recordingRepository;
+
+    private volatile Counters counters;
+
+    /**
+     * O(1) snapshot of the counters; the first call reconciles if the
+     * startup reconcile has not run yet.
+     */
+    public DashboardStats getStats() {
+        Counters current = counters;
+        if (current == null) {
+            current = rebuild();
+        }
+        long total = current.total.sum();
+        long orphaned = current.orphaned.sum();
+        long healed = total - orphaned;
+
+        Map<String, Long> byStatus = new TreeMap<>();
+        current.byStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value != 0) {
+                byStatus.put(status, value);
+            }
+        });
+        return new DashboardStats(total, orphaned, healed, healed * RECOVERY_PER_HEALED, byStatus);
+    }
+
+    /**
+     * Records one recording moving from the old to the new state. A missing
+     * side ({@code existed}/{@code exists} false) means insert or delete.
+     */
+    public void recordChange(String oldStatus, boolean oldOrphaned, boolean existed,
+            String newStatus, boolean newOrphaned, boolean exists) {
+        if (existed && exists && oldOrphaned == newOrphaned && bucket(oldStatus).equals(bucket(newStatus))) {
+            return;
+        }
+        afterCommit(() -> {
+            Counters current = counters;
+            if (current == null) {
+                return;
+            }
+            if (existed) {
+                current.adjust(oldStatus, oldOrphaned, -1);
+            }
+            if (exists) {
+                current.adjust(newStatus, newOrphaned, 1);
+            }
+        });
+    }
+
+    /**
+     * Records recordings inserted outside JPA (JDBC batch ingestion).
+     */
+    public void recordInserted(long count, String status, boolean orphaned) {
+        if (count <= 0) {
+            return;
+        }
+        afterCommit(() -> {
+            Counters current = counters;
+            if (current != null) {
+                current.adjust(status, orphaned, count);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Rebuilds the counters from one grouped query. Writes committing while
+     * the query runs may be missed; the next reconcile picks them up.
+     */
+    @Scheduled(fixedRateString = "${stats.reconcile-rate:300000}", initialDelayString = "${stats.reconcile-rate:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    private synchronized Counters rebuild() {
+        Counters fresh = new Counters();
+        for (StatusCountView row : recordingRepository.countByStatus()) {
+            fresh.adjust(row.getStatus(), false, row.getLinked());
+            fresh.adjust(row.getStatus(), true, row.getTotal() - row.getLinked());
+        }
+
+        Counters previous = counters;
+        if (previous != null) {
+            long drift = fresh.total.sum() - previous.total.sum();
+            if (drift != 0) {
+                log.info("Reconciled dashboard counters, total drifted by {}", drift);
+            }
+        }
+        counters = fresh;
+        return fresh;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static String bucket(String status) {
+        return status == null ? UNKNOWN_STATUS : status;
+    }
+
+    private static final class Counters {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder orphaned = new LongAdder();
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+
+        private void adjust(String status, boolean isOrphaned, long delta) {
+            if (delta == 0) {
+                return;
+            }
+            total.add(delta);
+            if (isOrphaned) {
+                orphaned.add(delta);
+            }
+            byStatus.computeIfAbsent(bucket(status), key -> new LongAdder()).add(delta);
+        }
+    }
+}
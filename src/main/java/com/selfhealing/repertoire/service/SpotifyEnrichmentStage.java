@@ -0,0 +1,69 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.client.CachingLookupClient;
+import com.selfhealing.repertoire.client.SpotifyClient;
+import com.selfhealing.repertoire.client.SpotifyTokenManager;
+import com.selfhealing.repertoire.model.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Healing stage that runs ahead of the workers: resolves a slice's ISRCs on
+ * MusicBrainz in multi-ISRC queries, then fetches Spotify metadata for the
+ * ones that didn't resolve, so the MusicBrainz deep search can use Spotify's
+ * title and artist. Everything is non-blocking; the healer picks the result
+ * up when it hands the slice to its workers.
+ */
+@Service
+@Slf4j
+public class SpotifyEnrichmentStage {
+
+    @Autowired
+    private CachingLookupClient lookupClient;
+
+    @Autowired
+    private SpotifyTokenManager tokenManager;
+
+    @Value("${spotify.enrichment.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * @return Spotify metadata by normalized ISRC for the slice's recordings
+     *         that MusicBrainz couldn't resolve by ISRC; empty if enrichment is
+     *         off or Spotify can't be reached
+     */
+    public CompletableFuture<Map<String, SpotifyClient.SpotifyMetadata>> prepare(Collection<Recording> slice) {
+        List<String> isrcs = slice.stream().map(Recording::getIsrc).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return lookupClient.findIswcsByIsrcsAsync(isrcs)
+                .thenCompose(iswcs -> isEnabled()
+                        ? lookupClient.getSpotifyMetadataByIsrcsAsync(isrcs.stream()
+                                .filter(isrc -> iswcs.get(CachingLookupClient.normalizeIsrc(isrc)) == null)
+                                .collect(Collectors.toList()))
+                        : CompletableFuture.completedFuture(Map.<String, SpotifyClient.SpotifyMetadata>of()))
+                .exceptionally(error -> {
+                    log.warn("Enrichment failed for a slice of {} recordings: {}", slice.size(), error.getMessage());
+                    return Map.of();
+                });
+    }
+
+    /**
+     * Spotify metadata for one recording, for heals outside a batch run.
+     */
+    public SpotifyClient.SpotifyMetadata lookup(Recording recording) {
+        return isEnabled() ? lookupClient.getSpotifyMetadataByIsrc(recording.getIsrc()) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled && tokenManager.isConfigured();
+    }
+}
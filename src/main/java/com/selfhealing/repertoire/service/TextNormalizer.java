@@ -0,0 +1,108 @@
+package com.selfhealing.repertoire.service;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical forms of titles and artist names for fuzzy matching: lower case,
+ * no accents, punctuation folded to single spaces, and title decorations
+ * that differ between releases of the same song dropped, i.e. bracketed
+ * parts, "feat." credits and trailing remix / remaster / version tags.
+ *
+ * Keys of indexed Works are interned, so the many Works sharing a title or
+ * artist hold one copy of it.
+ */
+@Component
+public class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern BRACKETS = Pattern.compile("\\([^()]*\\)|\\[[^\\[\\]]*\\]|\\{[^{}]*\\}");
+    private static final Pattern FEATURING = Pattern.compile("\\s(?:feat\\.?|ft\\.|featuring)\\s.*$");
+    private static final Pattern VERSION_SUFFIX = Pattern.compile(
+            "\\s-\\s.*\\b(?:remix|mix|edit|remaster(?:ed)?|version|live|mono|stereo|demo|acoustic)\\b.*$");
+    private static final Pattern TRAILING_REMIX = Pattern.compile("\\s(?:remix|remastered)$");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    /**
+     * Title with its decorations stripped; falls back to the folded full title
+     * if nothing else would be left (e.g. "(Intro)").
+     */
+    public String title(String title) {
+        if (title == null) {
+            return null;
+        }
+        String folded = fold(title);
+        String stripped = folded;
+        String previous;
+        do {
+            previous = stripped;
+            stripped = BRACKETS.matcher(stripped).replaceAll(" ");
+        } while (!stripped.equals(previous));
+        stripped = FEATURING.matcher(stripped).replaceFirst("");
+        stripped = VERSION_SUFFIX.matcher(stripped).replaceFirst("");
+        stripped = clean(stripped);
+        stripped = TRAILING_REMIX.matcher(stripped).replaceFirst("");
+        return stripped.isEmpty() ? clean(folded) : stripped;
+    }
+
+    /**
+     * Main artist only: featured artists are dropped.
+     */
+    public String artist(String artist) {
+        if (artist == null) {
+            return null;
+        }
+        String normalized = clean(FEATURING.matcher(fold(artist)).replaceFirst(""));
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Whole title or query folded to space-separated words, decorations kept,
+     * for the work search; empty for null.
+     */
+    public String searchKey(String text) {
+        return text == null ? "" : clean(fold(text));
+    }
+
+    /**
+     * Shared instance of an already normalized string.
+     */
+    public String intern(String normalized) {
+        if (normalized == null) {
+            return null;
+        }
+        String existing = pool.putIfAbsent(normalized, normalized);
+        return existing == null ? normalized : existing;
+    }
+
+    public void clearPool() {
+        pool.clear();
+    }
+
+    // Lower case without accents; brackets and hyphens survive for the title rules
+    private static String fold(String text) {
+        // ASCII has nothing to decompose, which spares most titles the Unicode normalization
+        String unaccented = isAscii(text) ? text
+                : MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return " " + unaccented.toLowerCase(Locale.ROOT).trim() + " ";
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String clean(String text) {
+        return NON_ALPHANUMERIC.matcher(text).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,429 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.model.Work;
+import com.selfhealing.repertoire.repository.WorkProfileView;
+import com.selfhealing.repertoire.repository.WorkRepository;
+import com.selfhealing.repertoire.repository.WorkTitleView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory candidate index for the Tier 4 local fuzzy match.
+ *
+ * Every Work title is indexed by (character, occurrence) tokens, e.g. "abba"
+ * becomes a#1, b#1, b#2, a#2. The number of tokens two titles share is the
+ * size of their character multiset intersection, which is an upper bound on
+ * the matching characters Jaro-Winkler can find. From the match threshold we
+ * derive the minimum overlap a title needs to be able to reach it, so the
+ * shortlist only probes the rarest tokens of the query and never drops a
+ * Work the brute-force scan would have matched.
+ *
+ * With a {@link TextNormalizer}, titles are indexed (and must be queried) in
+ * normalized form. Each Work also carries the artist and duration of the
+ * recordings linked to it, for {@link MatchScorer}.
+ */
+@Component
+@Slf4j
+public class WorkCandidateIndex {
+
+    private final WorkRepository workRepository;
+    private final TextNormalizer normalizer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<UUID> ids = new ArrayList<>();
+    private final List<String> titles = new ArrayList<>();
+    private final List<String> artists = new ArrayList<>();
+    private final List<Integer> durations = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<Integer, IntList> postings = new HashMap<>();
+    private final IntList emptyTitles = new IntList();
+    private volatile boolean built = false;
+
+    /**
+     * Index over the raw titles.
+     */
+    public WorkCandidateIndex(WorkRepository workRepository) {
+        this(workRepository, null);
+    }
+
+    @Autowired
+    public WorkCandidateIndex(WorkRepository workRepository, TextNormalizer normalizer) {
+        this.workRepository = workRepository;
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Index key for a title: its normalized form, or the title itself without
+     * a normalizer.
+     */
+    public String key(String title) {
+        return normalizer == null || title == null ? title : normalizer.title(title);
+    }
+
+    /**
+     * Returns every indexed Work whose title key could score at least
+     * {@code threshold} against {@code title} (already a key, see
+     * {@link #key(String)}), in index order.
+     */
+    public List<Candidate> shortlist(String title, double threshold) {
+        if (title == null) {
+            return List.of();
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            int queryLength = title.length();
+            if (queryLength == 0) {
+                return collect(emptyTitles.toArray());
+            }
+
+            double overlapFactor = 3 * minimumJaro(threshold) - 1;
+            if (overlapFactor <= 0) {
+                // Threshold too low to prune anything
+                return collect(allOrdinals());
+            }
+
+            CharCounts queryCounts = new CharCounts(title);
+            int[] probes = rarestTokens(tokens(title), probeCount(queryLength, overlapFactor));
+
+            BitSet seen = new BitSet(ids.size());
+            for (int token : probes) {
+                IntList posting = postings.get(token);
+                if (posting != null) {
+                    for (int i = 0; i < posting.size; i++) {
+                        seen.set(posting.values[i]);
+                    }
+                }
+            }
+
+            List<Candidate> candidates = new ArrayList<>();
+            for (int ord = seen.nextSetBit(0); ord >= 0; ord = seen.nextSetBit(ord + 1)) {
+                String candidateTitle = titles.get(ord);
+                int candidateLength = candidateTitle.length();
+                double required = requiredOverlap(queryLength, candidateLength, overlapFactor);
+                if (required > Math.min(queryLength, candidateLength)) {
+                    continue;
+                }
+                if (queryCounts.overlap(candidateTitle) >= required) {
+                    candidates.add(candidate(ord));
+                }
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a newly created Work. No-op until the index has been built, since the
+     * initial build reads the Work table anyway.
+     */
+    public void add(Work work) {
+        if (work == null || work.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                index(work.getId(), work.getTitle());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives a Work the artist and duration of a recording just linked to it,
+     * unless it already has them.
+     */
+    public void recordLink(UUID workId, String artist, Integer durationMs) {
+        if (workId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordinals.get(workId);
+            if (ord == null) {
+                return;
+            }
+            if (artists.get(ord) == null) {
+                artists.set(ord, artistKey(artist));
+            }
+            if (durations.get(ord) == null && durationMs != null && durationMs > 0) {
+                durations.set(ord, durationMs);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the current contents and reloads every Work title from the database.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            titles.clear();
+            artists.clear();
+            durations.clear();
+            ordinals.clear();
+            postings.clear();
+            emptyTitles.size = 0;
+
+            long start = System.currentTimeMillis();
+            if (normalizer != null) {
+                normalizer.clearPool();
+            }
+            for (WorkTitleView view : workRepository.findAllTitles()) {
+                index(view.getId(), view.getTitle());
+            }
+            int profiled = 0;
+            for (WorkProfileView profile : workRepository.findLinkedProfiles()) {
+                Integer ord = ordinals.get(profile.getId());
+                if (ord != null) {
+                    artists.set(ord, artistKey(profile.getArtist()));
+                    Double duration = profile.getDurationMs();
+                    durations.set(ord, duration == null || duration <= 0 ? null : (int) Math.round(duration));
+                    profiled++;
+                }
+            }
+            built = true;
+            log.info("Work candidate index built: {} works ({} with linked recordings), {} tokens in {} ms",
+                    ids.size(), profiled, postings.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the current contents; the next shortlist reloads them. Used after
+     * Works were written behind the index's back, e.g. by a bulk import.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            titles.clear();
+            artists.clear();
+            durations.clear();
+            ordinals.clear();
+            postings.clear();
+            emptyTitles.size = 0;
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    // Caller must hold the write lock
+    private void index(UUID id, String title) {
+        if (ordinals.containsKey(id)) {
+            return;
+        }
+        String safeTitle = title == null ? "" : key(title);
+        if (normalizer != null) {
+            safeTitle = normalizer.intern(safeTitle);
+        }
+        int ord = ids.size();
+        ids.add(id);
+        titles.add(safeTitle);
+        artists.add(null);
+        durations.add(null);
+        ordinals.put(id, ord);
+
+        if (safeTitle.isEmpty()) {
+            emptyTitles.add(ord);
+            return;
+        }
+        for (int token : tokens(safeTitle)) {
+            postings.computeIfAbsent(token, t -> new IntList()).add(ord);
+        }
+    }
+
+    private List<Candidate> collect(int[] ords) {
+        List<Candidate> candidates = new ArrayList<>(ords.length);
+        for (int ord : ords) {
+            candidates.add(candidate(ord));
+        }
+        return candidates;
+    }
+
+    private Candidate candidate(int ord) {
+        return new Candidate(ids.get(ord), titles.get(ord), artists.get(ord), durations.get(ord));
+    }
+
+    private String artistKey(String artist) {
+        if (artist == null) {
+            return null;
+        }
+        return normalizer == null ? artist : normalizer.intern(normalizer.artist(artist));
+    }
+
+    private int[] allOrdinals() {
+        int[] all = new int[ids.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    /**
+     * Number of query tokens that must be probed so that every title sharing
+     * the minimum overlap with the query shares at least one probed token.
+     */
+    private static int probeCount(int queryLength, double overlapFactor) {
+        // Shortest candidate that can still reach the threshold
+        double ratio = overlapFactor - 1;
+        int shortest = ratio > 0 ? Math.max(1, (int) Math.ceil(queryLength * ratio - 1e-9)) : 1;
+        int minOverlap = Math.max(1, (int) Math.ceil(requiredOverlap(queryLength, shortest, overlapFactor) - 1e-9));
+        return Math.max(1, queryLength - minOverlap + 1);
+    }
+
+    private int[] rarestTokens(int[] tokens, int count) {
+        if (count >= tokens.length) {
+            return tokens;
+        }
+        Integer[] boxed = Arrays.stream(tokens).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, (a, b) -> Integer.compare(postingSize(a), postingSize(b)));
+        int[] rarest = new int[count];
+        for (int i = 0; i < count; i++) {
+            rarest[i] = boxed[i];
+        }
+        return rarest;
+    }
+
+    private int postingSize(int token) {
+        IntList posting = postings.get(token);
+        return posting == null ? 0 : posting.size;
+    }
+
+    /**
+     * Lowest Jaro similarity that can still yield a Jaro-Winkler score of
+     * {@code threshold}: the Winkler boost only applies from 0.7 and adds at
+     * most 0.4 * (1 - jaro) for a four character common prefix.
+     */
+    static double minimumJaro(double threshold) {
+        if (threshold < 0.7) {
+            return threshold;
+        }
+        return Math.max(0.7, (threshold - 0.4) / 0.6);
+    }
+
+    /**
+     * Jaro is at most (m/a + m/b + 1) / 3 for m matching characters, so a
+     * candidate needs m >= (3 * minJaro - 1) / (1/a + 1/b).
+     */
+    static double requiredOverlap(int queryLength, int candidateLength, double overlapFactor) {
+        return overlapFactor / (1.0 / queryLength + 1.0 / candidateLength) - 1e-9;
+    }
+
+    static int[] tokens(String title) {
+        int[] tokens = new int[title.length()];
+        Map<Character, Integer> seen = new HashMap<>();
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            int occurrence = seen.merge(c, 1, Integer::sum);
+            tokens[i] = (c << 8) | Math.min(occurrence, 255);
+        }
+        return tokens;
+    }
+
+    @lombok.Value
+    public static class Candidate {
+        UUID workId;
+        // Index key of the title
+        String title;
+        // Normalized artist and mean duration of the linked recordings; null if unknown
+        String artist;
+        Integer durationMs;
+    }
+
+    /**
+     * Character histogram of the query, used to compute the exact multiset
+     * intersection with a candidate title.
+     */
+    private static final class CharCounts {
+        private final int[] latin = new int[256];
+        private final Map<Character, Integer> other = new HashMap<>();
+
+        CharCounts(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 256) {
+                    latin[c]++;
+                } else {
+                    other.merge(c, 1, Integer::sum);
+                }
+            }
+        }
+
+        int overlap(String candidate) {
+            int[] remainingLatin = latin.clone();
+            Map<Character, Integer> remainingOther = other.isEmpty() ? other : new HashMap<>(other);
+            int shared = 0;
+            for (int i = 0; i < candidate.length(); i++) {
+                char c = candidate.charAt(i);
+                if (c < 256) {
+                    if (remainingLatin[c] > 0) {
+                        remainingLatin[c]--;
+                        shared++;
+                    }
+                } else {
+                    Integer left = remainingOther.get(c);
+                    if (left != null && left > 0) {
+                        remainingOther.put(c, left - 1);
+                        shared++;
+                    }
+                }
+            }
+            return shared;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.selfhealing.repertoire.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selfhealing.repertoire.repository.RecordingClaimRepository;
+import com.selfhealing.repertoire.repository.WorkBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk import of a work catalogue, so the local fuzzy tier has Works to match
+ * against before falling back to MusicBrainz.
+ *
+ * Accepts CSV, TSV and MusicBrainz work JSON lines (one work object per line,
+ * as in the JSON data dumps), any of them gzipped. CSV and TSV files need a
+ * header; the title, iswc and type (or work_type) columns are found by name,
+ * otherwise the first three columns are taken in that order. The file is
+ * streamed in chunks of {@code works.import.chunk-size}; each chunk is one
+ * JDBC batch of upserts on ISWC and commits on its own.
+ *
+ * ISWCs are normalized to T-123.456.789-0 and rows with an invalid one are
+ * skipped. Works without an ISWC are only inserted if no Work has the same
+ * title yet (ignoring case), so re-imports and dumps full of "Intro"s don't
+ * pile up duplicates. Rows that match the stored Work are counted as
+ * unchanged and not written. Once the import ends, the work search index is
+ * rebuilt and the fuzzy match index reloads on its next use. After a
+ * completed import that wrote any Work, orphans waiting out a healing backoff
+ * are made due again (and published to a continuous healer), since the new
+ * Works may be what they were missing.
+ */
+@Service
+@Slf4j
+public class WorkCatalogueImportService {
+
+    private static final Pattern ISWC = Pattern.compile("T-?(\\d{3})\\.?(\\d{3})\\.?(\\d{3})-?(\\d)");
+    // Width of the works.title column
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private WorkBatchWriter batchWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WorkSearchIndex workSearchIndex;
+
+    @Autowired
+    private WorkCandidateIndex workCandidateIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecordingClaimRepository claimRepository;
+
+    @Autowired
+    private HealingQueue healingQueue;
+
+    @Value("${works.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${batch.progress-log-chunks:100}")
+    private int progressLogChunks;
+
+    private Counter insertedRows;
+    private Counter updatedRows;
+    private Counter skippedRows;
+    private Counter unchangedRows;
+
+    @PostConstruct
+    void registerMeters() {
+        insertedRows = rowCounter("inserted");
+        updatedRows = rowCounter("updated");
+        skippedRows = rowCounter("skipped");
+        unchangedRows = rowCounter("unchanged");
+    }
+
+    private Counter rowCounter(String outcome) {
+        return Counter.builder("works.import.rows")
+                .description("Catalogue rows ingested by work imports")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a spooled catalogue upload as an import job; the format follows
+     * the file name. The spool file is deleted when the job finishes or is
+     * cancelled.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the job queue is full
+     */
+    public Job submitFile(Path file, String fileName) {
+        BatchJobProgress progress = new BatchJobProgress(fileName, false);
+        Job job = jobService.submit(Job.Type.WORK_IMPORT, null, "Import works from " + fileName, progress,
+                running -> processFile(file, progress, running));
+        job.getCompletion().whenComplete((finished, error) -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}: {}", file, e.getMessage());
+            }
+        });
+        return job;
+    }
+
+    private void processFile(Path file, BatchJobProgress progress, Job job) throws IOException {
+        long started = System.nanoTime();
+        try (RowSource source = open(file, progress.getFileName())) {
+            log.info("Importing works from {} in chunks of {}", progress.getFileName(), chunkSize);
+            List<String[]> chunk;
+            int chunks = 0;
+            while (!job.isCancelRequested() && !(chunk = source.readChunk(chunkSize)).isEmpty()) {
+                progress.addRowsRead(chunk.size());
+                List<String[]> rows = chunk;
+                ChunkResult result = transactionTemplate.execute(status -> upsertChunk(rows));
+                insertedRows.increment(result.inserted);
+                updatedRows.increment(result.updated);
+                skippedRows.increment(result.skipped);
+                unchangedRows.increment(result.unchanged);
+                progress.addRowsInserted(result.inserted);
+                progress.addRowsUpdated(result.updated);
+                progress.addRowsSkipped(result.skipped);
+                progress.addRowsUnchanged(result.unchanged);
+                job.addProcessed(chunk.size());
+                chunks++;
+
+                if (result.firstSkipReason != null) {
+                    log.debug("Skipped {} of {} rows in chunk {} of {}, e.g. {}", result.skipped, chunk.size(),
+                            chunks, progress.getFileName(), result.firstSkipReason);
+                }
+                if (progressLogChunks > 0 && chunks % progressLogChunks == 0) {
+                    log.info("Work import progress for {}: rows={} rowsPerSec={}", progress.getFileName(),
+                            progress.getRowsRead(), rowsPerSecond(progress.getRowsRead(), started));
+                }
+            }
+        } finally {
+            // Committed chunks are in the table even if the import failed or was cancelled
+            rebuildIndexes();
+        }
+
+        log.info("Work import of {} {}: rows={} inserted={} updated={} unchanged={} skipped={} rowsPerSec={}",
+                progress.getFileName(), job.isCancelRequested() ? "cancelled" : "completed", progress.getRowsRead(),
+                progress.getRowsInserted(), progress.getRowsUpdated(), progress.getRowsUnchanged(),
+                progress.getRowsSkipped(), rowsPerSecond(progress.getRowsRead(), started));
+        if (!job.isCancelRequested() && progress.getRowsPersisted() > 0) {
+            rescheduleOrphans();
+        }
+    }
+
+    /**
+     * Validates a chunk of [title, iswc, type] rows, drops duplicates and rows
+     * matching their stored Work, and writes the rest as a single JDBC batch.
+     */
+    ChunkResult upsertChunk(List<String[]> records) {
+        ChunkResult result = new ChunkResult();
+        Map<String, WorkBatchWriter.WorkRow> byIswc = new LinkedHashMap<>();
+        // Works without an ISWC, by lower-cased title
+        Map<String, WorkBatchWriter.WorkRow> byTitle = new LinkedHashMap<>();
+
+        for (String[] line : records) {
+            if (line == null) {
+                result.skip("malformed line");
+                continue;
+            }
+            String title = column(line, 0);
+            if (title == null) {
+                result.skip("empty title");
+                continue;
+            }
+            if (title.length() > MAX_TITLE_LENGTH) {
+                result.skip("title longer than " + MAX_TITLE_LENGTH + " characters");
+                continue;
+            }
+            String rawIswc = column(line, 1);
+            String iswc = normalizeIswc(rawIswc);
+            if (rawIswc != null && iswc == null) {
+                result.skip("invalid ISWC '" + rawIswc + "'");
+                continue;
+            }
+
+            WorkBatchWriter.WorkRow row = new WorkBatchWriter.WorkRow(title, iswc, column(line, 2));
+            if (iswc != null) {
+                // Repeated ISWC within the chunk: later rows win, as across chunks
+                if (byIswc.put(iswc, row) != null) {
+                    result.skip("duplicate ISWC " + iswc);
+                }
+            } else if (byTitle.putIfAbsent(title.toLowerCase(Locale.ROOT), row) != null) {
+                result.skip("duplicate title '" + title + "'");
+            }
+        }
+
+        for (WorkBatchWriter.WorkRow row : byIswc.values()) {
+            if (byTitle.remove(row.getTitle().toLowerCase(Locale.ROOT)) != null) {
+                result.skip("duplicate title '" + row.getTitle() + "'");
+            }
+        }
+        for (String taken : batchWriter.findExistingTitles(byTitle.keySet())) {
+            byTitle.remove(taken);
+            result.skip("duplicate title '" + taken + "'");
+        }
+
+        Map<String, WorkBatchWriter.WorkRow> stored = batchWriter.findByIswcs(byIswc.keySet());
+        List<WorkBatchWriter.WorkRow> rows = new ArrayList<>(byIswc.size() + byTitle.size());
+        for (WorkBatchWriter.WorkRow row : byIswc.values()) {
+            WorkBatchWriter.WorkRow current = stored.get(row.getIswc());
+            if (current == null) {
+                result.inserted++;
+            } else if (row.matches(current)) {
+                result.unchanged++;
+                continue;
+            } else {
+                result.updated++;
+            }
+            rows.add(row);
+        }
+        rows.addAll(byTitle.values());
+        result.inserted += byTitle.size();
+        if (!rows.isEmpty()) {
+            batchWriter.upsert(rows);
+        }
+        return result;
+    }
+
+    private void rebuildIndexes() {
+        try {
+            // Reloaded by the next fuzzy match, so both indexes are never held twice at once
+            workCandidateIndex.invalidate();
+            workSearchIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the work indexes after an import: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Makes orphans that are backing off after a failed match due now. In
+     * continuous mode they are also published, waking the healer once the
+     * update commits; in scheduled mode the next run picks them up.
+     */
+    private void rescheduleOrphans() {
+        // One stamp for every rescheduled row, so the outbox can select them by it
+        LocalDateTime dueAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int rescheduled = claimRepository.rescheduleOrphans(dueAt);
+                if (rescheduled > 0) {
+                    log.info("Made {} orphans due for healing against the imported works", rescheduled);
+                    healingQueue.publishWrittenAt(dueAt);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not reschedule orphans after a work import: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * ISWC in its canonical T-123.456.789-0 form, or null if there is none or
+     * it is malformed.
+     */
+    static String normalizeIswc(String iswc) {
+        if (iswc == null) {
+            return null;
+        }
+        Matcher matcher = ISWC.matcher(iswc.trim().toUpperCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return null;
+        }
+        return "T-" + matcher.group(1) + "." + matcher.group(2) + "." + matcher.group(3) + "-" + matcher.group(4);
+    }
+
+    private RowSource open(Path file, String fileName) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        InputStream in = Files.newInputStream(file);
+        if (name.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+            name = name.substring(0, name.length() - 3);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesSource(reader, objectMapper);
+        }
+        return new DelimitedSource(new CsvChunkReader(reader, name.endsWith(".tsv") ? '\t' : ','));
+    }
+
+    private static String column(String[] line, int index) {
+        if (index >= line.length || line[index] == null) {
+            return null;
+        }
+        String value = line[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long rowsPerSecond(long rows, long startedNanos) {
+        long elapsed = Math.max(1, System.nanoTime() - startedNanos);
+        return rows * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * Catalogue rows as [title, iswc, type]; a null row is one that could
+     * not be parsed.
+     */
+    private interface RowSource extends Closeable {
+        List<String[]> readChunk(int size) throws IOException;
+    }
+
+    private static final class DelimitedSource implements RowSource {
+        private final CsvChunkReader reader;
+        private final int[] columns = { 0, 1, 2 };
+
+        DelimitedSource(CsvChunkReader reader) {
+            this.reader = reader;
+            String[] header = reader.getHeader();
+            if (header == null) {
+                return;
+            }
+            int title = -1;
+            int iswc = -1;
+            int type = -1;
+            for (int i = 0; i < header.length; i++) {
+                String name = header[i] == null ? "" : header[i].trim().toLowerCase(Locale.ROOT);
+                switch (name) {
+                    case "title", "work_title", "name" -> title = i;
+                    case "iswc" -> iswc = i;
+                    case "type", "work_type" -> type = i;
+                    default -> {
+                    }
+                }
+            }
+            if (title >= 0) {
+                columns[0] = title;
+                columns[1] = iswc;
+                columns[2] = type;
+            }
+        }
+
+        @Override
+        public List<String[]> readChunk(int size) throws IOException {
+            List<String[]> chunk = reader.readChunk(size);
+            List<String[]> rows = new ArrayList<>(chunk.size());
+            for (String[] line : chunk) {
+                String[] row = new String[3];
+                for (int i = 0; i < 3; i++) {
+                    row[i] = columns[i] >= 0 && columns[i] < line.length ? line[columns[i]] : null;
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * MusicBrainz work JSON, one object per line: {@code title}, the first of
+     * {@code iswcs} and {@code type} are used.
+     */
+    private static final class JsonLinesSource implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        JsonLinesSource(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public List<String[]> readChunk(int size) throws IOException {
+            List<String[]> rows = new ArrayList<>(size);
+            String line;
+            while (rows.size() < size && (line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(parse(line));
+                }
+            }
+            return rows;
+        }
+
+        private String[] parse(String line) {
+            try {
+                JsonNode work = objectMapper.readTree(line);
+                JsonNode iswcs = work.path("iswcs");
+                String iswc = iswcs.isArray() && !iswcs.isEmpty() ? iswcs.get(0).asText(null)
+                        : work.path("iswc").asText(null);
+                return new String[] { work.path("title").asText(null), iswc, work.path("type").asText(null) };
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    static class ChunkResult {
+        int inserted;
+        int updated;
+        int unchanged;
+        int skipped;
+        String firstSkipReason;
+
+        private void skip(String reason) {
+            if (skipped++ == 0) {
+                firstSkipReason = reason;
+            }
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.repository.WorkProfileView;
+import com.selfhealing.repertoire.repository.WorkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index behind {@code /works/search}, the lookup of the
+ * manual-link dialog.
+ *
+ * Titles are folded with {@link TextNormalizer#searchKey(String)} and split
+ * into words, each word pointing at the Works that contain it. A Work matches
+ * when every query word matches one of its title words exactly, with one typo
+ * (words of four or more characters, not numbers) or, for the last query word, as a
+ * prefix, so results follow the user while typing. ISWCs match by prefix with
+ * punctuation ignored ("T-0101" finds T-010.154.444-5) and rank above titles.
+ *
+ * A match scores the rarity of the words it hit, discounted for typos and
+ * partial words, boosted by how much of the title the query covers; ties go
+ * to the Work with more linked recordings. Only the top {@code limit} hits are
+ * kept: the rarest query word drives the scan, best expansions first, and the
+ * scan stops once none of the remaining ones can beat the current top.
+ *
+ * Created and edited Works are applied once their transaction commits (see
+ * {@link WorkSearchListener}) and links are counted as they are made, so a
+ * full {@link #rebuild()} is only needed after bulk loads. Removed and
+ * re-indexed Works leave tombstones behind; once they pass
+ * {@code works.search.compact-ratio} of the live Works, the index rebuilds
+ * itself in the background. Until the first build finishes, searches fall
+ * back to the database.
+ */
+@Component
+@Slf4j
+public class WorkSearchIndex {
+
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double TYPO_WEIGHT = 0.6;
+    private static final double COVERAGE_BOOST = 0.5;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_ISWC_DIGITS = 3;
+    // A query that is an ISWC or the start of one, once punctuation is dropped
+    private static final Pattern ISWC_QUERY = Pattern.compile("t?\\d{" + MIN_ISWC_DIGITS + ",}");
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparingInt(Hit::links)
+            .thenComparingInt(hit -> -hit.ord());
+
+    private final WorkRepository workRepository;
+    private final TextNormalizer normalizer;
+
+    @Value("${works.search.default-limit:20}")
+    private int defaultLimit = 20;
+
+    @Value("${works.search.max-results:100}")
+    private int maxResults = 100;
+
+    // Tombstones per live Work that trigger a background rebuild
+    @Value("${works.search.compact-ratio:0.25}")
+    private double compactRatio = 0.25;
+
+    // Small indexes are not worth rebuilding for a handful of tombstones
+    @Value("${works.search.compact-min-removed:1000}")
+    private int compactMinRemoved = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until the first build
+    private Segment segment;
+    // Changes made while a rebuild is reading the database, replayed onto its result; guarded by lock
+    private List<Consumer<Segment>> pending;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final CustomizableThreadFactory compactionThreads = new CustomizableThreadFactory("work-search-compact-");
+
+    public WorkSearchIndex(WorkRepository workRepository, TextNormalizer normalizer) {
+        this.workRepository = workRepository;
+        this.normalizer = normalizer;
+        compactionThreads.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Work search index not built, searching the database instead: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Best matches for {@code query}, at most {@code limit} (the configured
+     * default if null, never more than {@code works.search.max-results}).
+     */
+    public List<RecordingDTO.WorkDTO> search(String query, Integer limit) {
+        int k = Math.max(1, Math.min(limit == null ? defaultLimit : limit, maxResults));
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String key = normalizer.searchKey(query);
+
+        lock.readLock().lock();
+        try {
+            if (segment != null) {
+                return segment.search(key, k);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return workRepository.searchByTitleOrIswc(query.trim(), k);
+    }
+
+    /**
+     * Adds a Work, or re-indexes it if its title or ISWC changed.
+     */
+    public void put(RecordingDTO.WorkDTO work) {
+        if (work == null || work.getId() == null) {
+            return;
+        }
+        String key = normalizer.searchKey(work.getTitle());
+        update(current -> current.add(work, key, 0));
+    }
+
+    public void remove(UUID workId) {
+        if (workId != null) {
+            update(current -> current.remove(workId));
+        }
+    }
+
+    /**
+     * Counts a recording newly linked to the Work, which ranks it above
+     * equally good matches.
+     */
+    public void recordLink(UUID workId) {
+        if (workId != null) {
+            update(current -> current.addLinks(workId, 1));
+        }
+    }
+
+    /**
+     * Uncounts a recording moved off the Work, e.g. re-linked to another one.
+     */
+    public void recordUnlink(UUID workId) {
+        if (workId != null) {
+            update(current -> current.addLinks(workId, -1));
+        }
+    }
+
+    /**
+     * Reloads every Work from the database. Searches keep using the previous
+     * contents until the new ones are complete.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        long start = System.currentTimeMillis();
+        try {
+            for (RecordingDTO.WorkDTO work : workRepository.findAllSummaries()) {
+                fresh.add(work, normalizer.searchKey(work.getTitle()), 0);
+            }
+            for (WorkProfileView profile : workRepository.findLinkedProfiles()) {
+                Long links = profile.getLinks();
+                fresh.addLinks(profile.getId(), links == null ? 0 : (int) Math.min(links, Integer.MAX_VALUE));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // A link made while the profiles were read may be counted twice; it only breaks ties
+            pending.forEach(change -> change.accept(fresh));
+            pending = null;
+            segment = fresh;
+            log.info("Work search index built: {} works, {} words in {} ms", fresh.live, fresh.terms.size(),
+                    System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment == null ? 0 : segment.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Consumer<Segment> change) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                change.accept(segment);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+            // A rebuild already under way replaces the segment anyway
+            compact = pending == null && segment != null && segment.removedCount > compactMinRemoved
+                    && segment.removedCount > segment.live * compactRatio;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact && compacting.compareAndSet(false, true)) {
+            compactionThreads.newThread(this::compact).start();
+        }
+    }
+
+    private void compact() {
+        try {
+            log.info("Rebuilding the work search index to drop removed entries");
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Work search index not compacted: {}", e.getMessage());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    // Lower-case letters and digits only, e.g. t0101544445
+    static String iswcKey(String iswc) {
+        if (iswc == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(iswc.length());
+        for (int i = 0; i < iswc.length(); i++) {
+            char c = iswc.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    /**
+     * At most one edit (insertion, deletion, substitution or swap of two
+     * adjacent characters) apart.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        if (lengthDifference != 0) {
+            String longer = lengthDifference > 0 ? a : b;
+            String shorter = lengthDifference > 0 ? b : a;
+            int i = 0;
+            while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+                i++;
+            }
+            return shorter.regionMatches(i, longer, i + 1, shorter.length() - i);
+        }
+        int first = -1;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                if (first >= 0) {
+                    // Second difference: only a swap of the two adjacent characters is allowed
+                    return i == first + 1 && a.charAt(first) == b.charAt(i) && a.charAt(i) == b.charAt(first)
+                            && a.regionMatches(i + 1, b, i + 1, a.length() - i - 1);
+                }
+                first = i;
+            }
+        }
+        return true;
+    }
+
+    private static String[] words(String key) {
+        return key.isEmpty() ? new String[0] : key.split(" ");
+    }
+
+    /**
+     * One generation of the index. Mutated only under the write lock.
+     */
+    private static final class Segment {
+        private final List<RecordingDTO.WorkDTO> works = new ArrayList<>();
+        private final List<int[]> workTerms = new ArrayList<>();
+        private final IntList titleLengths = new IntList();
+        private final IntList links = new IntList();
+        private final BitSet removed = new BitSet();
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+        private final Map<String, Integer> terms = new HashMap<>();
+        // The same words in order, for prefix matches
+        private final NavigableMap<String, Integer> sortedTerms = new TreeMap<>();
+        private final List<String> termText = new ArrayList<>();
+        private final List<IntList> postings = new ArrayList<>();
+        // Single-character deletions of each word of MIN_TYPO_LENGTH or more, keyed by hash to save
+        // the strings; collisions only add candidates that withinOneEdit rejects
+        private final Map<Integer, IntList> deletions = new HashMap<>();
+        private final NavigableMap<String, Integer> iswcs = new TreeMap<>();
+        private int live;
+        private int removedCount;
+
+        void add(RecordingDTO.WorkDTO work, String key, int linkCount) {
+            Integer previous = ordinals.get(work.getId());
+            if (previous != null) {
+                linkCount += links.get(previous);
+                remove(work.getId());
+            }
+            int ord = works.size();
+            // Kept as given; callers hand over their instance and searches return copies
+            works.add(work);
+            titleLengths.add(key.length());
+            links.add(linkCount);
+            ordinals.put(work.getId(), ord);
+            live++;
+
+            String[] words = words(key);
+            int[] wordIds = new int[words.length];
+            int distinct = 0;
+            for (String word : words) {
+                int id = termId(word);
+                if (!contains(wordIds, distinct, id)) {
+                    wordIds[distinct++] = id;
+                }
+            }
+            if (distinct < wordIds.length) {
+                wordIds = Arrays.copyOf(wordIds, distinct);
+            }
+            workTerms.add(wordIds);
+            for (int id : wordIds) {
+                postings.get(id).add(ord);
+            }
+            String iswcKey = iswcKey(work.getIswc());
+            if (iswcKey != null) {
+                iswcs.put(iswcKey, ord);
+            }
+        }
+
+        void remove(UUID workId) {
+            Integer ord = ordinals.remove(workId);
+            if (ord == null) {
+                return;
+            }
+            // Postings keep the ordinal; searches skip removed ones until the next rebuild
+            removed.set(ord);
+            removedCount++;
+            live--;
+            String iswcKey = iswcKey(works.get(ord).getIswc());
+            if (iswcKey != null) {
+                iswcs.remove(iswcKey, ord);
+            }
+        }
+
+        void addLinks(UUID workId, int count) {
+            Integer ord = ordinals.get(workId);
+            if (ord != null) {
+                links.set(ord, Math.max(0, links.get(ord) + count));
+            }
+        }
+
+        List<RecordingDTO.WorkDTO> search(String key, int limit) {
+            Set<Integer> results = new LinkedHashSet<>();
+            String compact = key.replace(" ", "");
+            if (ISWC_QUERY.matcher(compact).matches()) {
+                String prefix = compact.startsWith("t") ? compact : "t" + compact;
+                for (int ord : iswcs.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    if (results.size() == limit) {
+                        break;
+                    }
+                    results.add(ord);
+                }
+            }
+            if (results.size() < limit) {
+                for (Hit hit : searchTitles(words(key), key.length(), limit)) {
+                    results.add(hit.ord());
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+
+            List<RecordingDTO.WorkDTO> found = new ArrayList<>(results.size());
+            for (int ord : results) {
+                RecordingDTO.WorkDTO work = works.get(ord);
+                found.add(new RecordingDTO.WorkDTO(work.getId(), work.getIswc(), work.getTitle(),
+                        work.getWorkType()));
+            }
+            return found;
+        }
+
+        private List<Hit> searchTitles(String[] queryWords, int queryLength, int limit) {
+            if (queryWords.length == 0) {
+                return List.of();
+            }
+            List<Map<Integer, Double>> expansions = new ArrayList<>(queryWords.length);
+            int driver = 0;
+            long driverCost = Long.MAX_VALUE;
+            for (int i = 0; i < queryWords.length; i++) {
+                Map<Integer, Double> expansion = expand(queryWords[i], i == queryWords.length - 1);
+                if (expansion.isEmpty()) {
+                    return List.of();
+                }
+                long cost = 0;
+                for (int id : expansion.keySet()) {
+                    cost += postings.get(id).size;
+                }
+                if (cost < driverCost) {
+                    driver = i;
+                    driverCost = cost;
+                }
+                expansions.add(expansion);
+            }
+
+            Map<Integer, Double> driving = expansions.remove(driver);
+            double othersMax = 0;
+            for (Map<Integer, Double> other : expansions) {
+                othersMax += other.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+            }
+            List<Map.Entry<Integer, Double>> order = new ArrayList<>(driving.entrySet());
+            order.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            BitSet seen = new BitSet(works.size());
+            for (Map.Entry<Integer, Double> entry : order) {
+                double weight = entry.getValue();
+                if (top.size() == limit && top.peek().score() > (weight + othersMax) * (1 + COVERAGE_BOOST)) {
+                    break;
+                }
+                IntList posting = postings.get(entry.getKey());
+                for (int p = 0; p < posting.size; p++) {
+                    int ord = posting.values[p];
+                    if (top.size() == limit && top.peek().score() > (weight + othersMax)
+                            * (1 + COVERAGE_BOOST * coverage(queryLength, titleLengths.get(ord)))) {
+                        // Too long a title to make the top even if every other word matches
+                        continue;
+                    }
+                    if (removed.get(ord) || seen.get(ord)) {
+                        continue;
+                    }
+                    // Expansions come best first, so this is the Work's best driving word
+                    seen.set(ord);
+                    double score = weight + otherWords(ord, expansions);
+                    if (Double.isNaN(score)) {
+                        continue;
+                    }
+                    Hit hit = new Hit(ord, score * (1 + COVERAGE_BOOST * coverage(queryLength, titleLengths.get(ord))),
+                            links.get(ord));
+                    if (top.size() < limit) {
+                        top.add(hit);
+                    } else if (WORST_FIRST.compare(hit, top.peek()) > 0) {
+                        top.poll();
+                        top.add(hit);
+                    }
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(WORST_FIRST.reversed());
+            return ranked;
+        }
+
+        /**
+         * Sum of the best weight each of the other query words finds in the
+         * Work's title, or NaN if one of them finds none.
+         */
+        private double otherWords(int ord, List<Map<Integer, Double>> others) {
+            int[] wordIds = workTerms.get(ord);
+            double sum = 0;
+            for (Map<Integer, Double> other : others) {
+                double best = 0;
+                for (int id : wordIds) {
+                    Double weight = other.get(id);
+                    if (weight != null && weight > best) {
+                        best = weight;
+                    }
+                }
+                if (best == 0) {
+                    return Double.NaN;
+                }
+                sum += best;
+            }
+            return sum;
+        }
+
+        /**
+         * Indexed words the query word can stand for, with their weights.
+         */
+        private Map<Integer, Double> expand(String word, boolean prefix) {
+            Map<Integer, Double> weights = new HashMap<>();
+            Integer exact = terms.get(word);
+            if (exact != null) {
+                weights.put(exact, 1.0);
+            }
+            if (prefix) {
+                for (Map.Entry<String, Integer> completion : sortedTerms
+                        .subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                    weights.merge(completion.getValue(),
+                            PREFIX_WEIGHT * word.length() / completion.getKey().length(), Math::max);
+                }
+            }
+            if (word.length() >= MIN_TYPO_LENGTH) {
+                for (int id : typoCandidates(word)) {
+                    weights.merge(id, TYPO_WEIGHT, Math::max);
+                }
+            }
+            weights.replaceAll((id, weight) -> weight * idf(id));
+            return weights;
+        }
+
+        private Set<Integer> typoCandidates(String word) {
+            Set<Integer> candidates = new HashSet<>();
+            // The word with a character missing
+            collect(deletions.get(word.hashCode()), candidates);
+            for (int i = 0; i < word.length(); i++) {
+                String deleted = deletion(word, i);
+                // An extra character in the word
+                Integer id = terms.get(deleted);
+                if (id != null) {
+                    candidates.add(id);
+                }
+                // A wrong or swapped character
+                collect(deletions.get(deleted.hashCode()), candidates);
+            }
+            candidates.removeIf(id -> termText.get(id).equals(word) || !withinOneEdit(word, termText.get(id)));
+            return candidates;
+        }
+
+        private double idf(int id) {
+            return 1 + Math.log((double) Math.max(live, 1) / Math.max(postings.get(id).size, 1));
+        }
+
+        private int termId(String word) {
+            Integer id = terms.get(word);
+            if (id != null) {
+                return id;
+            }
+            id = termText.size();
+            terms.put(word, id);
+            sortedTerms.put(word, id);
+            termText.add(word);
+            postings.add(new IntList());
+            if (word.length() >= MIN_TYPO_LENGTH && !isNumber(word)) {
+                Set<Integer> keys = new HashSet<>();
+                for (int i = 0; i < word.length(); i++) {
+                    int key = deletion(word, i).hashCode();
+                    if (keys.add(key)) {
+                        deletions.computeIfAbsent(key, k -> new IntList()).add(id);
+                    }
+                }
+            }
+            return id;
+        }
+
+        // Catalogue numbers and years are not typo-corrected
+        private static boolean isNumber(String word) {
+            for (int i = 0; i < word.length(); i++) {
+                if (!Character.isDigit(word.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Share of the title the query covers
+        private static double coverage(int queryLength, int titleLength) {
+            return Math.min(1.0, (double) queryLength / Math.max(1, titleLength));
+        }
+
+        private static boolean contains(int[] values, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String deletion(String word, int index) {
+            return word.substring(0, index) + word.substring(index + 1);
+        }
+
+        private static void collect(IntList ids, Set<Integer> into) {
+            if (ids != null) {
+                for (int i = 0; i < ids.size; i++) {
+                    into.add(ids.values[i]);
+                }
+            }
+        }
+    }
+
+    private record Hit(int ord, double score, int links) {
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.model.Work;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies every JPA insert, update and delete of a Work to the
+ * {@link WorkSearchIndex} once the transaction commits, so the search never
+ * offers a Work that was rolled back.
+ */
+@Component
+public class WorkSearchListener {
+
+    private final ObjectProvider<WorkSearchIndex> searchIndex;
+
+    public WorkSearchListener(ObjectProvider<WorkSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Work work) {
+        RecordingDTO.WorkDTO summary = new RecordingDTO.WorkDTO(work.getId(), work.getIswc(), work.getTitle(),
+                work.getWorkType());
+        afterCommit(() -> searchIndex.ifAvailable(index -> index.put(summary)));
+    }
+
+    @PostRemove
+    public void onRemove(Work work) {
+        afterCommit(() -> searchIndex.ifAvailable(index -> index.remove(work.getId())));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+-- Schema as previously created by Hibernate (ddl-auto=update). Every statement
+-- is idempotent, so databases created that way are brought to the same state.
+
+CREATE TABLE IF NOT EXISTS works (
+    id        uuid         NOT NULL PRIMARY KEY,
+    iswc      varchar(15)  UNIQUE,
+    title     varchar(255) NOT NULL,
+    work_type varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS recordings (
+    id               uuid         NOT NULL PRIMARY KEY,
+    isrc             varchar(12)  UNIQUE,
+    work_id          uuid         REFERENCES works (id),
+    recording_title  varchar(255) NOT NULL,
+    artist_name      varchar(255),
+    discovery_source varchar(255),
+    duration_ms      integer,
+    status           varchar(255),
+    updated_at       timestamp(6)
+);
+
+-- Healing leases
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS claimed_by varchar(64);
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS claim_expires_at timestamp(6);
+
+-- Incremental healing state
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS heal_attempts integer;
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS last_heal_attempt_at timestamp(6);
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS heal_input_hash varchar(32);
+ALTER TABLE recordings ADD COLUMN IF NOT EXISTS next_heal_at timestamp(6);
+CREATE INDEX IF NOT EXISTS idx_recordings_next_heal_at ON recordings (next_heal_at, id);
+
+CREATE TABLE IF NOT EXISTS upstream_lookup_cache (
+    cache_key   varchar(1024) NOT NULL PRIMARY KEY,
+    cache_value text,
+    negative    boolean       NOT NULL,
+    created_at  timestamp(6)  NOT NULL,
+    expires_at  timestamp(6)  NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS healing_outbox (
+    id           bigint       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recording_id uuid         NOT NULL,
+    created_at   timestamp(6) NOT NULL
+);
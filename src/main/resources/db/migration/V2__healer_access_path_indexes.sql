@@ -0,0 +1,32 @@
+-- Indexes for the healer's and dashboard's access paths. Built without
+-- CONCURRENTLY since migrations run in a transaction; expect a few seconds
+-- of write blocking per index on a catalogue of a few million recordings.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Listings are keyset-paginated on (updated_at DESC NULLS LAST, id DESC).
+-- Every write path sets updated_at, so old NULLs are filled in and the keyset
+-- comparison no longer needs an "OR updated_at IS NULL" branch the index
+-- cannot serve.
+UPDATE recordings SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
+ALTER TABLE recordings ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_recordings_updated
+    ON recordings (updated_at DESC NULLS LAST, id DESC);
+
+-- Status filter
+CREATE INDEX IF NOT EXISTS idx_recordings_status_updated
+    ON recordings (status, updated_at DESC NULLS LAST, id DESC);
+
+-- Orphans only: the orphan filter, the orphan count and, below, healing claims.
+-- Linked recordings, the bulk of a healed catalogue, are left out.
+CREATE INDEX IF NOT EXISTS idx_recordings_orphans_updated
+    ON recordings (updated_at DESC NULLS LAST, id DESC) WHERE work_id IS NULL;
+
+DROP INDEX IF EXISTS idx_recordings_next_heal_at;
+CREATE INDEX IF NOT EXISTS idx_recordings_orphans_due
+    ON recordings (next_heal_at, id) WHERE work_id IS NULL;
+
+-- Substring search on works (lower(column) LIKE '%...%')
+CREATE INDEX IF NOT EXISTS idx_works_title_trgm ON works USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_works_iswc_trgm ON works USING gin (lower(iswc) gin_trgm_ops);
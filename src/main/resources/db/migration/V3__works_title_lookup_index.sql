@@ -0,0 +1,2 @@
+-- The work catalogue import skips ISWC-less works whose title (case-insensitively) already exists
+CREATE INDEX IF NOT EXISTS idx_works_title_lower ON works (lower(title));
@@ -0,0 +1,140 @@
+package com.selfhealing.repertoire.client;
+
+import com.selfhealing.repertoire.model.LookupCacheEntry;
+import com.selfhealing.repertoire.repository.JpaTestContext;
+import com.selfhealing.repertoire.repository.LookupCacheRepository;
+import com.selfhealing.repertoire.repository.PostgresTestSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Both tiers on a test clock; the persistent tier is the
+ * upstream_lookup_cache table of a throwaway PostgreSQL schema.
+ */
+class LookupCacheTest {
+
+    private static final Duration POSITIVE_TTL = Duration.ofDays(30);
+    private static final Duration NEGATIVE_TTL = Duration.ofHours(24);
+
+    private static PostgresTestSchema schema;
+    private static ConfigurableApplicationContext context;
+    private static LookupCacheRepository repository;
+
+    private final TestClock clock = new TestClock(Instant.parse("2026-03-01T12:00:00Z"));
+
+    @BeforeAll
+    static void startContext() {
+        schema = PostgresTestSchema.create("lookup_cache_test");
+        context = JpaTestContext.start(schema);
+        repository = context.getBean(LookupCacheRepository.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+        schema.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void negativeAndPositiveAnswersExpireOnTheirOwnTtl() {
+        LookupCache cache = cache(false);
+        cache.put("mb:isrc:GBUM71029604", "T-010.154.444-5");
+        cache.put("mb:isrc:QZES71982312", null);
+
+        clock.advance(NEGATIVE_TTL.minusMinutes(1));
+        assertTrue(cache.get("mb:isrc:QZES71982312").get().isNegative());
+        assertTrue(cache.get("mb:isrc:GBUM71029604").isPresent());
+
+        clock.advance(Duration.ofMinutes(2));
+        assertFalse(cache.get("mb:isrc:QZES71982312").isPresent());
+        assertEquals("T-010.154.444-5", cache.get("mb:isrc:GBUM71029604").get().getValue());
+
+        clock.advance(POSITIVE_TTL.minus(NEGATIVE_TTL));
+        assertFalse(cache.get("mb:isrc:GBUM71029604").isPresent());
+    }
+
+    @Test
+    void memoryMissIsServedFromThePersistentRow() {
+        cache(true).put("mb:isrc:GBUM71029604", "T-010.154.444-5");
+
+        // A fresh in-heap tier, as after a restart
+        LookupCache restarted = cache(true);
+        assertTrue(restarted.peek("mb:isrc:GBUM71029604").isEmpty());
+        assertEquals("T-010.154.444-5", restarted.get("mb:isrc:GBUM71029604").get().getValue());
+        assertEquals(1, restarted.getStats().getPersistentHits());
+
+        // Loaded into the in-heap tier on the way
+        assertEquals("T-010.154.444-5", restarted.get("mb:isrc:GBUM71029604").get().getValue());
+        assertEquals(1, restarted.getStats().getMemoryHits());
+
+        // An expired row is not served, even before the purge removes it
+        clock.advance(POSITIVE_TTL.plusMinutes(1));
+        assertFalse(cache(true).get("mb:isrc:GBUM71029604").isPresent());
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredRows() {
+        LookupCache cache = cache(true);
+        cache.put("mb:isrc:GBUM71029604", "T-010.154.444-5");
+        cache.put("mb:isrc:QZES71982312", null);
+        clock.advance(Duration.ofHours(12));
+        cache.put("mb:isrc:USUM71703861", null);
+
+        // The first negative answer is past its TTL, the later one is not
+        clock.advance(Duration.ofHours(13));
+        cache.purgeExpired();
+
+        assertEquals(List.of("mb:isrc:GBUM71029604", "mb:isrc:USUM71703861"),
+                repository.findAll().stream().map(LookupCacheEntry::getCacheKey).sorted().toList());
+    }
+
+    private LookupCache cache(boolean persistent) {
+        return new LookupCache(repository, POSITIVE_TTL, NEGATIVE_TTL, 100, persistent, clock);
+    }
+
+    private static final class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
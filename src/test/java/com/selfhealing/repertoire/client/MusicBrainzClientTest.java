@@ -0,0 +1,193 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a local stub that replays MusicBrainz search
+ * responses from src/test/resources/musicbrainz.
+ */
+class MusicBrainzClientTest {
+
+    private HttpServer server;
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger unavailable = new AtomicInteger();
+    private volatile byte[] override;
+    private ThreadPoolExecutor executor;
+    private UpstreamHttpClient http;
+    private MusicBrainzClient client;
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ws/2/recording", exchange -> {
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+            queries.add(query);
+            if (unavailable.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            String page = query.contains("offset=0") ? "isrc-batch-page-1.json" : "isrc-batch-page-2.json";
+            byte[] body = override != null ? override : fixture(page);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        http = new UpstreamHttpClient("musicbrainz", HttpClient.newBuilder().executor(executor).build(), executor,
+                new ObjectMapper(), Duration.ofSeconds(5), 3, Duration.ofMillis(10));
+        client = new MusicBrainzClient();
+        ReflectionTestUtils.setField(client, "http", http);
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/ws/2");
+        ReflectionTestUtils.setField(client, "userAgent", "RepertoireTest/1.0");
+        rateLimiter = new TokenBucketRateLimiter("test", 100, 100);
+        ReflectionTestUtils.setField(client, "rateLimiter", rateLimiter);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Test
+    void batchedLookupFansResultsOutPerIsrc() {
+        Map<String, String> iswcs = client.findIswcsByIsrcs(
+                List.of("GBUM71029604", "USUM71703861", "GBAHS1600463", "QZES71982312", "NOT-AN-ISRC"));
+
+        assertEquals(5, iswcs.size());
+        // One recording listing two ISRCs credits both
+        assertEquals("T-010.154.444-5", iswcs.get("GBUM71029604"));
+        assertEquals("T-010.154.444-5", iswcs.get("USUM71703861"));
+        // No ISWC on the first page's recording; found through a work relation on the second page
+        assertEquals("T-917.475.447-1", iswcs.get("GBAHS1600463"));
+        assertNull(iswcs.get("QZES71982312"));
+        assertNull(iswcs.get("NOT-AN-ISRC"));
+
+        // One request per page, with the malformed ISRC kept out of the query
+        assertEquals(2, queries.size());
+        assertTrue(queries.get(0).contains("query=isrc:(GBUM71029604 OR USUM71703861 OR GBAHS1600463 OR QZES71982312)"),
+                queries.get(0));
+        assertTrue(queries.get(1).contains("offset=2"), queries.get(1));
+    }
+
+    @Test
+    void asyncLookupRetriesServiceUnavailable() {
+        unavailable.set(1);
+
+        CompletableFuture<Map<String, String>> pending = client.findIswcsByIsrcsAsync(List.of("QZES71982312"));
+
+        assertNull(pending.join().get("QZES71982312"));
+        // The 503 and the retried first page, then the second page
+        assertEquals(3, queries.size());
+        UpstreamHttpClient.Stats stats = http.getStats();
+        assertEquals(3, stats.getRequests());
+        assertEquals(1, stats.getRetries());
+        assertEquals(0, stats.getFailures());
+        assertEquals(0, stats.getInFlight());
+        // The retry waited for its own permit
+        assertEquals(3, rateLimiter.getStats().getAcquired());
+    }
+
+    @Test
+    void exhaustedRetriesSurfaceAsUpstreamLookupException() {
+        unavailable.set(Integer.MAX_VALUE);
+
+        assertThrows(UpstreamLookupException.class, () -> client.findIswcByIsrc("QZES71982312"));
+        assertEquals(3, queries.size());
+        assertEquals(1, http.getStats().getFailures());
+        assertEquals(3, rateLimiter.getStats().getAcquired());
+    }
+
+    @Test
+    void unreadableResponseFailsWithoutRetrying() {
+        // Cut off before any ISWC, so the reader hits the end of input
+        override = "{\"count\":1,\"recordings\":[{\"id\":\"a1\",\"ti".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(UpstreamResponseException.class, () -> client.findIswcByIsrc("QZES71982312"));
+        assertEquals(1, queries.size());
+        UpstreamHttpClient.Stats stats = http.getStats();
+        assertEquals(1, stats.getRequests());
+        assertEquals(0, stats.getRetries());
+        assertEquals(1, stats.getFailures());
+        assertEquals(1, rateLimiter.getStats().getAcquired());
+    }
+
+    @Test
+    void streamingReadersMatchTheTreeWalk() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> bodies = List.of(
+                new String(fixture("isrc-batch-page-1.json"), StandardCharsets.UTF_8),
+                new String(fixture("isrc-batch-page-2.json"), StandardCharsets.UTF_8),
+                "{\"recordings\":[]}",
+                "{\"count\":0}",
+                // Relations before iswcs: the direct ISWC still wins
+                "{\"recordings\":[{\"relations\":[{\"work\":{\"iswc\":\"T-2\"},\"target-type\":\"work\"}],"
+                        + "\"iswcs\":[\"T-1\"]}]}",
+                // Non-work relations are ignored; iswcs beats iswc inside a work
+                "{\"recordings\":[{\"relations\":[{\"target-type\":\"url\",\"work\":{\"iswc\":\"T-9\"}},"
+                        + "{\"target-type\":\"work\",\"work\":{\"iswc\":\"T-3\",\"iswcs\":[\"T-4\"]}}],"
+                        + "\"isrcs\":[\"gbahs1600463\"]}]}");
+
+        for (String body : bodies) {
+            assertEquals(MusicBrainzClient.extractIswc(mapper.readTree(body)),
+                    MusicBrainzClient.readIswc(mapper.getFactory().createParser(body)), body);
+
+            Map<String, String> expected = new java.util.LinkedHashMap<>();
+            Map<String, String> actual = new java.util.LinkedHashMap<>();
+            for (String isrc : List.of("GBUM71029604", "USUM71703861", "GBAHS1600463", "QZES71982312")) {
+                expected.put(isrc, null);
+                actual.put(isrc, null);
+            }
+            MusicBrainzClient.extractIswcsByIsrc(mapper.readTree(body), expected);
+            MusicBrainzClient.readIswcsByIsrc(mapper.getFactory().createParser(body), actual);
+            assertEquals(expected, actual, body);
+        }
+    }
+
+    @Test
+    void streamingReaderStopsAtTheFirstIswc() throws IOException {
+        // Everything after the first ISWC is never tokenized
+        String body = "{\"recordings\":[{\"iswcs\":[\"T-010.154.444-5\"],\"releases\": not json at all";
+
+        assertEquals("T-010.154.444-5", MusicBrainzClient.readIswc(new ObjectMapper().getFactory().createParser(body)));
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = MusicBrainzClientTest.class.getResourceAsStream("/musicbrainz/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.selfhealing.repertoire.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+    private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> singleFlight.execute("mb:isrc:GBUM70000001", () -> {
+                upstreamCalls.incrementAndGet();
+                await(release);
+                return "T-123.456.789-0";
+            })));
+        }
+        waitForCallers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("T-123.456.789-0", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(CALLERS - 1, singleFlight.getStats().getCoalesced());
+        assertEquals(0, singleFlight.getStats().getInFlight());
+        pool.shutdown();
+    }
+
+    @Test
+    void failureIsSharedAndNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> singleFlight.execute("mb:isrc:GBUM70000002", () -> {
+                await(release);
+                throw new UpstreamLookupException("MusicBrainz unavailable", null);
+            })));
+        }
+        waitForCallers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof UpstreamLookupException);
+        }
+        // The next call runs again rather than replaying the failure
+        assertEquals("ok", singleFlight.execute("mb:isrc:GBUM70000002", () -> "ok"));
+        pool.shutdown();
+    }
+
+    // Every caller has either started the flight or joined it
+    private void waitForCallers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getStats().getExecutions() + singleFlight.getStats().getCoalesced() < CALLERS
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.selfhealing.repertoire.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the token manager against a local stub of the Spotify token endpoint
+ * that answers slowly and hands out numbered tokens, plus a search endpoint
+ * that rejects the first of them.
+ */
+class SpotifyTokenManagerTest {
+
+    private HttpServer server;
+    private final AtomicInteger issued = new AtomicInteger();
+    private volatile int expiresInSeconds = 3600;
+    private final AtomicInteger searches = new AtomicInteger();
+    private ThreadPoolExecutor executor;
+    private UpstreamHttpClient http;
+    private SpotifyTokenManager manager;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/token", exchange -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"access_token\":\"token-" + issued.incrementAndGet()
+                    + "\",\"token_type\":\"Bearer\",\"expires_in\":" + expiresInSeconds + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        // Search endpoint that has revoked the first token
+        server.createContext("/v1/search", exchange -> {
+            searches.incrementAndGet();
+            if ("Bearer token-1".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"tracks\":{\"items\":[{\"name\":\"Bohemian Rhapsody\","
+                    + "\"artists\":[{\"name\":\"Queen\"}]}]}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        http = new UpstreamHttpClient("spotify", HttpClient.newBuilder().executor(executor).build(),
+                executor, new ObjectMapper(), Duration.ofSeconds(5), 1, Duration.ofMillis(10));
+        manager = new SpotifyTokenManager();
+        ReflectionTestUtils.setField(manager, "http", http);
+        ReflectionTestUtils.setField(manager, "tokenUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/token");
+        ReflectionTestUtils.setField(manager, "clientId", "client");
+        ReflectionTestUtils.setField(manager, "clientSecret", "secret");
+        ReflectionTestUtils.setField(manager, "expirySkew", Duration.ZERO);
+    }
+
+    @AfterEach
+    void stopStub() {
+        manager.shutdown();
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Test
+    void concurrentReadersShareOneRefresh() {
+        List<CompletableFuture<String>> readers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            readers.add(manager.getToken());
+        }
+
+        readers.forEach(reader -> assertEquals("token-1", reader.join()));
+        assertEquals(1, issued.get());
+        assertEquals("token-1", manager.getToken().join());
+        assertEquals(1, manager.getStats().getRefreshes());
+        assertTrue(manager.getStats().getAverageRefreshMs() >= 100);
+    }
+
+    @Test
+    void tokenIsRenewedInTheBackgroundBeforeExpiry() throws InterruptedException {
+        expiresInSeconds = 2;
+        ReflectionTestUtils.setField(manager, "refreshAhead", Duration.ofMillis(1500));
+        ReflectionTestUtils.setField(manager, "minRefreshInterval", Duration.ofMillis(100));
+
+        assertEquals("token-1", manager.getToken().join());
+        long deadline = System.currentTimeMillis() + 1500;
+        while (issued.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+
+        // Replaced ahead of time; readers never waited on the second refresh
+        assertEquals("token-2", manager.getToken().join());
+        SpotifyTokenManager.Stats stats = manager.getStats();
+        assertEquals(1, stats.getBackgroundRefreshes());
+        assertEquals(1, stats.getBlockedReaders());
+    }
+
+    @Test
+    void tokenWithoutLifetimeIsNotRefreshedInALoop() throws InterruptedException {
+        expiresInSeconds = 0;
+        ReflectionTestUtils.setField(manager, "expirySkew", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(manager, "minRefreshInterval", Duration.ofSeconds(1));
+
+        assertEquals("token-1", manager.getToken().join());
+        Thread.sleep(500);
+
+        // The next background refresh waits for the minimum interval instead of firing at once
+        assertEquals(1, issued.get());
+        assertEquals(0, manager.getStats().getBackgroundRefreshes());
+    }
+
+    @Test
+    void searchRejectedWithA401IsRetriedOnceWithTheRefreshedToken() {
+        SpotifyClient client = new SpotifyClient();
+        ReflectionTestUtils.setField(client, "http", http);
+        ReflectionTestUtils.setField(client, "rateLimiter", new TokenBucketRateLimiter("test", 100, 100));
+        ReflectionTestUtils.setField(client, "tokenManager", manager);
+        ReflectionTestUtils.setField(client, "searchUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/search");
+
+        SpotifyClient.SpotifyMetadata metadata = client.getMetadataByIsrc("GBUM71029604");
+
+        assertEquals("Bohemian Rhapsody", metadata.getTitle());
+        assertEquals("Queen", metadata.getArtist());
+        assertEquals(2, searches.get());
+        assertEquals(2, issued.get());
+    }
+}
@@ -0,0 +1,72 @@
+package com.selfhealing.repertoire.client;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsAvailableImmediatelyThenLimited() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void asyncAcquireCompletesAtTheReservedSlot() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 20, 1);
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> first = limiter.acquireAsync();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        CompletableFuture<Void> third = limiter.acquireAsync();
+        assertTrue(first.isDone());
+        CompletableFuture.allOf(second, third).join();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Two reserved slots at 50ms spacing
+        assertTrue(elapsedMs >= 90, "Finished after " + elapsedMs + " ms");
+        assertEquals(3, limiter.getStats().getAcquired());
+        assertEquals(2, limiter.getStats().getDelayed());
+    }
+
+    @Test
+    void interruptedAcquireDoesNotGrantAPermit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, 1);
+        assertTrue(limiter.tryAcquire());
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedException.class, limiter::acquire);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void waitsAreRecordedOnceBound() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 20, 1);
+        limiter.bindTo(registry);
+
+        limiter.acquireAsync();
+        limiter.acquireAsync().join();
+
+        Timer waits = registry.get("ratelimiter.wait").tag("limiter", "test").timer();
+        assertEquals(2, waits.count());
+        assertTrue(waits.max(TimeUnit.MILLISECONDS) >= 40, "Longest wait " + waits.max(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("ratelimiter.delayed").functionCounter().count());
+    }
+}
@@ -0,0 +1,24 @@
+package com.selfhealing.repertoire.controller;
+
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class RepertoireControllerTest {
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        RecordingRepository recordings = mock(RecordingRepository.class);
+        RepertoireController controller = new RepertoireController(null, recordings, null, null, null, null, null,
+                null, null, null, null, null, null, null);
+
+        // "not a cursor", base64-encoded
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getRecordings("bm90IGEgY3Vyc29y", 50, null, null).getStatusCode());
+        verifyNoInteractions(recordings);
+    }
+}
@@ -0,0 +1,51 @@
+package com.selfhealing.repertoire.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordingCursorTest {
+
+    private static final UUID ID = UUID.fromString("5f0c7d2e-8a1b-4c3d-9e4f-0a1b2c3d4e5f");
+
+    @Test
+    void cursorSurvivesTheRoundTrip() {
+        RecordingCursor cursor = new RecordingCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123456000), ID);
+
+        String token = cursor.encode();
+
+        // URL-safe without padding, so it can go into a query string as is
+        assertEquals(-1, token.indexOf('='));
+        assertEquals(cursor, RecordingCursor.decode(token));
+    }
+
+    @Test
+    void missingTimestampIsEncodedAsADash() {
+        RecordingCursor cursor = new RecordingCursor(null, ID);
+
+        assertEquals("-|" + ID, raw(cursor.encode()));
+        assertEquals(cursor, RecordingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        for (String token : new String[] { "not base64!", encode("no separator"), encode("2026-03-01T12:30|not-a-uuid"),
+                encode("yesterday|" + ID), "" }) {
+            assertThrows(IllegalArgumentException.class, () -> RecordingCursor.decode(token), token);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String raw(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.selfhealing.repertoire.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class RecordingTest {
+
+    @Test
+    void editingTheInputsMakesABackedOffRecordingDueAgain() {
+        Recording recording = new Recording();
+        recording.setRecordingTitle("Bohemian Rapsody");
+        recording.setIsrc("GBUM71029604");
+        recording.setHealAttempts(4);
+        recording.setHealInputHash(recording.currentHealInputHash());
+        LocalDateTime backedOff = LocalDateTime.now().plusDays(8);
+        recording.setNextHealAt(backedOff);
+
+        // Saving without an edit keeps the backoff
+        recording.setStatus("ORPHANED");
+        recording.refreshHealEligibility();
+        assertEquals(backedOff, recording.getNextHealAt());
+        assertEquals(4, recording.getHealAttempts());
+
+        recording.setArtistName("Queen");
+        recording.refreshHealEligibility();
+        assertFalse(recording.getNextHealAt().isAfter(LocalDateTime.now()));
+        assertEquals(0, recording.getHealAttempts());
+    }
+
+    @Test
+    void newRecordingsAreDueStraightAway() {
+        Recording recording = new Recording();
+        recording.setRecordingTitle("Shape of You");
+        recording.refreshHealEligibility();
+        assertNotNull(recording.getNextHealAt());
+        assertFalse(recording.getNextHealAt().isAfter(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.selfhealing.repertoire.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HealingOutboxRepositoryTest {
+
+    private static PostgresTestSchema schema;
+    private static JdbcTemplate jdbcTemplate;
+    private static HealingOutboxRepository outbox;
+
+    @BeforeAll
+    static void createSchema() {
+        schema = PostgresTestSchema.create("outbox_test");
+        jdbcTemplate = schema.getJdbcTemplate();
+        outbox = new HealingOutboxRepository(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        schema.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM healing_outbox");
+        jdbcTemplate.update("DELETE FROM recordings");
+    }
+
+    @Test
+    void takeRemovesTheOldestEntriesFirst() {
+        List<UUID> appended = appendEntries(5);
+
+        // Which entries, not their order: DELETE ... RETURNING doesn't promise one
+        assertEquals(Set.copyOf(appended.subList(0, 2)), Set.copyOf(outbox.take(2)));
+        assertEquals(Set.copyOf(appended.subList(2, 5)), Set.copyOf(outbox.take(10)));
+        assertTrue(outbox.take(10).isEmpty());
+        assertEquals(0, outbox.count());
+    }
+
+    @Test
+    void concurrentTakeSkipsEntriesAnOpenTakeHolds() {
+        List<UUID> appended = appendEntries(6);
+        DataSource otherNode = schema.newDataSource();
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(otherNode));
+        HealingOutboxRepository inTransaction = new HealingOutboxRepository(new JdbcTemplate(otherNode));
+
+        transaction.executeWithoutResult(status -> {
+            // The first take is not committed yet; the second neither waits for it nor returns its entries
+            assertEquals(Set.copyOf(appended.subList(0, 4)), Set.copyOf(inTransaction.take(4)));
+            assertEquals(Set.copyOf(appended.subList(4, 6)), Set.copyOf(outbox.take(10)));
+            status.setRollbackOnly();
+        });
+
+        // Rolled back, so the first four are back for the next taker
+        assertEquals(Set.copyOf(appended.subList(0, 4)), Set.copyOf(outbox.take(10)));
+    }
+
+    @Test
+    void appendWrittenAtQueuesTheOrphansOfOneBulkWrite() {
+        LocalDateTime writtenAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        UUID orphan = insertRecording(writtenAt, false);
+        insertRecording(writtenAt, true);
+        insertRecording(writtenAt.minusMinutes(1), false);
+
+        assertEquals(1, outbox.appendWrittenAt(writtenAt));
+        assertEquals(List.of(orphan), outbox.take(10));
+    }
+
+    private static List<UUID> appendEntries(int count) {
+        List<UUID> appended = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            outbox.append(id);
+            appended.add(id);
+        }
+        return appended;
+    }
+
+    private static UUID insertRecording(LocalDateTime nextHealAt, boolean linked) {
+        UUID id = UUID.randomUUID();
+        UUID workId = null;
+        if (linked) {
+            workId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO works (id, iswc, title, work_type) VALUES (?, ?, 'Work', 'Original')",
+                    workId, "T-" + workId.toString().substring(0, 9) + "-0");
+        }
+        jdbcTemplate.update("""
+                INSERT INTO recordings (id, isrc, work_id, recording_title, status, updated_at, heal_attempts,
+                                        next_heal_at)
+                VALUES (?, ?, ?, 'Recording', 'PENDING', LOCALTIMESTAMP, 0, ?)
+                """, id, "ZZ" + id.toString().substring(0, 10), workId, Timestamp.valueOf(nextHealAt));
+        return id;
+    }
+}
@@ -0,0 +1,44 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.model.Recording;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * JPA-only Spring context (entities, repositories, transactions) on a
+ * {@link PostgresTestSchema}, for testing JPQL and Spring Data queries
+ * without the web layer, schedulers or services. The schema is already
+ * migrated, so Flyway stays off.
+ */
+public final class JpaTestContext {
+
+    private JpaTestContext() {
+    }
+
+    public static ConfigurableApplicationContext start(PostgresTestSchema schema) {
+        // Arguments rather than default properties, so they win over application.properties
+        return new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + schema.getUrl(),
+                        "--spring.datasource.username=" + schema.getUsername(),
+                        "--spring.datasource.password=" + schema.getPassword(),
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.open-in-view=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Not a {@code @Configuration}, so the application's component scan
+     * ignores it.
+     */
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Recording.class)
+    @EnableJpaRepositories(basePackageClasses = RecordingRepository.class)
+    static class JpaOnly {
+    }
+}
@@ -0,0 +1,76 @@
+package com.selfhealing.repertoire.repository;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Throwaway schema, migrated by Flyway, in the PostgreSQL database the
+ * application tests already use (localhost:5432/repertoire_db unless
+ * {@code -Dtest.db.url} says otherwise; credentials from DB_USERNAME /
+ * DB_PASSWORD). Lets JDBC repositories be tested against the real SQL
+ * (upserts, {@code SKIP LOCKED}) without touching the application's data.
+ */
+public final class PostgresTestSchema implements AutoCloseable {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private PostgresTestSchema(String name) {
+        this.name = name;
+        this.dataSource = newDataSource();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static PostgresTestSchema create(String prefix) {
+        String name = (prefix + "_" + UUID.randomUUID().toString().substring(0, 8)).toLowerCase(Locale.ROOT);
+        PostgresTestSchema schema = new PostgresTestSchema(name);
+        Flyway.configure().dataSource(schema.dataSource).schemas(name).load().migrate();
+        return schema;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Another data source on the schema. Spring binds transactions to the
+     * data source, so work through this one runs on connections of its own
+     * even while a transaction on {@link #getDataSource()} is open, as a
+     * second engine instance would.
+     */
+    public DataSource newDataSource() {
+        return new DriverManagerDataSource(getUrl(), getUsername(), getPassword());
+    }
+
+    /**
+     * JDBC URL of the schema, e.g. for a Spring context of its own.
+     */
+    public String getUrl() {
+        String url = System.getProperty("test.db.url", "jdbc:postgresql://localhost:5432/repertoire_db");
+        // pg_trgm's operator classes live in public
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + name + ",public";
+    }
+
+    public String getUsername() {
+        return System.getenv().getOrDefault("DB_USERNAME", "postgres");
+    }
+
+    public String getPassword() {
+        return System.getenv().getOrDefault("DB_PASSWORD", "password");
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + name + " CASCADE");
+    }
+}
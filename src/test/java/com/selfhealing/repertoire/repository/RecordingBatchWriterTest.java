@@ -0,0 +1,68 @@
+package com.selfhealing.repertoire.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecordingBatchWriterTest {
+
+    private static PostgresTestSchema schema;
+    private static JdbcTemplate jdbcTemplate;
+    private static RecordingBatchWriter writer;
+
+    @BeforeAll
+    static void createSchema() {
+        schema = PostgresTestSchema.create("batch_writer_test");
+        jdbcTemplate = schema.getJdbcTemplate();
+        writer = new RecordingBatchWriter(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        schema.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM recordings");
+    }
+
+    @Test
+    void upsertInsertsNewIsrcsAndUpdatesExistingOnes() {
+        writer.upsert(List.of(
+                new RecordingBatchWriter.RecordingRow("Bohemian Rhapsody", "Queen", "GBUM71029604"),
+                new RecordingBatchWriter.RecordingRow("Untitled", null, null)));
+        assertEquals(Set.of("GBUM71029604"), writer.findExistingIsrcs(List.of("GBUM71029604", "GBAHS1600463")));
+
+        writer.upsert(List.of(
+                new RecordingBatchWriter.RecordingRow("Bohemian Rhapsody (Remastered)", null, "GBUM71029604"),
+                new RecordingBatchWriter.RecordingRow("Shape of You", "Ed Sheeran", "GBAHS1600463")));
+
+        Map<String, Object> updated = jdbcTemplate.queryForMap(
+                "SELECT recording_title, artist_name, status FROM recordings WHERE isrc = 'GBUM71029604'");
+        assertEquals("Bohemian Rhapsody (Remastered)", updated.get("recording_title"));
+        assertEquals("Queen", updated.get("artist_name"));
+        assertEquals("PENDING", updated.get("status"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM recordings", Integer.class));
+    }
+
+    @Test
+    void unchangedRowsKeepTheirHealingBackoff() {
+        writer.upsert(List.of(new RecordingBatchWriter.RecordingRow("Creep", "Radiohead", "GBAYE9200070")));
+        jdbcTemplate.update("UPDATE recordings SET heal_attempts = 3, next_heal_at = LOCALTIMESTAMP + INTERVAL '8 hours'");
+
+        writer.upsert(List.of(new RecordingBatchWriter.RecordingRow("Creep", null, "GBAYE9200070")));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT heal_attempts FROM recordings", Integer.class));
+
+        writer.upsert(List.of(new RecordingBatchWriter.RecordingRow("Creep (Acoustic)", null, "GBAYE9200070")));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT heal_attempts FROM recordings", Integer.class));
+    }
+}
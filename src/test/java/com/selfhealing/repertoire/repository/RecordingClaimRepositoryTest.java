@@ -0,0 +1,162 @@
+package com.selfhealing.repertoire.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingClaimRepositoryTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(30);
+
+    private static PostgresTestSchema schema;
+    private static JdbcTemplate jdbcTemplate;
+    private static RecordingClaimRepository claims;
+
+    @BeforeAll
+    static void createSchema() {
+        schema = PostgresTestSchema.create("claim_test");
+        jdbcTemplate = schema.getJdbcTemplate();
+        claims = new RecordingClaimRepository(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        schema.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM recordings");
+    }
+
+    @Test
+    void concurrentClaimersGetDisjointShares() throws Exception {
+        insertDueOrphans(2000);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<UUID>>> shares = new ArrayList<>();
+            for (String node : List.of("node-a", "node-b")) {
+                // Each claimer on its own connections, as two engine instances would be
+                RecordingClaimRepository claimer = new RecordingClaimRepository(new JdbcTemplate(schema.getDataSource()));
+                shares.add(nodes.submit(() -> {
+                    start.await();
+                    List<UUID> claimed = new ArrayList<>();
+                    List<UUID> chunk;
+                    while (!(chunk = claimer.claimDue(node, 50, LEASE)).isEmpty()) {
+                        claimed.addAll(chunk);
+                    }
+                    return claimed;
+                }));
+            }
+            start.countDown();
+            List<UUID> a = shares.get(0).get(1, TimeUnit.MINUTES);
+            List<UUID> b = shares.get(1).get(1, TimeUnit.MINUTES);
+
+            Set<UUID> overlap = new HashSet<>(a);
+            overlap.retainAll(b);
+            assertTrue(overlap.isEmpty(), "claimed by both nodes: " + overlap);
+            assertEquals(2000, a.size() + b.size());
+            assertEquals(a.size(), count("claimed_by = 'node-a'"));
+            assertEquals(b.size(), count("claimed_by = 'node-b'"));
+        } finally {
+            nodes.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimSkipsRowsLockedByAnOpenClaim() {
+        insertDueOrphans(10);
+        DataSource otherNode = schema.newDataSource();
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(otherNode));
+        RecordingClaimRepository inTransaction = new RecordingClaimRepository(new JdbcTemplate(otherNode));
+
+        transaction.executeWithoutResult(status -> {
+            // node-a's claim is not committed yet; node-b neither waits for it nor takes its rows
+            List<UUID> a = inTransaction.claimDue("node-a", 4, LEASE);
+            List<UUID> b = claims.claimDue("node-b", 10, LEASE);
+            assertEquals(4, a.size());
+            assertEquals(6, b.size());
+            assertTrue(b.stream().noneMatch(a::contains));
+        });
+        assertEquals(4, count("claimed_by = 'node-a'"));
+    }
+
+    @Test
+    void lapsedLeasesCanBeClaimedAgain() {
+        insertDueOrphans(3);
+        claims.claimDue("node-a", 3, LEASE);
+        assertTrue(claims.claimDue("node-b", 3, LEASE).isEmpty());
+
+        jdbcTemplate.update("UPDATE recordings SET claim_expires_at = LOCALTIMESTAMP - INTERVAL '1 minute'");
+        assertEquals(3, claims.claimDue("node-b", 3, LEASE).size());
+    }
+
+    @Test
+    void releaseOnlyDropsTheCallersLease() {
+        insertDueOrphans(2);
+        List<UUID> ids = claims.claimDue("node-a", 2, LEASE);
+
+        claims.release("node-b", ids.get(0));
+        assertEquals(2, count("claimed_by = 'node-a'"));
+
+        claims.release("node-a", ids.get(0));
+        assertNull(jdbcTemplate.queryForObject("SELECT claim_expires_at FROM recordings WHERE id = ?",
+                java.time.LocalDateTime.class, ids.get(0)));
+        assertEquals(List.of(ids.get(0)), claims.claimDue("node-b", 2, LEASE));
+    }
+
+    @Test
+    void rescheduleOnlyMovesUnleasedOrphansInBackoff() {
+        insertDueOrphans(4);
+        jdbcTemplate.update("UPDATE recordings SET next_heal_at = LOCALTIMESTAMP + INTERVAL '1 day', heal_attempts = 3");
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM recordings ORDER BY id", UUID.class);
+        jdbcTemplate.update("UPDATE recordings SET status = 'ERROR' WHERE id = ?", ids.get(0));
+        jdbcTemplate.update("""
+                UPDATE recordings SET claimed_by = 'node-a', claim_expires_at = LOCALTIMESTAMP + INTERVAL '1 hour'
+                WHERE id = ?
+                """, ids.get(1));
+
+        LocalDateTime dueAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        assertEquals(2, claims.rescheduleOrphans(dueAt));
+        assertEquals(2, count("next_heal_at <= LOCALTIMESTAMP"));
+        assertEquals(4, count("heal_attempts = 3"));
+        assertEquals(Set.copyOf(ids.subList(2, 4)), Set.copyOf(claims.claimDue("node-b", 4, LEASE)));
+    }
+
+    private static void insertDueOrphans(int count) {
+        jdbcTemplate.update("""
+                INSERT INTO recordings (id, isrc, recording_title, status, updated_at, heal_attempts, next_heal_at)
+                SELECT gen_random_uuid(), 'ZZ' || lpad(i::text, 10, '0'), 'Recording ' || i, 'ORPHANED',
+                       LOCALTIMESTAMP, 0, LOCALTIMESTAMP - INTERVAL '1 minute'
+                FROM generate_series(1, ?) i
+                """, count);
+    }
+
+    private static int count(String where) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM recordings WHERE " + where, Integer.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.selfhealing.repertoire.repository;
+
+import com.selfhealing.repertoire.dto.RecordingCursor;
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.dto.RecordingFilter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset pagination and DTO projections of {@link RecordingQueryRepositoryImpl}
+ * against a throwaway PostgreSQL schema.
+ */
+class RecordingQueryRepositoryTest {
+
+    private static final LocalDateTime SHARED = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final UUID WORK_ID = UUID.fromString("00000000-0000-0000-0000-00000000b001");
+
+    private static PostgresTestSchema schema;
+    private static ConfigurableApplicationContext context;
+    private static RecordingRepository repository;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        schema = PostgresTestSchema.create("recording_query_test");
+        context = JpaTestContext.start(schema);
+        repository = context.getBean(RecordingRepository.class);
+        jdbcTemplate = schema.getJdbcTemplate();
+
+        jdbcTemplate.update("INSERT INTO works (id, iswc, title, work_type) VALUES (?, 'T-010.154.444-5', "
+                + "'Bohemian Rhapsody', 'Song')", WORK_ID);
+        // 23 recordings on one timestamp, so most page boundaries fall between equal updated_at values;
+        // every third is linked
+        jdbcTemplate.update("""
+                INSERT INTO recordings (id, isrc, work_id, recording_title, artist_name, status, updated_at,
+                                        heal_attempts, next_heal_at)
+                SELECT md5('r' || i)::uuid, 'ZZ' || lpad(i::text, 10, '0'),
+                       CASE WHEN i % 3 = 0 THEN ?::uuid END,
+                       'Recording ' || i, 'Artist ' || i,
+                       CASE WHEN i % 3 = 0 THEN 'HEALED' ELSE 'ORPHANED' END,
+                       ? + CASE WHEN i > 23 THEN (i - 23) * INTERVAL '1 minute'
+                                WHEN i > 20 THEN -(i - 20) * INTERVAL '1 minute'
+                                ELSE INTERVAL '0' END,
+                       0, LOCALTIMESTAMP
+                FROM generate_series(1, 30) i
+                """, WORK_ID, SHARED);
+    }
+
+    @AfterAll
+    static void drop() {
+        context.close();
+        schema.close();
+    }
+
+    @Test
+    void pagesThroughEqualTimestampsWithoutDuplicatesOrGaps() {
+        for (int pageSize : new int[] { 1, 4, 7, 30 }) {
+            List<RecordingDTO> all = pageThrough(null, pageSize);
+
+            assertEquals(30, all.size(), "page size " + pageSize);
+            assertEquals(allIds(""), ids(all), "page size " + pageSize);
+            assertEquals(repository.findPage(null, null, 100), all, "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void filteredPagesFollowTheSameOrder() {
+        List<RecordingDTO> orphans = pageThrough(new RecordingFilter(null, true), 3);
+        assertEquals(allIds("WHERE work_id IS NULL"), ids(orphans));
+        assertEquals(orphans.size(), Set.copyOf(ids(orphans)).size());
+
+        List<RecordingDTO> healed = pageThrough(new RecordingFilter("HEALED", null), 2);
+        assertEquals(allIds("WHERE status = 'HEALED'"), ids(healed));
+        assertTrue(healed.stream().allMatch(dto -> dto.getWork() != null));
+    }
+
+    @Test
+    void projectionCarriesTheWorkOrNull() {
+        RecordingDTO linked = repository.findDtoById(id(3)).orElseThrow();
+        assertEquals("Recording 3", linked.getRecordingTitle());
+        assertEquals(new RecordingDTO.WorkDTO(WORK_ID, "T-010.154.444-5", "Bohemian Rhapsody", "Song"),
+                linked.getWork());
+
+        RecordingDTO orphan = repository.findDtoById(id(4)).orElseThrow();
+        assertEquals("ZZ0000000004", orphan.getIsrc());
+        assertEquals("ORPHANED", orphan.getStatus());
+        assertEquals(SHARED, orphan.getUpdatedAt());
+        assertNull(orphan.getWork());
+
+        assertFalse(repository.findDtoById(UUID.randomUUID()).isPresent());
+        // The left join keeps orphans in listings, with no Work
+        assertTrue(repository.findPage(new RecordingFilter(null, true), null, 100).stream()
+                .allMatch(dto -> dto.getWork() == null));
+    }
+
+    /**
+     * Follows cursors the way a client does: each page starts after the
+     * last row of the previous one, through an encoded token.
+     */
+    private static List<RecordingDTO> pageThrough(RecordingFilter filter, int pageSize) {
+        List<RecordingDTO> all = new ArrayList<>();
+        RecordingCursor after = null;
+        while (true) {
+            List<RecordingDTO> page = repository.findPage(filter, after, pageSize);
+            all.addAll(page);
+            if (page.size() < pageSize) {
+                return all;
+            }
+            RecordingDTO last = page.get(page.size() - 1);
+            after = RecordingCursor.decode(new RecordingCursor(last.getUpdatedAt(), last.getId()).encode());
+        }
+    }
+
+    // Ids in listing order, as PostgreSQL orders them
+    private static List<UUID> allIds(String where) {
+        return jdbcTemplate.queryForList("SELECT id FROM recordings " + where
+                + " ORDER BY updated_at DESC NULLS LAST, id DESC", UUID.class);
+    }
+
+    private static List<UUID> ids(List<RecordingDTO> dtos) {
+        List<UUID> ids = new ArrayList<>(dtos.size());
+        Set<UUID> seen = new HashSet<>();
+        for (RecordingDTO dto : dtos) {
+            assertTrue(seen.add(dto.getId()), "returned twice: " + dto.getId());
+            ids.add(dto.getId());
+        }
+        return ids;
+    }
+
+    private static UUID id(int i) {
+        return jdbcTemplate.queryForObject("SELECT md5('r' || ?)::uuid", UUID.class, i);
+    }
+}
@@ -0,0 +1,48 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.repository.RecordingBatchWriter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchProcessingServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedIsrcsAreFoldedBeforeTheBatchUpsert() {
+        RecordingBatchWriter writer = mock(RecordingBatchWriter.class);
+        when(writer.findExistingIsrcs(any())).thenReturn(Set.of("GBUM71029604"));
+        BatchProcessingService service = new BatchProcessingService();
+        ReflectionTestUtils.setField(service, "batchWriter", writer);
+        ReflectionTestUtils.setField(service, "statsService", mock(RecordingStatsService.class));
+        ReflectionTestUtils.setField(service, "healingQueue", mock(HealingQueue.class));
+
+        BatchProcessingService.ChunkResult result = service.upsertChunk(List.of(
+                new String[] { "Bohemian Rhapsody", "Queen", "GBUM71029604" },
+                new String[] { "Bohemian Rhapsody (Remastered)", "", "GBUM71029604" },
+                new String[] { "Shape of You", "Ed Sheeran", "GBAHS1600463" },
+                new String[] { "Untitled", null, null },
+                new String[] { "Too Long", null, "GBAHS16004631" },
+                new String[] { " ", "Nobody", "GBAHS1600464" }));
+
+        ArgumentCaptor<List<RecordingBatchWriter.RecordingRow>> written = ArgumentCaptor.forClass(List.class);
+        verify(writer).upsert(written.capture());
+        assertEquals(List.of(
+                new RecordingBatchWriter.RecordingRow("Untitled", null, null),
+                new RecordingBatchWriter.RecordingRow("Bohemian Rhapsody (Remastered)", "Queen", "GBUM71029604"),
+                new RecordingBatchWriter.RecordingRow("Shape of You", "Ed Sheeran", "GBAHS1600463")),
+                written.getValue());
+        assertEquals(2, result.inserted);
+        assertEquals(1, result.updated);
+        assertEquals(3, result.skipped);
+    }
+}
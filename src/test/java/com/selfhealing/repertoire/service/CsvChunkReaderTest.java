@@ -0,0 +1,42 @@
+package com.selfhealing.repertoire.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvChunkReaderTest {
+
+    @Test
+    void tsvTakesQuotesAndBackslashesLiterally() throws Exception {
+        String tsv = """
+                title\tiswc\ttype
+                Love Song (12" Mix)\tT-070.100.200-1\tSong
+                C:\\Path\\To\\Nowhere\t\tSong
+                "Quoted"\t\t
+                """;
+        try (CsvChunkReader reader = new CsvChunkReader(new StringReader(tsv), '\t')) {
+            List<String[]> rows = reader.readChunk(10);
+
+            assertEquals(3, rows.size());
+            assertArrayEquals(new String[] { "Love Song (12\" Mix)", "T-070.100.200-1", "Song" }, rows.get(0));
+            assertArrayEquals(new String[] { "C:\\Path\\To\\Nowhere", "", "Song" }, rows.get(1));
+            assertArrayEquals(new String[] { "\"Quoted\"", "", "" }, rows.get(2));
+        }
+    }
+
+    @Test
+    void csvStillHonoursQuotedFields() throws Exception {
+        String csv = """
+                title,artist,isrc
+                "Hello, Goodbye",The Beatles,GBAYE6700149
+                """;
+        try (CsvChunkReader reader = new CsvChunkReader(new StringReader(csv))) {
+            assertArrayEquals(new String[] { "Hello, Goodbye", "The Beatles", "GBAYE6700149" },
+                    reader.readChunk(10).get(0));
+        }
+    }
+}
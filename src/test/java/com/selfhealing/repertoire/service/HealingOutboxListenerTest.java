@@ -0,0 +1,54 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.model.Recording;
+import com.selfhealing.repertoire.model.Work;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HealingOutboxListenerTest {
+
+    private final HealingQueue queue = mock(HealingQueue.class);
+    private final HealingOutboxListener listener = new HealingOutboxListener(
+            new StaticListableBeanFactory(Map.of("healingQueue", queue)).getBeanProvider(HealingQueue.class));
+
+    @Test
+    void newOrEditedOrphanIsPublishedOnce() {
+        Recording recording = recording(true);
+
+        listener.onSave(recording);
+        // A second flush of the same entity must not publish it again
+        listener.onSave(recording);
+
+        verify(queue).publish(recording.getId());
+        assertFalse(recording.isHealInputsChanged());
+    }
+
+    @Test
+    void unchangedOrLinkedRecordingsAreNotPublished() {
+        listener.onSave(recording(false));
+
+        Recording linked = recording(true);
+        linked.setWork(new Work());
+        listener.onSave(linked);
+
+        verify(queue, never()).publish(any());
+        assertFalse(linked.isHealInputsChanged());
+    }
+
+    private static Recording recording(boolean healInputsChanged) {
+        Recording recording = new Recording();
+        recording.setId(UUID.randomUUID());
+        ReflectionTestUtils.setField(recording, "healInputsChanged", healInputsChanged);
+        return recording;
+    }
+}
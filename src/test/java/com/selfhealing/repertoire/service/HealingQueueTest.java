@@ -0,0 +1,59 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.repository.HealingOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HealingQueueTest {
+
+    private final HealingOutboxRepository outbox = mock(HealingOutboxRepository.class);
+
+    @Test
+    void publishingWakesTheHealerOnlyAfterCommit() throws InterruptedException {
+        HealingQueue queue = queue("continuous");
+        UUID id = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            queue.publish(id);
+            verify(outbox).append(id);
+            assertFalse(queue.awaitWork(Duration.ZERO));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(queue.awaitWork(Duration.ZERO));
+    }
+
+    @Test
+    void scheduledModeWritesNoOutboxEntries() throws InterruptedException {
+        HealingQueue queue = queue("scheduled");
+
+        queue.publish(UUID.randomUUID());
+        queue.publishWrittenAt(java.time.LocalDateTime.now());
+
+        verify(outbox, never()).append(any());
+        verify(outbox, never()).appendWrittenAt(any());
+        assertFalse(queue.awaitWork(Duration.ZERO));
+    }
+
+    private HealingQueue queue(String mode) {
+        HealingQueue queue = new HealingQueue();
+        ReflectionTestUtils.setField(queue, "outboxRepository", outbox);
+        ReflectionTestUtils.setField(queue, "mode", mode);
+        return queue;
+    }
+}
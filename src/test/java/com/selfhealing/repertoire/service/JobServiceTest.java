@@ -0,0 +1,91 @@
+package com.selfhealing.repertoire.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JobServiceTest {
+
+    private final JobService jobService = new JobService(1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void overlappingSubmissionsShareOneJob() throws Exception {
+        Job first = jobService.submit(Job.Type.HEAL, "heal:all", "all", null, job -> blockUntilReleased());
+        Job second = jobService.submit(Job.Type.HEAL, "heal:all", "all again", null, job -> {
+        });
+        assertSame(first, second);
+
+        release.countDown();
+        assertEquals(Job.Status.COMPLETED, first.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+
+        // Once finished, the key is free again
+        Job third = jobService.submit(Job.Type.HEAL, "heal:all", "all", null, job -> job.addProcessed(3));
+        assertNotSame(first, third);
+        assertEquals(3, third.getCompletion().get(5, TimeUnit.SECONDS).getProcessed());
+    }
+
+    @Test
+    void queuedJobCancelsImmediatelyAndFullQueueRejects() throws Exception {
+        Job running = jobService.submit(Job.Type.BATCH_IMPORT, null, "running", null, job -> blockUntilReleased());
+        Job queued = jobService.submit(Job.Type.BATCH_IMPORT, null, "queued", null, job -> {
+            throw new AssertionError("Cancelled job must not run");
+        });
+        assertThrows(RejectedExecutionException.class,
+                () -> jobService.submit(Job.Type.BATCH_IMPORT, null, "overflow", null, job -> {
+                }));
+
+        jobService.cancel(queued.getId());
+        assertEquals(Job.Status.CANCELLED, queued.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+
+        jobService.cancel(running.getId());
+        release.countDown();
+        assertEquals(Job.Status.CANCELLED, running.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void dedicatedJobLeavesThePoolFreeAndRestartsAfterCancel() throws Exception {
+        Job continuous = jobService.startDedicated(Job.Type.HEAL, "heal:continuous", "continuous", null,
+                JobServiceTest::runUntilCancelled);
+        assertSame(continuous, jobService.startDedicated(Job.Type.HEAL, "heal:continuous", "again", null,
+                JobServiceTest::runUntilCancelled));
+
+        // The only pool worker is still free
+        Job imported = jobService.submit(Job.Type.BATCH_IMPORT, null, "import", null, job -> job.addProcessed(1));
+        assertEquals(Job.Status.COMPLETED, imported.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(Job.Status.RUNNING, continuous.getStatus());
+
+        jobService.cancel(continuous.getId());
+        assertEquals(Job.Status.CANCELLED, continuous.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+
+        Job restarted = jobService.startDedicated(Job.Type.HEAL, "heal:continuous", "continuous", null,
+                JobServiceTest::runUntilCancelled);
+        assertNotSame(continuous, restarted);
+        jobService.cancel(restarted.getId());
+        assertEquals(Job.Status.CANCELLED, restarted.getCompletion().get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    private static void runUntilCancelled(Job job) throws InterruptedException {
+        while (!job.isCancelRequested()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void blockUntilReleased() throws InterruptedException {
+        release.await(5, TimeUnit.SECONDS);
+    }
+}
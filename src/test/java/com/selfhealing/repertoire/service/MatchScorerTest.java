@@ -0,0 +1,125 @@
+package com.selfhealing.repertoire.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MatchScorerTest {
+
+    private static final double THRESHOLD = 0.9;
+    private static final String[] WORDS = { "love", "night", "heart", "fire", "dance", "dream", "rain", "blue",
+            "summer", "shape", "of", "you", "the", "bohemian", "rhapsody", "yesterday", "hotel", "california" };
+    private static final String[] ARTISTS = { "queen", "adele", "the weeknd", "beyonce", "ed sheeran", "abba" };
+
+    private final TextNormalizer normalizer = new TextNormalizer();
+    private final MatchScorer scorer = new MatchScorer(normalizer);
+    private final Random random = new Random(7);
+
+    @Test
+    void titlesAreNormalized() {
+        assertEquals("bohemian rhapsody", normalizer.title("Bohemian Rhapsody (Remastered 2011)"));
+        assertEquals("stairway to heaven",
+                normalizer.title("Stairway To Heaven - Remastered 2012 Deluxe Edition (feat. Someone)"));
+        assertEquals("creme brulee", normalizer.title("Crème Brûlée [Live] feat. Somebody Else"));
+        assertEquals("levels", normalizer.title("LEVELS Remix"));
+        assertEquals("intro", normalizer.title("(Intro)"));
+        assertEquals("beyonce", normalizer.artist("Beyoncé feat. JAY-Z"));
+        assertNull(normalizer.artist("  "));
+    }
+
+    @Test
+    void artistAndDurationSeparateWorksWithTheSameTitle() {
+        WorkCandidateIndex.Candidate cover = candidate("yesterday", "boyz ii men", 180_000);
+        WorkCandidateIndex.Candidate original = candidate("yesterday", "the beatles", 125_000);
+        MatchScorer.Query query = scorer.query("Yesterday (Remastered 2009)", "The Beatles", 126_000);
+
+        MatchScorer.Match match = scorer.bestMatch(query, List.of(cover, original), THRESHOLD);
+
+        assertNotNull(match);
+        assertEquals(original.getWorkId(), match.getWorkId());
+        assertEquals(1.0, match.getScore(), 1e-12);
+    }
+
+    @Test
+    void worksWithoutLinkedRecordingsAreJudgedOnTitleAlone() {
+        WorkCandidateIndex.Candidate bare = candidate("bohemian rhapsody", null, null);
+        MatchScorer.Query query = scorer.query("Bohemian Rapsody", "Queen", 354_000);
+
+        assertEquals(new org.apache.commons.text.similarity.JaroWinklerSimilarity()
+                .apply("bohemian rapsody", "bohemian rhapsody"), scorer.score(query, bare), 1e-12);
+    }
+
+    @Test
+    void prunedScanFindsTheSameMatchAsScoringEveryCandidate() {
+        List<WorkCandidateIndex.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            candidates.add(candidate(title(), random.nextInt(3) == 0 ? null : ARTISTS[random.nextInt(ARTISTS.length)],
+                    random.nextInt(3) == 0 ? null : 120_000 + random.nextInt(120_000)));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            WorkCandidateIndex.Candidate target = candidates.get(random.nextInt(candidates.size()));
+            String title = i % 2 == 0 ? typo(target.getTitle()) : title();
+            MatchScorer.Query query = scorer.query(title,
+                    random.nextBoolean() ? ARTISTS[random.nextInt(ARTISTS.length)] : null,
+                    random.nextBoolean() ? 120_000 + random.nextInt(120_000) : null);
+
+            UUID expectedId = null;
+            double expectedScore = 0.0;
+            for (WorkCandidateIndex.Candidate candidate : candidates) {
+                double score = scorer.score(query, candidate);
+                if (score > expectedScore) {
+                    expectedScore = score;
+                    expectedId = candidate.getWorkId();
+                }
+            }
+
+            MatchScorer.Match match = scorer.bestMatch(query, candidates, THRESHOLD);
+            if (expectedScore >= THRESHOLD) {
+                assertNotNull(match, "No match for '" + title + "'");
+                assertEquals(expectedId, match.getWorkId(), "Different match for '" + title + "'");
+                assertEquals(expectedScore, match.getScore(), 1e-12);
+            } else {
+                assertNull(match, "Spurious match for '" + title + "'");
+            }
+        }
+    }
+
+    @Test
+    void titleThresholdIsTheLowestTitleScoreThatCanStillMatch() {
+        assertEquals(THRESHOLD, scorer.titleThreshold(scorer.query("a", null, null), THRESHOLD), 1e-12);
+        // 0.7 * t + 0.3 >= 0.9
+        assertEquals(6.0 / 7, scorer.titleThreshold(scorer.query("a", "b", 1000), THRESHOLD), 1e-12);
+    }
+
+    private WorkCandidateIndex.Candidate candidate(String title, String artist, Integer durationMs) {
+        return new WorkCandidateIndex.Candidate(UUID.randomUUID(), normalizer.title(title), normalizer.artist(artist),
+                durationMs);
+    }
+
+    private String title() {
+        int words = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private String typo(String title) {
+        StringBuilder s = new StringBuilder(title);
+        int pos = random.nextInt(s.length());
+        s.setCharAt(pos, (char) ('a' + random.nextInt(26)));
+        return s.toString();
+    }
+}
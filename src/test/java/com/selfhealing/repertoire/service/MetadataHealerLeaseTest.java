@@ -0,0 +1,157 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.DashboardStats;
+import com.selfhealing.repertoire.model.Recording;
+import com.selfhealing.repertoire.repository.PostgresTestSchema;
+import com.selfhealing.repertoire.repository.RecordingClaimRepository;
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Full healing runs against real recording leases: healRecording itself is
+ * stubbed, the claims and releases go to a throwaway PostgreSQL schema.
+ */
+class MetadataHealerLeaseTest {
+
+    private static PostgresTestSchema schema;
+    private static JdbcTemplate jdbcTemplate;
+
+    private MetadataHealerService healer;
+    private Job job;
+
+    @BeforeAll
+    static void createSchema() {
+        schema = PostgresTestSchema.create("healer_lease_test");
+        jdbcTemplate = schema.getJdbcTemplate();
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        schema.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM recordings");
+
+        RecordingRepository recordings = mock(RecordingRepository.class);
+        when(recordings.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Recording> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                Recording recording = new Recording();
+                recording.setId((UUID) id);
+                found.add(recording);
+            }
+            return found;
+        });
+        SpotifyEnrichmentStage enrichment = mock(SpotifyEnrichmentStage.class);
+        when(enrichment.prepare(anyCollection())).thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+        RecordingStatsService stats = mock(RecordingStatsService.class);
+        when(stats.getStats()).thenReturn(new DashboardStats());
+
+        healer = spy(new MetadataHealerService());
+        ReflectionTestUtils.setField(healer, "recordingRepository", recordings);
+        ReflectionTestUtils.setField(healer, "enrichmentStage", enrichment);
+        ReflectionTestUtils.setField(healer, "statsService", stats);
+        ReflectionTestUtils.setField(healer, "claimRepository", new RecordingClaimRepository(jdbcTemplate));
+        ReflectionTestUtils.setField(healer, "metrics", new HealingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(healer, "nodeId", "node-a");
+        ReflectionTestUtils.setField(healer, "workerCount", 1);
+        ReflectionTestUtils.setField(healer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(healer, "claimSize", 4);
+        ReflectionTestUtils.setField(healer, "claimLease", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(healer, "initialBackoff", Duration.ofHours(1));
+        job = new Job(Job.Type.HEAL, "Heal all orphans", null);
+    }
+
+    @Test
+    void cancelledRunLeavesNoLeaseBehind() {
+        insertDueOrphans(10);
+        doAnswer(invocation -> {
+            job.requestCancel();
+            return savedAsNoMatch(invocation.getArgument(0));
+        }).when(healer).healRecording(any(), any(), any());
+
+        runFullHealing();
+
+        // One attempt; the queued task and the unsubmitted rows of the claim were handed back
+        assertEquals(1, count("next_heal_at > LOCALTIMESTAMP"));
+        assertEquals(0, count("claimed_by IS NOT NULL"));
+    }
+
+    @Test
+    void unsavedOutcomeIsPostponedAndReleased() {
+        insertDueOrphans(3);
+        doThrow(new IllegalStateException("connection refused")).when(healer).healRecording(any(), any(), any());
+
+        runFullHealing();
+
+        assertEquals(3, count("next_heal_at > LOCALTIMESTAMP + INTERVAL '50 minutes'"));
+        assertEquals(0, count("claimed_by IS NOT NULL"));
+    }
+
+    @Test
+    void runStopsWhenAttemptedRowsStayDue() {
+        insertDueOrphans(3);
+        AtomicInteger attempts = new AtomicInteger();
+        // Returns as if saved, yet leaves the rows due: the next claim gets the same rows back
+        doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            return "No match found";
+        }).when(healer).healRecording(any(), any(), any());
+
+        runFullHealing();
+
+        assertEquals(3, attempts.get());
+        assertEquals(0, count("claimed_by IS NOT NULL"));
+    }
+
+    private void runFullHealing() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> healer.performHealing(List.of(), new HealingReport(), job));
+    }
+
+    private static String savedAsNoMatch(Recording recording) {
+        jdbcTemplate.update("UPDATE recordings SET next_heal_at = LOCALTIMESTAMP + INTERVAL '1 hour' WHERE id = ?",
+                recording.getId());
+        return "No match found";
+    }
+
+    private static void insertDueOrphans(int count) {
+        jdbcTemplate.update("""
+                INSERT INTO recordings (id, isrc, recording_title, status, updated_at, heal_attempts, next_heal_at)
+                SELECT gen_random_uuid(), 'ZZ' || lpad(i::text, 10, '0'), 'Recording ' || i, 'ORPHANED',
+                       LOCALTIMESTAMP, 0, LOCALTIMESTAMP - INTERVAL '1 minute'
+                FROM generate_series(1, ?) i
+                """, count);
+    }
+
+    private static int count(String where) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM recordings WHERE " + where, Integer.class);
+    }
+}
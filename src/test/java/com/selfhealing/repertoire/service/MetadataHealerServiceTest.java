@@ -0,0 +1,97 @@
+package com.selfhealing.repertoire.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selfhealing.repertoire.client.CachingLookupClient;
+import com.selfhealing.repertoire.client.LookupCache;
+import com.selfhealing.repertoire.client.MusicBrainzClient;
+import com.selfhealing.repertoire.client.SpotifyClient;
+import com.selfhealing.repertoire.client.UpstreamLookupException;
+import com.selfhealing.repertoire.client.UpstreamResponseException;
+import com.selfhealing.repertoire.model.Recording;
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetadataHealerServiceTest {
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheMax() {
+        MetadataHealerService healer = new MetadataHealerService();
+        ReflectionTestUtils.setField(healer, "initialBackoff", Duration.ofHours(1));
+        ReflectionTestUtils.setField(healer, "maxBackoff", Duration.ofDays(1));
+
+        assertEquals(Duration.ofHours(1), healer.backoff(1));
+        assertEquals(Duration.ofHours(2), healer.backoff(2));
+        assertEquals(Duration.ofHours(16), healer.backoff(5));
+        assertEquals(Duration.ofDays(1), healer.backoff(6));
+        assertEquals(Duration.ofDays(1), healer.backoff(500));
+    }
+
+    @Test
+    void upstreamFailureRetriesAfterTheInitialDelayWithoutCountingTheAttempt() {
+        MusicBrainzClient musicBrainz = mock(MusicBrainzClient.class);
+        when(musicBrainz.findIswcByIsrc("GBUM71029604"))
+                .thenThrow(new UpstreamLookupException("musicbrainz request failed: HTTP 503", null));
+        LookupCache cache = new LookupCache(null, Duration.ofDays(30), Duration.ofHours(24), 100, false);
+        MetadataHealerService healer = healerWith(musicBrainz, cache);
+        Recording recording = orphanWithAttempts(6);
+
+        String result = healer.healRecording(recording, new HealingReport(), null);
+
+        assertEquals("Connection Interrupted", result);
+        assertEquals("ERROR", recording.getStatus());
+        // Not a "no match": the backoff stays where it was, and the answer isn't cached
+        assertEquals(6, recording.getHealAttempts());
+        LocalDateTime expected = LocalDateTime.now().plusHours(1);
+        assertTrue(Duration.between(recording.getNextHealAt(), expected).abs().toMinutes() < 1,
+                "next heal at " + recording.getNextHealAt());
+        assertTrue(cache.peek("mb:isrc:GBUM71029604").isEmpty());
+    }
+
+    @Test
+    void unreadableUpstreamResponseCountsTheAttempt() {
+        MusicBrainzClient musicBrainz = mock(MusicBrainzClient.class);
+        when(musicBrainz.findIswcByIsrc("GBUM71029604"))
+                .thenThrow(new UpstreamResponseException("musicbrainz returned an unreadable response", null));
+        MetadataHealerService healer = healerWith(musicBrainz,
+                new LookupCache(null, Duration.ofDays(30), Duration.ofHours(24), 100, false));
+        Recording recording = orphanWithAttempts(6);
+
+        healer.healRecording(recording, new HealingReport(), null);
+
+        // The same payload would come back, so the recording backs off as after a miss
+        assertEquals("ERROR", recording.getStatus());
+        assertEquals(7, recording.getHealAttempts());
+        LocalDateTime expected = LocalDateTime.now().plusHours(64);
+        assertTrue(Duration.between(recording.getNextHealAt(), expected).abs().toMinutes() < 1,
+                "next heal at " + recording.getNextHealAt());
+    }
+
+    private static MetadataHealerService healerWith(MusicBrainzClient musicBrainz, LookupCache cache) {
+        MetadataHealerService healer = new MetadataHealerService();
+        ReflectionTestUtils.setField(healer, "lookupClient",
+                new CachingLookupClient(musicBrainz, mock(SpotifyClient.class), cache, new ObjectMapper()));
+        ReflectionTestUtils.setField(healer, "recordingRepository", mock(RecordingRepository.class));
+        ReflectionTestUtils.setField(healer, "metrics", new HealingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(healer, "initialBackoff", Duration.ofHours(1));
+        ReflectionTestUtils.setField(healer, "maxBackoff", Duration.ofDays(30));
+        return healer;
+    }
+
+    private static Recording orphanWithAttempts(int attempts) {
+        Recording recording = new Recording();
+        recording.setIsrc("GBUM71029604");
+        recording.setRecordingTitle("Bohemian Rhapsody");
+        recording.setHealAttempts(attempts);
+        return recording;
+    }
+}
@@ -0,0 +1,60 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.DashboardStats;
+import com.selfhealing.repertoire.repository.RecordingRepository;
+import com.selfhealing.repertoire.repository.StatusCountView;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecordingStatsServiceTest {
+
+    @Test
+    void countersFollowChangesWithoutQueryingAgain() {
+        RecordingRepository repository = mock(RecordingRepository.class);
+        when(repository.countByStatus()).thenReturn(List.of(row("PENDING", 5, 0), row("HEALED", 2, 2)));
+        RecordingStatsService stats = new RecordingStatsService();
+        ReflectionTestUtils.setField(stats, "recordingRepository", repository);
+        stats.reconcile();
+
+        // Insert, heal one pending orphan, delete a healed one, bulk insert three
+        stats.recordChange(null, false, false, "PENDING", true, true);
+        stats.recordChange("PENDING", true, true, "HEALED", false, true);
+        stats.recordChange("HEALED", false, true, null, false, false);
+        stats.recordInserted(3, "PENDING", true);
+
+        DashboardStats result = stats.getStats();
+        assertEquals(10, result.getTotalRecordings());
+        assertEquals(8, result.getOrphanedCount());
+        assertEquals(2, result.getHealedCount());
+        assertEquals(Map.of("PENDING", 8L, "HEALED", 2L), result.getStatusCounts());
+        verify(repository, times(1)).countByStatus();
+    }
+
+    private static StatusCountView row(String status, long total, long linked) {
+        return new StatusCountView() {
+            @Override
+            public String getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+
+            @Override
+            public long getLinked() {
+                return linked;
+            }
+        };
+    }
+}
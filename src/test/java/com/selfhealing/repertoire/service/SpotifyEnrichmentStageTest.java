@@ -0,0 +1,178 @@
+package com.selfhealing.repertoire.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selfhealing.repertoire.client.CachingLookupClient;
+import com.selfhealing.repertoire.client.LookupCache;
+import com.selfhealing.repertoire.client.MusicBrainzClient;
+import com.selfhealing.repertoire.client.SpotifyClient;
+import com.selfhealing.repertoire.client.SpotifyTokenManager;
+import com.selfhealing.repertoire.client.TokenBucketRateLimiter;
+import com.selfhealing.repertoire.client.UpstreamHttpClient;
+import com.selfhealing.repertoire.model.Recording;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the enrichment stage against a local stub of the MusicBrainz search,
+ * Spotify token and Spotify search endpoints.
+ */
+class SpotifyEnrichmentStageTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ThreadPoolExecutor executor;
+    private final List<String> spotifyQueries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile boolean spotifyDown = true;
+    private SpotifyEnrichmentStage stage;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        // MusicBrainz knows the first ISRC only
+        server.createContext("/ws/2/recording", exchange -> respond(exchange, 200,
+                "{\"count\":1,\"recordings\":[{\"isrcs\":[\"GBUM71029604\"],\"iswcs\":[\"T-010.154.444-5\"]}]}"));
+        server.createContext("/api/token", exchange -> respond(exchange, 200,
+                "{\"access_token\":\"token\",\"expires_in\":3600}"));
+        server.createContext("/v1/search", exchange -> {
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+            spotifyQueries.add(query);
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            if (query.contains("USUM71703861")) {
+                respond(exchange, 200, "{\"tracks\":{\"items\":[{\"name\":\"Believer\",\"duration_ms\":204346,"
+                        + "\"external_ids\":{\"isrc\":\"USUM71703861\"},\"artists\":[{\"name\":\"Imagine Dragons\"}]}]}}");
+            } else if (query.contains("GBAHS1600463")) {
+                respond(exchange, 200, "{\"tracks\":{\"items\":[]}}");
+            } else if (spotifyDown) {
+                respond(exchange, 500, "{}");
+            } else {
+                respond(exchange, 200, "{\"tracks\":{\"items\":[{\"name\":\"Blinding Lights\","
+                        + "\"artists\":[{\"name\":\"The Weeknd\"}]}]}}");
+            }
+        });
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        HttpClient httpClient = HttpClient.newBuilder().executor(executor).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        UpstreamHttpClient http = new UpstreamHttpClient("stub", httpClient, executor, objectMapper,
+                Duration.ofSeconds(5), 1, Duration.ofMillis(10));
+
+        MusicBrainzClient musicBrainz = new MusicBrainzClient();
+        ReflectionTestUtils.setField(musicBrainz, "http", http);
+        ReflectionTestUtils.setField(musicBrainz, "baseUrl", base + "/ws/2");
+        ReflectionTestUtils.setField(musicBrainz, "userAgent", "RepertoireTest/1.0");
+        ReflectionTestUtils.setField(musicBrainz, "rateLimiter", new TokenBucketRateLimiter("mb", 100, 100));
+
+        SpotifyTokenManager tokenManager = new SpotifyTokenManager();
+        ReflectionTestUtils.setField(tokenManager, "http", http);
+        ReflectionTestUtils.setField(tokenManager, "tokenUrl", base + "/api/token");
+        ReflectionTestUtils.setField(tokenManager, "clientId", "client");
+        ReflectionTestUtils.setField(tokenManager, "clientSecret", "secret");
+
+        SpotifyClient spotify = new SpotifyClient();
+        ReflectionTestUtils.setField(spotify, "http", http);
+        ReflectionTestUtils.setField(spotify, "searchUrl", base + "/v1/search");
+        ReflectionTestUtils.setField(spotify, "rateLimiter", new TokenBucketRateLimiter("spotify", 100, 100));
+        ReflectionTestUtils.setField(spotify, "tokenManager", tokenManager);
+
+        LookupCache cache = new LookupCache(null, Duration.ofDays(1), Duration.ofDays(1), 1000, false);
+        CachingLookupClient lookupClient = new CachingLookupClient(musicBrainz, spotify, cache, objectMapper);
+
+        stage = new SpotifyEnrichmentStage();
+        ReflectionTestUtils.setField(stage, "lookupClient", lookupClient);
+        ReflectionTestUtils.setField(stage, "tokenManager", tokenManager);
+        ReflectionTestUtils.setField(stage, "enabled", true);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverThreads.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    void enrichesOnlyWhatMusicBrainzCouldNotResolve() {
+        List<Recording> slice = List.of(recording("GBUM71029604"), recording("USUM71703861"),
+                recording("GBAHS1600463"), recording("QZES71982312"));
+
+        Map<String, SpotifyClient.SpotifyMetadata> enriched = stage.prepare(slice).join();
+
+        assertEquals(1, enriched.size());
+        SpotifyClient.SpotifyMetadata believer = enriched.get("USUM71703861");
+        assertEquals("Believer", believer.getTitle());
+        assertEquals("Imagine Dragons", believer.getArtist());
+        assertEquals(204346, believer.getDurationMs());
+        // Resolved on MusicBrainz, so never sent to Spotify; the other three searched side by side
+        assertEquals(3, spotifyQueries.size());
+        assertFalse(spotifyQueries.stream().anyMatch(query -> query.contains("GBUM71029604")));
+        assertTrue(maxConcurrent.get() > 1, "Max concurrent searches: " + maxConcurrent.get());
+    }
+
+    @Test
+    void failedLookupsAreRetriedOnTheNextSliceWhileAnswersAreCached() {
+        List<Recording> slice = List.of(recording("USUM71703861"), recording("GBAHS1600463"),
+                recording("QZES71982312"));
+        stage.prepare(slice).join();
+        spotifyQueries.clear();
+        spotifyDown = false;
+
+        Map<String, SpotifyClient.SpotifyMetadata> enriched = stage.prepare(slice).join();
+
+        assertEquals(List.of("USUM71703861", "QZES71982312"), List.copyOf(enriched.keySet()));
+        assertEquals("Blinding Lights", enriched.get("QZES71982312").getTitle());
+        assertEquals(1, spotifyQueries.size());
+    }
+
+    private static Recording recording(String isrc) {
+        Recording recording = new Recording();
+        recording.setIsrc(isrc);
+        recording.setRecordingTitle("Untitled");
+        return recording;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
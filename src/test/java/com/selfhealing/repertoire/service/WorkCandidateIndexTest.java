@@ -0,0 +1,120 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.model.Work;
+import com.selfhealing.repertoire.repository.WorkRepository;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkCandidateIndexTest {
+
+    private static final double THRESHOLD = 0.9;
+    private static final String[] WORDS = { "love", "night", "heart", "fire", "dance", "dream", "rain", "blue",
+            "summer", "shape", "of", "you", "the", "bohemian", "rhapsody", "yesterday", "hotel", "california",
+            "stairway", "to", "heaven", "imagine", "river", "smells", "like", "teen", "spirit", "sweet", "child" };
+
+    private final JaroWinklerSimilarity jaroWinkler = new JaroWinklerSimilarity();
+    private final Random random = new Random(42);
+    private final List<Work> works = new ArrayList<>();
+    private WorkCandidateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        WorkRepository repository = mock(WorkRepository.class);
+        when(repository.findAllTitles()).thenReturn(List.of());
+        index = new WorkCandidateIndex(repository);
+        index.rebuild();
+
+        for (int i = 0; i < 3000; i++) {
+            Work work = new Work();
+            work.setId(UUID.randomUUID());
+            work.setTitle(randomTitle());
+            works.add(work);
+            index.add(work);
+        }
+    }
+
+    @Test
+    void shortlistMatchesBruteForceScan() {
+        for (int i = 0; i < 1000; i++) {
+            String query = i % 2 == 0 ? perturb(works.get(random.nextInt(works.size())).getTitle()) : randomTitle();
+
+            UUID expectedId = null;
+            double expectedScore = 0.0;
+            for (Work work : works) {
+                double score = jaroWinkler.apply(query, work.getTitle());
+                if (score > expectedScore) {
+                    expectedScore = score;
+                    expectedId = work.getId();
+                }
+            }
+
+            UUID actualId = null;
+            double actualScore = 0.0;
+            List<WorkCandidateIndex.Candidate> shortlist = index.shortlist(query, THRESHOLD);
+            for (WorkCandidateIndex.Candidate candidate : shortlist) {
+                double score = jaroWinkler.apply(query, candidate.getTitle());
+                if (score > actualScore) {
+                    actualScore = score;
+                    actualId = candidate.getWorkId();
+                }
+            }
+
+            if (expectedScore >= THRESHOLD) {
+                assertEquals(expectedId, actualId, "Different match for '" + query + "'");
+                assertEquals(expectedScore, actualScore, 1e-12);
+            } else {
+                assertTrue(actualScore < THRESHOLD, "Spurious match for '" + query + "'");
+            }
+            assertTrue(shortlist.size() < works.size());
+        }
+    }
+
+    @Test
+    void newWorksAreFoundAfterIncrementalAdd() {
+        Work work = new Work();
+        work.setId(UUID.randomUUID());
+        work.setTitle("Bohemian Rhapsody");
+        index.add(work);
+
+        assertTrue(index.shortlist("Bohemian Rapsody", THRESHOLD).stream()
+                .anyMatch(candidate -> candidate.getWorkId().equals(work.getId())));
+    }
+
+    private String randomTitle() {
+        int words = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(random.nextBoolean() ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return title.toString();
+    }
+
+    private String perturb(String title) {
+        StringBuilder s = new StringBuilder(title);
+        int edits = 1 + random.nextInt(2);
+        for (int i = 0; i < edits && s.length() > 1; i++) {
+            int pos = random.nextInt(s.length());
+            switch (random.nextInt(3)) {
+                case 0 -> s.deleteCharAt(pos);
+                case 1 -> s.insert(pos, (char) ('a' + random.nextInt(26)));
+                default -> s.setCharAt(pos, (char) ('a' + random.nextInt(26)));
+            }
+        }
+        return s.toString();
+    }
+}
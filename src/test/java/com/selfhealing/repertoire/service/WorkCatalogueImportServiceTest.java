@@ -0,0 +1,67 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.repository.WorkBatchWriter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkCatalogueImportServiceTest {
+
+    @Test
+    void iswcsAreNormalizedOrRejected() {
+        assertEquals("T-010.154.444-5", WorkCatalogueImportService.normalizeIswc("T-010.154.444-5"));
+        assertEquals("T-010.154.444-5", WorkCatalogueImportService.normalizeIswc(" t0101544445 "));
+        assertEquals("T-010.154.444-5", WorkCatalogueImportService.normalizeIswc("T-010154444-5"));
+        assertNull(WorkCatalogueImportService.normalizeIswc("T-010.154.444"));
+        assertNull(WorkCatalogueImportService.normalizeIswc("0101544445"));
+        assertNull(WorkCatalogueImportService.normalizeIswc(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void chunksAreDeduplicatedBeforeTheBatchUpsert() {
+        WorkBatchWriter writer = mock(WorkBatchWriter.class);
+        when(writer.findExistingTitles(any())).thenReturn(Set.of("intro"));
+        when(writer.findByIswcs(any())).thenReturn(Map.of(
+                "T-070.100.200-1", new WorkBatchWriter.WorkRow("Shape of You", "T-070.100.200-1", "Song"),
+                "T-010.154.444-5", new WorkBatchWriter.WorkRow("Bohemian Rhapsody", "T-010.154.444-5", "Song")));
+        WorkCatalogueImportService service = new WorkCatalogueImportService();
+        ReflectionTestUtils.setField(service, "batchWriter", writer);
+
+        List<String[]> rows = Arrays.asList(
+                new String[] { "Shape of You", "T0701002001", "Song" },
+                new String[] { "Shape Of You (Live)", "T-070.100.200-1", null },
+                new String[] { "Bohemian Rhapsody", "T-010.154.444-5", "Song" },
+                new String[] { "bohemian rhapsody", null, null },
+                new String[] { "Lullaby", null, null },
+                new String[] { "LULLABY", "", null },
+                new String[] { "Intro", null, null },
+                new String[] { "Broken", "T-123", null },
+                new String[] { " ", "T-345.246.800-1", null },
+                null);
+        WorkCatalogueImportService.ChunkResult result = service.upsertChunk(rows);
+
+        ArgumentCaptor<List<WorkBatchWriter.WorkRow>> written = ArgumentCaptor.forClass(List.class);
+        verify(writer).upsert(written.capture());
+        assertEquals(List.of(
+                new WorkBatchWriter.WorkRow("Shape Of You (Live)", "T-070.100.200-1", null),
+                new WorkBatchWriter.WorkRow("Lullaby", null, null)), written.getValue());
+        assertEquals(1, result.inserted);
+        assertEquals(1, result.updated);
+        // Already stored as is, so not rewritten
+        assertEquals(1, result.unchanged);
+        assertEquals(7, result.skipped);
+    }
+}
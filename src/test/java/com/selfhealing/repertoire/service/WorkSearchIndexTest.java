@@ -0,0 +1,130 @@
+package com.selfhealing.repertoire.service;
+
+import com.selfhealing.repertoire.dto.RecordingDTO;
+import com.selfhealing.repertoire.repository.WorkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkSearchIndexTest {
+
+    private final List<RecordingDTO.WorkDTO> works = new ArrayList<>();
+    private WorkRepository repository;
+    private WorkSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        works.add(work("T-010.154.444-5", "Bohemian Rhapsody"));
+        works.add(work("T-070.100.200-1", "Shape of You"));
+        works.add(work("T-070.100.300-2", "Shape of My Heart"));
+        works.add(work("T-345.246.800-1", "Hotel California"));
+        works.add(work(null, "California Dreamin'"));
+        works.add(work(null, "Love"));
+        works.add(work(null, "Love Me Tender"));
+
+        repository = mock(WorkRepository.class);
+        when(repository.findAllSummaries()).thenReturn(works);
+        when(repository.findLinkedProfiles()).thenReturn(List.of());
+        index = new WorkSearchIndex(repository, new TextNormalizer());
+        index.rebuild();
+    }
+
+    @Test
+    void matchesPrefixesTyposAndIswcs() {
+        assertEquals(List.of("Bohemian Rhapsody"), titles(index.search("bohemian rha", null)));
+        assertEquals(List.of("Bohemian Rhapsody"), titles(index.search("Bohemain Rhapsody", null)));
+        assertEquals(List.of("Hotel California"), titles(index.search("hotel califronia", null)));
+        assertEquals(List.of("Shape of You", "Shape of My Heart"), titles(index.search("shape of", null)));
+        assertEquals(List.of("Shape of You", "Shape of My Heart"), titles(index.search("T-070.100", null)));
+        assertEquals(List.of("Bohemian Rhapsody"), titles(index.search("T0101544445", null)));
+        assertTrue(index.search("rhapsody zeppelin", null).isEmpty());
+    }
+
+    @Test
+    void ranksCloserTitlesFirstAndCapsResults() {
+        assertEquals(List.of("Love", "Love Me Tender"), titles(index.search("love", null)));
+        assertEquals(List.of("Hotel California", "California Dreamin'"), titles(index.search("califor", null)));
+        assertEquals(1, index.search("california", 1).size());
+        assertEquals(2, index.search("california", 1000).size());
+    }
+
+    @Test
+    void linksBreakTiesAndChangesApplyIncrementally() {
+        RecordingDTO.WorkDTO cover = work("T-999.999.999-9", "Shape of You");
+        index.put(cover);
+        index.recordLink(cover.getId());
+        assertEquals(cover.getId(), index.search("shape of you", null).get(0).getId());
+
+        RecordingDTO.WorkDTO renamed = new RecordingDTO.WorkDTO(works.get(5).getId(), null, "Lovesong", null);
+        index.put(renamed);
+        assertEquals("Lovesong", index.search("loves", null).get(0).getTitle());
+        assertFalse(titles(index.search("love", null)).contains("Love"));
+
+        index.remove(cover.getId());
+        assertTrue(index.search("T-999", null).isEmpty());
+        assertEquals(works.size(), index.size());
+    }
+
+    @Test
+    void relinkMovesTheLinkCount() {
+        RecordingDTO.WorkDTO cover = work("T-999.999.999-9", "Shape of You");
+        index.put(cover);
+        UUID original = works.get(1).getId();
+        index.recordLink(cover.getId());
+        assertEquals(cover.getId(), index.search("shape of you", null).get(0).getId());
+
+        // The recording moves from the cover to the original, then a second one joins it
+        index.recordUnlink(cover.getId());
+        index.recordLink(original);
+        assertEquals(original, index.search("shape of you", null).get(0).getId());
+        index.recordUnlink(original);
+        index.recordUnlink(original);
+        index.recordLink(cover.getId());
+        assertEquals(cover.getId(), index.search("shape of you", null).get(0).getId());
+    }
+
+    @Test
+    void tombstonesTriggerABackgroundRebuild() {
+        ReflectionTestUtils.setField(index, "compactMinRemoved", 2);
+        ReflectionTestUtils.setField(index, "compactRatio", 0.25);
+
+        index.remove(works.get(3).getId());
+        index.remove(works.get(4).getId());
+        verify(repository, times(1)).findAllSummaries();
+
+        // A third tombstone among four live Works
+        index.remove(works.get(5).getId());
+        verify(repository, timeout(5000).times(2)).findAllSummaries();
+    }
+
+    @Test
+    void oneEditApart() {
+        assertTrue(WorkSearchIndex.withinOneEdit("heart", "haert"));
+        assertTrue(WorkSearchIndex.withinOneEdit("heart", "hert"));
+        assertTrue(WorkSearchIndex.withinOneEdit("heart", "hearts"));
+        assertTrue(WorkSearchIndex.withinOneEdit("heart", "heard"));
+        assertFalse(WorkSearchIndex.withinOneEdit("heart", "earth"));
+        assertFalse(WorkSearchIndex.withinOneEdit("heart", "hea"));
+    }
+
+    private static RecordingDTO.WorkDTO work(String iswc, String title) {
+        return new RecordingDTO.WorkDTO(UUID.randomUUID(), iswc, title, "Original");
+    }
+
+    private static List<String> titles(List<RecordingDTO.WorkDTO> found) {
+        return found.stream().map(RecordingDTO.WorkDTO::getTitle).toList();
+    }
+}